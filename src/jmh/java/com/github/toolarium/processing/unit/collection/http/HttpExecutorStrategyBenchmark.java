@@ -0,0 +1,205 @@
+/*
+ * HttpExecutorStrategyBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import com.github.toolarium.processing.unit.collection.http.test.SyntheticHttpServer;
+import com.github.toolarium.processing.unit.dto.Parameter;
+import com.github.toolarium.processing.unit.runtime.test.TestProcessingUnitRunner;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the executor strategies of the http client under load: every invocation runs several processing units in
+ * parallel, every unit with its own http client, against a {@link SyntheticHttpServer} with a fixed latency. Besides
+ * the time the peak number of threads (ThreadMXBean) and the peak resident set size (VmRSS, Linux only, otherwise 0)
+ * of the invocation are reported as secondary results. The threads of the synthetic server are the same for all
+ * strategies, only the difference between the strategies is meaningful. Every strategy runs in its own fork, so the
+ * shared executors are created by the measured units.
+ *
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class HttpExecutorStrategyBenchmark {
+    private static final int PORT = 19380;
+    private static final int NUMBER_OF_CALLS = 400;
+    private static final long SAMPLE_INTERVAL = 10;
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    @Param({"client", "shared", "virtual", "caller"})
+    private String executor;
+
+    @Param({"16"})
+    private int numberOfUnits;
+
+    @Param({"16"})
+    private String maxInFlight;
+
+    private SyntheticHttpServer syntheticHttpServer;
+    private ExecutorService unitExecutor;
+
+
+    /**
+     * Defines the secondary results of an invocation
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ResourceCounters {
+        /** the peak number of live threads */
+        public long peakThreads;
+
+        /** the peak resident set size in kilobytes */
+        public long peakRssKb;
+
+
+        /**
+         * Reset the counters
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakThreads = 0;
+            peakRssKb = 0;
+        }
+    }
+
+
+    /**
+     * Setup the benchmark: start the synthetic server
+     *
+     * @throws IOException In case the server can not be started
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        syntheticHttpServer = new SyntheticHttpServer().latency(20);
+        syntheticHttpServer.start(PORT, null);
+        unitExecutor = Executors.newFixedThreadPool(numberOfUnits);
+    }
+
+
+    /**
+     * Stop the synthetic server
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        unitExecutor.shutdownNow();
+        syntheticHttpServer.stop();
+    }
+
+
+    /**
+     * Run the processing units in parallel and sample the threads and the resident set size
+     *
+     * @param resourceCounters the secondary results
+     * @return the number of processed units
+     * @throws Exception In case of an error
+     */
+    @Benchmark
+    public long processUnits(ResourceCounters resourceCounters) throws Exception {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+
+        final List<Future<Long>> futureList = new ArrayList<Future<Long>>(numberOfUnits);
+        for (int i = 0; i < numberOfUnits; i++) {
+            futureList.add(unitExecutor.submit(() -> new TestProcessingUnitRunner().run(HttpProcessingUnit.class, createParameterList())));
+        }
+
+        long peakRssKb = 0;
+        long result = 0;
+        for (Future<Long> future : futureList) {
+            while (!future.isDone()) {
+                peakRssKb = Math.max(peakRssKb, getRssKb());
+                try {
+                    future.get(SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // NOP, sample again
+                }
+            }
+
+            try {
+                result += future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        resourceCounters.peakThreads = threadMXBean.getPeakThreadCount();
+        resourceCounters.peakRssKb = Math.max(peakRssKb, getRssKb());
+        return result;
+    }
+
+
+    /**
+     * Create the parameters of a processing unit, every unit has its own http client
+     *
+     * @return the parameters
+     */
+    private List<Parameter> createParameterList() {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.DOMAIN_PARAMETER.getKey(), "localhost"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + PORT));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/synthetic"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.HTTP_VERSION_PARAMETER.getKey(), "1.1"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "" + NUMBER_OF_CALLS));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), maxInFlight));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), maxInFlight));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), HttpProcessingUnitUtil.RESPONSE_BODY_DISCARD));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.SHARED_CLIENT_PARAMETER.getKey(), "false"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.EXECUTOR_PARAMETER.getKey(), executor));
+        return parameterList;
+    }
+
+
+    /**
+     * Get the current resident set size of the JVM
+     *
+     * @return the resident set size in kilobytes or 0 in case it is not available
+     */
+    private static long getRssKb() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // NOP, not available
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * HttpProcessingUnitThroughputBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import com.github.toolarium.processing.unit.collection.http.test.HttpTestProcessingUnitRunner;
+import com.github.toolarium.processing.unit.dto.Parameter;
+import com.github.toolarium.processing.unit.exception.ProcessingException;
+import com.github.toolarium.processing.unit.exception.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the end to end time per call of the {@link HttpProcessingUnit} against the local echo server of the
+ * toolarium-network over http and https with HTTP/1.1 and HTTP/2. Every invocation runs the processing unit with 
+ * a fresh server, the result is the time per call including the share of the server start. Run it with the gc profiler 
+ * (default of the jmh task) to see the allocation rate per call.
+ *  
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HttpProcessingUnitThroughputBenchmark {
+    private static final int NUMBER_OF_CALLS = 2000;
+    
+    @Param({"http", "https"})
+    private String protocol;
+    
+    @Param({"1.1", "2"})
+    private String httpVersion;
+    
+    @Param({"1", "16"})
+    private String maxInFlight;
+
+    private int port = 19080;
+
+    
+    /**
+     * Run the processing unit
+     *
+     * @return the number of processed units
+     * @throws ValidationException In case of a validation error
+     * @throws ProcessingException In case of a processing error
+     */
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_CALLS)
+    public long processUnit() throws ValidationException, ProcessingException {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), protocol));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.HTTP_VERSION_PARAMETER.getKey(), httpVersion));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.VERIFY_CERTIFICATE_PARAMETER.getKey(), "false"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "" + NUMBER_OF_CALLS));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), maxInFlight));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), maxInFlight));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), HttpProcessingUnitUtil.RESPONSE_BODY_DISCARD));
+        
+        return new HttpTestProcessingUnitRunner().run(HttpProcessingUnit.class, parameterList);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * HttpProcessingUnitUtilBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import com.github.toolarium.processing.unit.collection.http.test.HttpTestProcessingUnitRunner;
+import com.github.toolarium.processing.unit.dto.Parameter;
+import com.github.toolarium.processing.unit.exception.ProcessingException;
+import com.github.toolarium.processing.unit.exception.ValidationException;
+import com.github.toolarium.processing.unit.runtime.IParameterRuntime;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the request preparation of the {@link HttpProcessingUnitUtil} and the {@link HttpProcessingUnit}: the uri,
+ * the headers, the request template and the request of a call. The parameter runtime is taken from a processing unit
+ * which was run once against the local echo server. Run it with the gc profiler (default of the jmh task) to see the 
+ * allocation rate per call.
+ *  
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpProcessingUnitUtilBenchmark {
+    private BenchmarkHttpProcessingUnit processingUnit;
+    private IParameterRuntime parameterRuntime;
+    private URI requestUri;
+    private long callIndex;
+
+
+    /**
+     * Setup the benchmark
+     *
+     * @throws ValidationException In case of a validation error
+     * @throws ProcessingException In case of a processing error
+     */
+    @Setup
+    public void setup() throws ValidationException, ProcessingException {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "18080"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_QUERY_PARAMETER.getKey(), "q=abc&name=toolarium processing"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUESTR_HEADER_PARAMETER.getKey(), "Accept"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUESTR_HEADER_PARAMETER.getKey(), "application/json"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER.getKey(), "{\"action\":\"hello\"}"));
+
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(BenchmarkHttpProcessingUnit.class, parameterList);
+        processingUnit = (BenchmarkHttpProcessingUnit)processRunner.getProcesingUnit();
+        parameterRuntime = processingUnit.parameterRuntime();
+        requestUri = HttpProcessingUnitUtil.getInstance().getRequestUri(parameterRuntime);
+        callIndex = 0;
+    }
+
+    
+    /**
+     * Resolve the request uri from the parameters
+     *
+     * @return the request uri
+     * @throws ValidationException In case of a validation error
+     */
+    @Benchmark
+    public URI getRequestUri() throws ValidationException {
+        return HttpProcessingUnitUtil.getInstance().getRequestUri(parameterRuntime);
+    }
+
+    
+    /**
+     * Resolve the request headers from the parameters
+     *
+     * @return the request headers
+     */
+    @Benchmark
+    public String[] getRequestHeaders() {
+        return HttpProcessingUnitUtil.getInstance().getRequestHeaders(parameterRuntime);
+    }
+
+    
+    /**
+     * Create the request template from the parameters, as it is done once in the initialize
+     *
+     * @return the request template
+     * @throws ValidationException In case of a validation error
+     */
+    @Benchmark
+    public HttpRequestTemplate createHttpRequestTemplate() throws ValidationException {
+        return HttpProcessingUnitUtil.getInstance().createHttpRequestTemplate(parameterRuntime, requestUri);
+    }
+
+    
+    /**
+     * Create the request of a call, as it is done for every call
+     *
+     * @return the request
+     * @throws IOException In case of an I/O error
+     */
+    @Benchmark
+    public HttpRequest createHttpRequest() throws IOException {
+        return processingUnit.createHttpRequest(callIndex++);
+    }
+
+    
+    /**
+     * Exposes the parameter runtime and the request creation of the processing unit
+     */
+    public static class BenchmarkHttpProcessingUnit extends HttpProcessingUnit {
+        
+        /**
+         * Get the parameter runtime
+         *
+         * @return the parameter runtime
+         */
+        public IParameterRuntime parameterRuntime() {
+            return getParameterRuntime();
+        }
+
+        
+        /**
+         * @see com.github.toolarium.processing.unit.collection.http.HttpProcessingUnit#createHttpRequest(long)
+         */
+        @Override
+        public HttpRequest createHttpRequest(long callIndex) throws IOException {
+            return super.createHttpRequest(callIndex);
+        }
+    }
+}
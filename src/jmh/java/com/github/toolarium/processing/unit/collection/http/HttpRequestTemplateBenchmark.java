@@ -0,0 +1,89 @@
+/*
+ * HttpRequestTemplateBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the per call request creation with the prebuilt {@link HttpRequestTemplate}. Run it with the gc profiler 
+ * (default of the jmh task) to see the allocation rate per call.
+ *  
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestTemplateBenchmark {
+    private static final String[] HEADERS = new String[] {"Content-Type", "application/json", "Accept", "application/json"};
+    private URI requestUri;
+    private HttpRequestTemplate httpRequestTemplate;
+
+
+    /**
+     * Setup the benchmark
+     */
+    @Setup
+    public void setup() {
+        requestUri = URI.create("https://localhost:8443/echo?q=abc");
+        httpRequestTemplate = new HttpRequestTemplate(requestUri, "POST", HttpRequest.BodyPublishers.ofString("{\"action\":\"hello\"}"), HEADERS, Duration.ofSeconds(60), HttpClient.Version.HTTP_2);
+    }
+
+    
+    /**
+     * Create the request for every call as it was done before the request template was introduced
+     *
+     * @return the request
+     */
+    @Benchmark
+    public HttpRequest createRequestPerCall() {
+        return HttpRequest.newBuilder(requestUri)
+                .POST(HttpRequest.BodyPublishers.ofString(" {\"action\":\"hello\"} ".trim()))
+                .headers(HEADERS)
+                .timeout(Duration.ofSeconds(60))
+                .version(HttpClient.Version.HTTP_2)
+                .build();
+    }
+
+    
+    /**
+     * Create a new request from the template, e.g. in case of a different uri
+     *
+     * @return the request
+     */
+    @Benchmark
+    public HttpRequest newRequestFromTemplate() {
+        return httpRequestTemplate.newHttpRequest(requestUri);
+    }
+
+    
+    /**
+     * Use the prebuilt request of the template
+     *
+     * @return the request
+     */
+    @Benchmark
+    public HttpRequest prebuiltRequest() {
+        return httpRequestTemplate.getHttpRequest();
+    }
+}
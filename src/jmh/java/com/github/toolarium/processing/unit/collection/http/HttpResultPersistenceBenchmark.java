@@ -0,0 +1,135 @@
+/*
+ * HttpResultPersistenceBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the {@link HttpProcessingUnit.HttpResultPersistence}: the add and pop of a result as it is done for every call 
+ * and the suspend and resume of the whole persistence. Run it with the gc profiler (default of the jmh task) to see the 
+ * allocation rate.
+ *  
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HttpResultPersistenceBenchmark {
+    private static final String RESULT = "{\"id\":1,\"name\":\"result 1\",\"status\":\"OK\",\"values\":[1,2,3,4,5,6,7,8,9]}";
+    
+    @Param({"1000", "100000"})
+    private int numberOfResults;
+
+    private HttpProcessingUnit.HttpResultPersistence persistence;
+    private HttpProcessingUnit.HttpResultPersistence snapshotPersistence;
+    private byte[] snapshot;
+
+    
+    /**
+     * Setup the benchmark: the persistence of the add and pop keeps its size, the snapshot contains the results
+     *
+     * @throws IOException In case of an I/O error
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        persistence = new HttpProcessingUnit.HttpResultPersistence();
+        persistence.initializeResultStore(new MemoryHttpResultStore());
+        for (int i = 0; i < numberOfResults; i++) {
+            persistence.add(RESULT);
+        }
+
+        snapshotPersistence = new HttpProcessingUnit.HttpResultPersistence();
+        snapshotPersistence.initializeResultStore(new MemoryHttpResultStore());
+        for (int i = 0; i < numberOfResults; i++) {
+            snapshotPersistence.add(RESULT);
+        }
+        snapshot = suspend();
+    }
+
+    
+    /**
+     * Add a result and pop the oldest one, as a producer and a consumer do it for every call
+     *
+     * @return the popped result
+     */
+    @Benchmark
+    public String addAndPop() {
+        persistence.add(RESULT);
+        return persistence.pop();
+    }
+
+    
+    /**
+     * Add a result and pop the oldest one as bytes
+     *
+     * @return the popped result
+     */
+    @Benchmark
+    public byte[] addAndPopBytes() {
+        persistence.add(RESULT);
+        return persistence.popBytes();
+    }
+
+    
+    /**
+     * Suspend: serialize the persistence
+     *
+     * @return the snapshot
+     * @throws IOException In case of an I/O error
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public byte[] suspend() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(snapshotPersistence);
+        }
+        return buffer.toByteArray();
+    }
+
+    
+    /**
+     * Resume: deserialize the persistence
+     *
+     * @return the persistence
+     * @throws IOException In case of an I/O error
+     * @throws ClassNotFoundException In case of an invalid class
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public Object resume() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return in.readObject();
+        }
+    }
+}
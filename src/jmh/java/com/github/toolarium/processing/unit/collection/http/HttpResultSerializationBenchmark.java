@@ -0,0 +1,149 @@
+/*
+ * HttpResultSerializationBenchmark.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the suspend and resume time of the results: the previous default java serialization of a 
+ * <code>LinkedList&lt;String&gt;</code> against the compact format of the {@link MemoryHttpResultStore}. 
+ * The snapshot size is reported as the secondary result snapshotBytes.
+ *  
+ * @author patrick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HttpResultSerializationBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int numberOfResults;
+    
+    @Param({"java", "compact", "deflate", "deduplicate", "deflate-deduplicate"})
+    private String format;
+
+    private Object snapshotObject;
+    private byte[] snapshot;
+
+    
+    /**
+     * Setup the benchmark: the results are json like bodies, every 10th body is repeated
+     *
+     * @throws IOException In case of an I/O error
+     */
+    @Setup
+    public void setup() throws IOException {
+        if ("java".equals(format)) {
+            LinkedList<String> resultList = new LinkedList<String>();
+            for (int i = 0; i < numberOfResults; i++) {
+                resultList.add(createResult(i));
+            }
+            snapshotObject = resultList;
+        } else {
+            MemoryHttpResultStore resultStore = new MemoryHttpResultStore(format.startsWith("deflate"), format.endsWith("deduplicate"));
+            for (int i = 0; i < numberOfResults; i++) {
+                resultStore.add(createResult(i).getBytes(StandardCharsets.UTF_8));
+            }
+            snapshotObject = resultStore;
+        }
+        
+        snapshot = serialize(snapshotObject);
+    }
+
+    
+    /**
+     * Suspend: serialize the results
+     *
+     * @param snapshotCounters the counters of the snapshot
+     * @return the snapshot
+     * @throws IOException In case of an I/O error
+     */
+    @Benchmark
+    public byte[] suspend(SnapshotCounters snapshotCounters) throws IOException {
+        final byte[] result = serialize(snapshotObject);
+        snapshotCounters.snapshotBytes = result.length;
+        return result;
+    }
+
+    
+    /**
+     * Resume: deserialize the results
+     *
+     * @return the results
+     * @throws IOException In case of an I/O error
+     * @throws ClassNotFoundException In case of an invalid class
+     */
+    @Benchmark
+    public Object resume() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return in.readObject();
+        }
+    }
+
+    
+    /**
+     * Serialize an object
+     *
+     * @param object the object
+     * @return the serialized object
+     * @throws IOException In case of an I/O error
+     */
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(object);
+        }
+        return buffer.toByteArray();
+    }
+
+    
+    /**
+     * Create a result
+     *
+     * @param i the index
+     * @return the result
+     */
+    private static String createResult(int i) {
+        int id = i;
+        if (i % 10 == 0) {
+            id = 0;
+        }
+        return "{\"id\":" + id + ",\"name\":\"result " + id + "\",\"status\":\"OK\",\"values\":[1,2,3,4,5,6,7,8,9]}";
+    }
+
+    
+    /**
+     * Reports the size of the snapshot as secondary result of the suspend benchmark
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SnapshotCounters {
+        /** The size of the snapshot in bytes */
+        public long snapshotBytes;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * AdaptiveConcurrencyLimiter.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+
+/**
+ * Implements an AIMD (additive increase, multiplicative decrease) concurrency limiter. The limit is increased by one 
+ * per window of calls as long as the smoothed latency stays close to the baseline latency. On an overload (e.g. a timeout,
+ * a 429 or a 503) or in case the latency grows beyond the tolerance the limit is decreased multiplicatively, at most once per window.
+ * The baseline follows the minimum latency and slowly drifts to the observed latency, so it adapts to a changed partner.
+ * 
+ * @author patrick
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double SMOOTHING_FACTOR = 0.2;
+    private static final double BASELINE_DRIFT_FACTOR = 0.001;
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private volatile int currentLimit;
+    private double baselineLatency;
+    private double smoothedLatency;
+    private long samplesUntilNextDecrease;
+
+    
+    /**
+     * Constructor for AdaptiveConcurrencyLimiter
+     *
+     * @param minLimit the min and initial limit
+     * @param maxLimit the max limit
+     */
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = this.minLimit;
+        this.currentLimit = this.minLimit;
+        this.baselineLatency = -1;
+        this.smoothedLatency = -1;
+        this.samplesUntilNextDecrease = 0;
+    }
+
+    
+    /**
+     * Add the sample of a completed call
+     *
+     * @param latency the latency of the call in nanoseconds
+     * @param overload true if the call indicates an overload of the partner, e.g. a timeout, a 429 or a 503
+     */
+    public synchronized void onSample(long latency, boolean overload) {
+        if (samplesUntilNextDecrease > 0) {
+            samplesUntilNextDecrease--;
+        }
+        
+        if (!overload) {
+            final double sample = Math.max(1, latency);
+            if (baselineLatency < 0 || sample < baselineLatency) {
+                baselineLatency = sample;
+            } else {
+                baselineLatency += (sample - baselineLatency) * BASELINE_DRIFT_FACTOR;
+            }
+            
+            if (smoothedLatency < 0) {
+                smoothedLatency = sample;
+            } else {
+                smoothedLatency += (sample - smoothedLatency) * SMOOTHING_FACTOR;
+            }
+        }
+
+        if (overload || smoothedLatency > baselineLatency * LATENCY_TOLERANCE) {
+            if (samplesUntilNextDecrease == 0) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                samplesUntilNextDecrease = (long)Math.ceil(limit);
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        
+        currentLimit = (int)limit;
+    }
+
+    
+    /**
+     * Get the current concurrency limit
+     *
+     * @return the current limit
+     */
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    
+    /**
+     * Get the min limit
+     *
+     * @return the min limit
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    
+    /**
+     * Get the max limit
+     *
+     * @return the max limit
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveConcurrencyLimiter [limit=" + currentLimit + ", minLimit=" + minLimit + ", maxLimit=" + maxLimit + ", baselineLatency=" + (long)baselineLatency + ", smoothedLatency=" + (long)smoothedLatency + "]";
+    }
+}
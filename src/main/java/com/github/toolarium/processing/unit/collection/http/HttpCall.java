@@ -0,0 +1,156 @@
+/*
+ * HttpCall.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Defines a http call which is in flight. It keeps the source future of the call, a cancelled call cancels the request 
+ * and its pending retries.
+ * 
+ * @author patrick
+ */
+final class HttpCall {
+    private final long index;
+    private final long startTime;
+    private volatile long endTime;
+    private final CompletableFuture<HttpResponse<HttpResponseBody>> source;
+    private final CompletableFuture<HttpResponse<HttpResponseBody>> future;
+
+    
+    /**
+     * Constructor for HttpCall
+     *
+     * @param index the index of the call
+     * @param future the future of the response
+     * @param startTime the start time in nanoseconds, e.g. the intended send time of a scheduled call
+     */
+    HttpCall(long index, CompletableFuture<HttpResponse<HttpResponseBody>> future, long startTime) {
+        this.index = index;
+        this.startTime = startTime;
+        this.endTime = 0;
+        this.source = future;
+        this.future = future.whenComplete((response, throwable) -> endTime = System.nanoTime());
+    }
+
+
+    /**
+     * Cancel the source future in case a dependent future is cancelled: the cancellation of a dependent stage is not 
+     * propagated to the stage it depends on.
+     *
+     * @param <T> the result type
+     * @param source the source future
+     * @param dependent the future which depends on the source future
+     * @return the dependent future
+     */
+    static <T> CompletableFuture<T> propagateCancel(CompletableFuture<?> source, CompletableFuture<T> dependent) {
+        dependent.whenComplete((result, throwable) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    
+    /**
+     * Get the index of the call
+     *
+     * @return the index
+     */
+    long getIndex() {
+        return index;
+    }
+
+    
+    /**
+     * Get the future of the response
+     *
+     * @return the future
+     */
+    CompletableFuture<HttpResponse<HttpResponseBody>> getFuture() {
+        return future;
+    }
+
+    
+    /**
+     * Check if the call is done
+     *
+     * @return true if the call is done
+     */
+    boolean isDone() {
+        return future.isDone();
+    }
+
+
+    /**
+     * Cancel the call: the request and its pending retries are cancelled, a received streamed body is closed
+     */
+    void cancel() {
+        if (!source.cancel(true) && source.isDone() && !source.isCompletedExceptionally()) {
+            final HttpResponse<HttpResponseBody> response = source.getNow(null);
+            if (response != null && response.body() != null && response.body().getStream() != null) {
+                try {
+                    response.body().getStream().close();
+                } catch (IOException e) {
+                    // NOP
+                }
+            }
+        }
+    }
+
+    
+    /**
+     * Wait until the call is completed
+     *
+     * @param deadline the deadline in nanoseconds
+     * @return true if the call is done, false if the deadline has been reached
+     */
+    boolean awaitCompletion(long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return future.isDone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // NOP, the call is completed
+        }
+        
+        return true;
+    }
+
+    
+    /**
+     * Get the start time
+     *
+     * @return the start time in nanoseconds
+     */
+    long getStartTime() {
+        return startTime;
+    }
+
+    
+    /**
+     * Get the latency of the call
+     *
+     * @return the latency in nanoseconds
+     */
+    long getLatency() {
+        long end = endTime;
+        if (end == 0) {
+            end = System.nanoTime();
+        }
+        return end - startTime;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * HttpCallCursor.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+
+/**
+ * Defines the cursor of the calls. The calls are issued in order but can complete out of order: all calls below the 
+ * watermark are completed, the completed calls above are kept in a bit set. After a resume the calls are issued again 
+ * from the watermark and the already completed calls are skipped, so no call is repeated or skipped.
+ * 
+ * @author patrick
+ */
+public class HttpCallCursor implements Serializable {
+    private static final long serialVersionUID = 2793472375829466618L;
+    private long watermark;
+    private BitSet completedCalls;
+    private transient long nextIndex;
+
+    
+    /**
+     * Constructor for HttpCallCursor
+     */
+    public HttpCallCursor() {
+        this(0);
+    }
+
+    
+    /**
+     * Constructor for HttpCallCursor
+     * 
+     * @param start the index of the first call, e.g. the start of a lane
+     */
+    public HttpCallCursor(long start) {
+        watermark = start;
+        completedCalls = new BitSet();
+        nextIndex = start;
+    }
+
+    
+    /**
+     * Get the index of the next call which has to be issued
+     *
+     * @return the index of the next call
+     */
+    public synchronized long next() {
+        if (nextIndex < watermark) {
+            nextIndex = watermark;
+        }
+        
+        while (completedCalls.get((int)(nextIndex - watermark))) {
+            nextIndex++;
+        }
+        
+        return nextIndex++;
+    }
+
+    
+    /**
+     * Mark a call as completed
+     *
+     * @param index the index of the call
+     */
+    public synchronized void complete(long index) {
+        if (index < watermark) {
+            return;
+        }
+        
+        completedCalls.set((int)(index - watermark));
+        final int completedInOrder = completedCalls.nextClearBit(0);
+        if (completedInOrder > 0) {
+            watermark += completedInOrder;
+            completedCalls = completedCalls.get(completedInOrder, Math.max(completedInOrder, completedCalls.length()));
+        }
+    }
+
+    
+    /**
+     * Reset the cursor, the calls which are issued but not completed will be issued again
+     */
+    public synchronized void reset() {
+        nextIndex = watermark;
+    }
+
+    
+    /**
+     * Get the watermark: all calls below are completed
+     *
+     * @return the watermark
+     */
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "HttpCallCursor [watermark=" + watermark + ", completedCalls=" + completedCalls + ", nextIndex=" + nextIndex + "]";
+    }
+}
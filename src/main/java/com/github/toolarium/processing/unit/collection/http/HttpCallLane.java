@@ -0,0 +1,171 @@
+/*
+ * HttpCallLane.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Defines a lane: a contiguous range of calls which is processed in parallel to the other lanes. Every lane has its own
+ * {@link HttpCallCursor}, it is kept in the persistence so that a resumed lane continues without repeated or skipped calls.
+ *
+ * @author patrick
+ */
+public class HttpCallLane implements Serializable {
+    private static final long serialVersionUID = -4619482355390384519L;
+    private final int id;
+    private final long start;
+    private final long end;
+    private final HttpCallCursor callCursor;
+    private long numberOfProcessedCalls;
+
+
+    /**
+     * Constructor for HttpCallLane
+     *
+     * @param id the id of the lane
+     * @param start the index of the first call
+     * @param end the index after the last call
+     */
+    public HttpCallLane(int id, long start, long end) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.callCursor = new HttpCallCursor(start);
+        this.numberOfProcessedCalls = 0;
+    }
+
+
+    /**
+     * Split the calls into lanes of the same size, the first lanes take the remainder
+     *
+     * @param numberOfCalls the number of calls
+     * @param numberOfLanes the number of lanes
+     * @return the lanes, there are no empty lanes
+     */
+    public static List<HttpCallLane> partition(long numberOfCalls, int numberOfLanes) {
+        final int lanes = (int)Math.max(1, Math.min(numberOfLanes, numberOfCalls));
+        final List<HttpCallLane> laneList = new ArrayList<HttpCallLane>(lanes);
+        final long size = numberOfCalls / lanes;
+        final long remainder = numberOfCalls % lanes;
+        long start = 0;
+        for (int i = 0; i < lanes; i++) {
+            final long end = start + size + ((i < remainder) ? 1 : 0);
+            laneList.add(new HttpCallLane(i, start, end));
+            start = end;
+        }
+
+        return laneList;
+    }
+
+
+    /**
+     * Get the id of the lane
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+
+    /**
+     * Get the index of the first call
+     *
+     * @return the index of the first call
+     */
+    public long getStart() {
+        return start;
+    }
+
+
+    /**
+     * Get the index after the last call
+     *
+     * @return the index after the last call
+     */
+    public long getEnd() {
+        return end;
+    }
+
+
+    /**
+     * Check if a call belongs to the lane
+     *
+     * @param callIndex the index of the call
+     * @return true if the call belongs to the lane
+     */
+    public boolean contains(long callIndex) {
+        return callIndex >= start && callIndex < end;
+    }
+
+
+    /**
+     * Get the call cursor of the lane
+     *
+     * @return the call cursor
+     */
+    public HttpCallCursor getCallCursor() {
+        return callCursor;
+    }
+
+
+    /**
+     * Get the index of the next call of the lane
+     *
+     * @return the index of the next call or -1 if all calls of the lane are issued
+     */
+    public long next() {
+        final long callIndex = callCursor.next();
+        if (callIndex >= end) {
+            return -1;
+        }
+
+        return callIndex;
+    }
+
+
+    /**
+     * Mark a call of the lane as completed
+     *
+     * @param callIndex the index of the call
+     */
+    public synchronized void complete(long callIndex) {
+        callCursor.complete(callIndex);
+        numberOfProcessedCalls++;
+    }
+
+
+    /**
+     * Get the number of processed calls of the lane
+     *
+     * @return the number of processed calls
+     */
+    public synchronized long getNumberOfProcessedCalls() {
+        return numberOfProcessedCalls;
+    }
+
+
+    /**
+     * Check if all calls of the lane are completed
+     *
+     * @return true if the lane is completed
+     */
+    public boolean isCompleted() {
+        return callCursor.getWatermark() >= end;
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "HttpCallLane [id=" + id + ", start=" + start + ", end=" + end + ", numberOfProcessedCalls=" + getNumberOfProcessedCalls() + ", callCursor=" + callCursor + "]";
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * HttpClientRegistry.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.net.http.HttpClient;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Defines a JVM wide registry of {@link HttpClient} instances, keyed by their effective configuration. The clients are reference 
+ * counted: a client which is no longer used is closed after an idle timeout, in the meantime its connections and TLS sessions 
+ * are reused by the next processing unit with the same configuration.
+ * 
+ * @author patrick
+ */
+public final class HttpClientRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientRegistry.class);
+    private final Map<Key, Entry> clientMap;
+    private final Map<HttpClient, Entry> entryMap;
+    private volatile ScheduledExecutorService scheduler;
+
+    
+    /**
+     * Private class, the only instance of the singelton which will be created by accessing the holder class.
+     *
+     * @author patrick
+     */
+    private static class HOLDER {
+        static final HttpClientRegistry INSTANCE = new HttpClientRegistry();
+    }
+
+    
+    /**
+     * Constructor
+     */
+    private HttpClientRegistry() {
+        clientMap = new HashMap<Key, Entry>();
+        entryMap = new IdentityHashMap<HttpClient, Entry>();
+    }
+
+    
+    /**
+     * Get the instance
+     *
+     * @return the instance
+     */
+    public static HttpClientRegistry getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+    
+    /**
+     * Acquire the client of a configuration, the reference count is increased
+     *
+     * @param key the key of the configuration
+     * @return the client or null in case there is no client with this configuration
+     */
+    public synchronized HttpClient acquire(Key key) {
+        final Entry entry = clientMap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        
+        entry.referenceCount++;
+        if (entry.closeTask != null) {
+            entry.closeTask.cancel(false);
+            entry.closeTask = null;
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Reuse http client " + key + " (references: " + entry.referenceCount + ").");
+        }
+        return entry.httpClient;
+    }
+
+    
+    /**
+     * Register a new client and acquire it. In case a client with the same configuration was registered in the meantime,
+     * the given client is closed and the registered one is returned.
+     *
+     * @param key the key of the configuration
+     * @param httpClient the client
+     * @param idleTimeout the time in milliseconds an unused client is kept open
+     * @return the acquired client
+     */
+    public HttpClient register(Key key, HttpClient httpClient, long idleTimeout) {
+        synchronized (this) {
+            final HttpClient registeredHttpClient = acquire(key);
+            if (registeredHttpClient == null) {
+                final Entry entry = new Entry(key, httpClient, idleTimeout);
+                clientMap.put(key, entry);
+                entryMap.put(httpClient, entry);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Register http client " + key + ".");
+                }
+                return httpClient;
+            }
+            
+            if (registeredHttpClient != httpClient) {
+                close(httpClient);
+            }
+            return registeredHttpClient;
+        }
+    }
+
+    
+    /**
+     * Release a client: the reference count is decreased, an unused client is closed after its idle timeout. 
+     * A client which is not registered is closed immediately.
+     *
+     * @param httpClient the client
+     */
+    public void release(HttpClient httpClient) {
+        if (httpClient == null) {
+            return;
+        }
+        
+        synchronized (this) {
+            final Entry entry = entryMap.get(httpClient);
+            if (entry != null) {
+                entry.referenceCount = Math.max(0, entry.referenceCount - 1);
+                if (entry.referenceCount > 0) {
+                    return;
+                }
+                
+                if (entry.idleTimeout > 0) {
+                    entry.closeTask = getScheduler().schedule(() -> closeIfIdle(entry), entry.idleTimeout, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                
+                clientMap.remove(entry.key);
+                entryMap.remove(httpClient);
+            }
+        }
+        
+        close(httpClient);
+    }
+
+    
+    /**
+     * Get the number of registered clients
+     *
+     * @return the number of registered clients
+     */
+    public synchronized int getNumberOfClients() {
+        return clientMap.size();
+    }
+
+    
+    /**
+     * Close a client in case it is still not used
+     *
+     * @param entry the entry of the client
+     */
+    private void closeIfIdle(Entry entry) {
+        synchronized (this) {
+            if (entry.referenceCount > 0 || clientMap.get(entry.key) != entry) {
+                return;
+            }
+            
+            clientMap.remove(entry.key);
+            entryMap.remove(entry.httpClient);
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Close idle http client " + entry.key + ".");
+        }
+        close(entry.httpClient);
+    }
+
+    
+    /**
+     * Close a client
+     *
+     * @param httpClient the client
+     */
+    private void close(HttpClient httpClient) {
+        try {
+            httpClient.close();
+        } catch (RuntimeException e) {
+            // NOP
+        }
+    }
+
+    
+    /**
+     * Get the scheduler which closes the idle clients
+     *
+     * @return the scheduler
+     */
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (this) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "http-client-registry");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    
+    /**
+     * Defines the key of a client configuration: the ssl context and the executor are compared by identity.
+     */
+    public static final class Key {
+        private final String configuration;
+        private final SSLContext sslContext;
+        private final Executor executor;
+
+        
+        /**
+         * Constructor for Key
+         *
+         * @param configuration the configuration, e.g. the version, redirect policy and timeout
+         * @param sslContext the ssl context or null
+         * @param executor the executor or null
+         */
+        public Key(String configuration, SSLContext sslContext, Executor executor) {
+            this.configuration = configuration;
+            this.sslContext = sslContext;
+            this.executor = executor;
+        }
+
+        
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return 31 * (31 * configuration.hashCode() + System.identityHashCode(sslContext)) + System.identityHashCode(executor);
+        }
+
+        
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            
+            final Key other = (Key) obj;
+            return configuration.equals(other.configuration) && sslContext == other.sslContext && executor == other.executor;
+        }
+
+        
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "[" + configuration + (sslContext != null ? "|ssl@" + Integer.toHexString(System.identityHashCode(sslContext)) : "") 
+                   + (executor != null ? "|executor@" + Integer.toHexString(System.identityHashCode(executor)) : "") + "]";
+        }
+    }
+
+    
+    /**
+     * Defines a registered client
+     */
+    private static class Entry {
+        private final Key key;
+        private final HttpClient httpClient;
+        private final long idleTimeout;
+        private int referenceCount;
+        private ScheduledFuture<?> closeTask;
+
+        
+        /**
+         * Constructor for Entry
+         *
+         * @param key the key
+         * @param httpClient the client
+         * @param idleTimeout the idle timeout in milliseconds
+         */
+        Entry(Key key, HttpClient httpClient, long idleTimeout) {
+            this.key = key;
+            this.httpClient = httpClient;
+            this.idleTimeout = idleTimeout;
+            this.referenceCount = 1;
+            this.closeTask = null;
+        }
+    }
+}
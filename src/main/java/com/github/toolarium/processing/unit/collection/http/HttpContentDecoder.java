@@ -0,0 +1,386 @@
+/*
+ * HttpContentDecoder.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+
+/**
+ * Decodes a gzip or deflate content encoded body incrementally: the compressed chunks are inflated as they arrive, the gzip
+ * header and trailer are parsed by a small state machine. The decoded content is passed chunk by chunk to a consumer, the
+ * buffer of the consumer is reused for the next chunk. A gzip body with several members is decoded as the concatenation of 
+ * the members (RFC 1952). The decoder holds native memory and has to be ended after use.
+ *
+ * @author patrick
+ */
+public final class HttpContentDecoder {
+    /** The gzip content encoding */
+    public static final String GZIP = "gzip";
+
+    /** The deflate content encoding */
+    public static final String DEFLATE = "deflate";
+
+    /** The accepted content encodings */
+    public static final String ACCEPT_ENCODING = GZIP + ", " + DEFLATE;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFLATED = 8;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int STATE_GZIP_HEADER = 0;
+    private static final int STATE_GZIP_EXTRA_LENGTH = 1;
+    private static final int STATE_GZIP_SKIP = 2;
+    private static final int STATE_GZIP_ZERO_TERMINATED = 3;
+    private static final int STATE_DEFLATE_HEADER = 4;
+    private static final int STATE_DATA = 5;
+    private static final int STATE_GZIP_TRAILER = 6;
+    private static final int STATE_FINISHED = 7;
+    private static final int STATE_TRAILING = 8;
+    private final boolean gzip;
+    private final byte[] outputBuffer;
+    private final ByteBuffer output;
+    private final CRC32 crc;
+    private Inflater inflater;
+    private int state;
+    private int flags;
+    private int remaining;
+    private long value;
+    private long decodedBytes;
+    private long memberBytes;
+    private boolean started;
+
+
+    /**
+     * Constructor for HttpContentDecoder
+     *
+     * @param gzip true for gzip, false for deflate
+     */
+    private HttpContentDecoder(boolean gzip) {
+        this.gzip = gzip;
+        this.outputBuffer = new byte[BUFFER_SIZE];
+        this.output = ByteBuffer.wrap(outputBuffer);
+        this.decodedBytes = 0;
+        this.memberBytes = 0;
+        this.started = false;
+        this.flags = 0;
+        this.value = 0;
+
+        if (gzip) {
+            this.crc = new CRC32();
+            this.inflater = new Inflater(true);
+            this.state = STATE_GZIP_HEADER;
+            this.remaining = GZIP_HEADER_SIZE;
+        } else {
+            // the inflater of a deflate body depends on the first bytes: zlib wrapped or raw
+            this.crc = null;
+            this.inflater = null;
+            this.state = STATE_DEFLATE_HEADER;
+            this.remaining = 2;
+        }
+    }
+
+
+    /**
+     * Create a decoder for the given content encoding
+     *
+     * @param contentEncoding the content encoding of the response
+     * @return the decoder or null in case the content encoding is not gzip or deflate
+     */
+    public static HttpContentDecoder create(String contentEncoding) {
+        if (contentEncoding == null) {
+            return null;
+        }
+
+        final String encoding = contentEncoding.trim().toLowerCase();
+        if (GZIP.equals(encoding) || "x-gzip".equals(encoding)) {
+            return new HttpContentDecoder(true);
+        } else if (DEFLATE.equals(encoding)) {
+            return new HttpContentDecoder(false);
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Decode the next chunk of the encoded body, the position of the input is moved to its limit
+     *
+     * @param input the encoded chunk
+     * @param consumer the consumer of the decoded content, the buffer is only valid during the call
+     * @throws ZipException In case of an invalid encoded content
+     */
+    public void decode(ByteBuffer input, Consumer<ByteBuffer> consumer) throws ZipException {
+        if (input.hasRemaining()) {
+            started = true;
+        }
+
+        while (input.hasRemaining()) {
+            switch (state) {
+                case STATE_GZIP_HEADER:
+                    readGzipHeader(input.get() & 0xFF);
+                    break;
+                case STATE_GZIP_EXTRA_LENGTH:
+                    value |= (long)(input.get() & 0xFF) << (8 * (2 - remaining));
+                    if (--remaining == 0) {
+                        remaining = (int)value;
+                        state = STATE_GZIP_SKIP;
+                        if (remaining == 0) {
+                            state = nextGzipHeaderState();
+                        }
+                    }
+                    break;
+                case STATE_GZIP_SKIP:
+                    input.get();
+                    if (--remaining == 0) {
+                        state = nextGzipHeaderState();
+                    }
+                    break;
+                case STATE_GZIP_ZERO_TERMINATED:
+                    if (input.get() == 0) {
+                        state = nextGzipHeaderState();
+                    }
+                    break;
+                case STATE_DEFLATE_HEADER:
+                    readDeflateHeader(input, consumer);
+                    break;
+                case STATE_DATA:
+                    inflate(input, consumer);
+                    break;
+                case STATE_GZIP_TRAILER:
+                    readGzipTrailer(input.get() & 0xFF);
+                    break;
+                case STATE_FINISHED:
+                    if (gzip && (input.get(input.position()) & 0xFF) == 0x1F) {
+                        // a further gzip member follows
+                        startGzipMember();
+                    } else {
+                        state = STATE_TRAILING;
+                    }
+                    break;
+                default:
+                    // trailing bytes after the end of the compressed data are ignored
+                    input.position(input.limit());
+                    break;
+            }
+        }
+    }
+
+
+    /**
+     * Verify that the whole encoded content was decoded. An empty body is valid, e.g. the response of a HEAD request.
+     *
+     * @throws ZipException In case the encoded content is incomplete
+     */
+    public void finish() throws ZipException {
+        if (started && !isFinished()) {
+            throw new ZipException("Unexpected end of the " + (gzip ? GZIP : DEFLATE) + " encoded content!");
+        }
+    }
+
+
+    /**
+     * Release the native resources of the decoder
+     */
+    public void end() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+
+    /**
+     * Get the number of decoded bytes
+     *
+     * @return the number of decoded bytes
+     */
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+
+    /**
+     * Check if the end of the encoded content is reached
+     *
+     * @return true if it is finished
+     */
+    public boolean isFinished() {
+        return state == STATE_FINISHED || state == STATE_TRAILING;
+    }
+
+
+    /**
+     * Inflate the input
+     *
+     * @param input the input
+     * @param consumer the consumer of the decoded content
+     * @throws ZipException In case of an invalid encoded content
+     */
+    private void inflate(ByteBuffer input, Consumer<ByteBuffer> consumer) throws ZipException {
+        // the position of the input is moved by the inflater as the bytes are consumed
+        inflater.setInput(input);
+        try {
+            while (!inflater.finished()) {
+                final long bytesRead = inflater.getBytesRead();
+                final int length = inflater.inflate(outputBuffer);
+                if (length > 0) {
+                    decodedBytes += length;
+                    memberBytes += length;
+                    if (crc != null) {
+                        crc.update(outputBuffer, 0, length);
+                    }
+
+                    output.clear().limit(length);
+                    consumer.accept(output);
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Unsupported preset dictionary!");
+                } else if (inflater.needsInput() && !inflater.finished()) {
+                    // the end of the stream can be reached without any further output
+                    return;
+                } else if (!inflater.finished() && inflater.getBytesRead() == bytesRead) {
+                    // neither output nor consumed input, the loop would never end
+                    throw new ZipException("Invalid " + (gzip ? GZIP : DEFLATE) + " encoded content: the inflater makes no progress!");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid " + (gzip ? GZIP : DEFLATE) + " encoded content: " + e.getMessage());
+        }
+
+        if (gzip) {
+            state = STATE_GZIP_TRAILER;
+            remaining = GZIP_TRAILER_SIZE;
+            value = 0;
+        } else {
+            state = STATE_FINISHED;
+        }
+    }
+
+
+    /**
+     * Start the next member of a gzip body, the inflater and the crc are reset
+     */
+    private void startGzipMember() {
+        inflater.reset();
+        crc.reset();
+        memberBytes = 0;
+        flags = 0;
+        value = 0;
+        state = STATE_GZIP_HEADER;
+        remaining = GZIP_HEADER_SIZE;
+    }
+
+
+    /**
+     * Read the next byte of the fixed gzip header
+     *
+     * @param b the byte
+     * @throws ZipException In case of an invalid header
+     */
+    private void readGzipHeader(int b) throws ZipException {
+        final int position = GZIP_HEADER_SIZE - remaining;
+        if ((position == 0 && b != 0x1F) || (position == 1 && b != 0x8B) || (position == 2 && b != DEFLATED)) {
+            throw new ZipException("Invalid gzip header!");
+        } else if (position == 3) {
+            flags = b;
+        }
+
+        if (--remaining == 0) {
+            state = nextGzipHeaderState();
+        }
+    }
+
+
+    /**
+     * Get the next state of the optional gzip header fields, every field is consumed once
+     *
+     * @return the next state
+     */
+    private int nextGzipHeaderState() {
+        if ((flags & FEXTRA) != 0) {
+            flags &= ~FEXTRA;
+            remaining = 2;
+            value = 0;
+            return STATE_GZIP_EXTRA_LENGTH;
+        } else if ((flags & FNAME) != 0) {
+            flags &= ~FNAME;
+            return STATE_GZIP_ZERO_TERMINATED;
+        } else if ((flags & FCOMMENT) != 0) {
+            flags &= ~FCOMMENT;
+            return STATE_GZIP_ZERO_TERMINATED;
+        } else if ((flags & FHCRC) != 0) {
+            flags &= ~FHCRC;
+            remaining = 2;
+            return STATE_GZIP_SKIP;
+        }
+
+        return STATE_DATA;
+    }
+
+
+    /**
+     * Read the next byte of the gzip trailer and verify it: the crc32 and the size of the decoded content
+     *
+     * @param b the byte
+     * @throws ZipException In case of an invalid trailer
+     */
+    private void readGzipTrailer(int b) throws ZipException {
+        value |= (long)b << (8 * ((GZIP_TRAILER_SIZE - remaining) % 4));
+        remaining--;
+        if (remaining == 4) {
+            if (value != crc.getValue()) {
+                throw new ZipException("Invalid gzip crc!");
+            }
+            value = 0;
+        } else if (remaining == 0) {
+            if (value != (memberBytes & 0xFFFFFFFFL)) {
+                throw new ZipException("Invalid gzip size!");
+            }
+            state = STATE_FINISHED;
+        }
+    }
+
+
+    /**
+     * Read the first two bytes of a deflate body: a zlib header has the deflate method and a valid check sum,
+     * otherwise it is a raw deflate stream as some servers send. The bytes are not consumed, they are part of the stream.
+     *
+     * @param input the input
+     * @param consumer the consumer of the decoded content
+     * @throws ZipException In case of an invalid encoded content
+     */
+    private void readDeflateHeader(ByteBuffer input, Consumer<ByteBuffer> consumer) throws ZipException {
+        if (remaining == 2 && input.remaining() == 1) {
+            // the first byte is kept until the second one arrives
+            value = input.get() & 0xFF;
+            remaining = 1;
+            return;
+        }
+
+        final boolean pendingByte = remaining == 1;
+        int header;
+        if (pendingByte) {
+            header = ((int)value << 8) | (input.get(input.position()) & 0xFF);
+        } else {
+            header = ((input.get(input.position()) & 0xFF) << 8) | (input.get(input.position() + 1) & 0xFF);
+        }
+
+        final boolean zlib = (header & 0x0F00) == (DEFLATED << 8) && (header % 31) == 0;
+        inflater = new Inflater(!zlib);
+        state = STATE_DATA;
+        remaining = 0;
+        if (pendingByte) {
+            inflate(ByteBuffer.wrap(new byte[] {(byte)value}), consumer);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * HttpEndpointBalancer.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Balances the calls across a list of endpoints: round-robin, weighted round-robin or least outstanding requests. 
+ * An endpoint which fails several times in a row is ejected for a while, afterwards a single probe call decides if 
+ * it is taken back: as long as the probe is pending no other call is sent to the endpoint. The ejection time doubles 
+ * with every failed probe. Every ejection starts a new generation of the endpoint, the result of a call which was 
+ * selected in an older generation is ignored. In case all endpoints are ejected no endpoint is selected. It is 
+ * thread-safe.
+ * 
+ * @author patrick
+ */
+public class HttpEndpointBalancer {
+    /** Balancing strategy: one endpoint after the other */
+    public static final String ROUND_ROBIN = "round-robin";
+    /** Balancing strategy: smooth weighted round-robin */
+    public static final String WEIGHTED = "weighted";
+    /** Balancing strategy: the endpoint with the least outstanding requests */
+    public static final String LEAST_OUTSTANDING = "least-outstanding";
+    private static final Logger LOG = LoggerFactory.getLogger(HttpEndpointBalancer.class);
+    private static final int MAX_EJECTION_FACTOR = 16;
+    private final List<Endpoint> endpointList;
+    private final String strategy;
+    private final int failureThreshold;
+    private final long ejectionTime;
+    private int nextIndex;
+    private long numberOfEjections;
+
+    
+    /**
+     * Constructor for HttpEndpointBalancer
+     *
+     * @param endpointList the endpoints
+     * @param strategy the balancing strategy
+     * @param failureThreshold the number of failures in a row after which an endpoint is ejected, 0 means never
+     * @param ejectionTime the time in milliseconds an endpoint is ejected
+     */
+    public HttpEndpointBalancer(List<Endpoint> endpointList, String strategy, int failureThreshold, long ejectionTime) {
+        if (endpointList == null || endpointList.isEmpty()) {
+            throw new IllegalArgumentException("Missing endpoints!");
+        }
+        
+        this.endpointList = Collections.unmodifiableList(new ArrayList<Endpoint>(endpointList));
+        this.strategy = strategy;
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.ejectionTime = Math.max(0, ejectionTime);
+        this.nextIndex = 0;
+        this.numberOfEjections = 0;
+    }
+
+    
+    /**
+     * Select the endpoint of the next call, the outstanding requests of the endpoint are increased. An ejected endpoint
+     * is only selected once its ejection time is over, this call is the single probe of the endpoint.
+     *
+     * @return the selection of the endpoint or null in case no endpoint is available
+     */
+    public synchronized Selection select() {
+        final long now = System.nanoTime();
+        Endpoint result = null;
+        if (LEAST_OUTSTANDING.equals(strategy)) {
+            for (int i = 0; i < endpointList.size(); i++) {
+                final Endpoint endpoint = endpointList.get((nextIndex + i) % endpointList.size());
+                if (endpoint.isAvailable(now) && (result == null || endpoint.outstandingRequests < result.outstandingRequests)) {
+                    result = endpoint;
+                }
+            }
+            nextIndex = (nextIndex + 1) % endpointList.size();
+        } else if (WEIGHTED.equals(strategy)) {
+            // smooth weighted round-robin: the endpoints are interleaved according to their weight
+            int totalWeight = 0;
+            for (Endpoint endpoint : endpointList) {
+                if (endpoint.isAvailable(now)) {
+                    endpoint.currentWeight += endpoint.getWeight();
+                    totalWeight += endpoint.getWeight();
+                    if (result == null || endpoint.currentWeight > result.currentWeight) {
+                        result = endpoint;
+                    }
+                }
+            }
+            
+            if (result != null) {
+                result.currentWeight -= totalWeight;
+            }
+        } else {
+            for (int i = 0; i < endpointList.size() && result == null; i++) {
+                final Endpoint endpoint = endpointList.get(nextIndex);
+                nextIndex = (nextIndex + 1) % endpointList.size();
+                if (endpoint.isAvailable(now)) {
+                    result = endpoint;
+                }
+            }
+        }
+        
+        if (result == null) {
+            // all endpoints are ejected or probed: fail fast instead of sending to an ejected endpoint
+            return null;
+        }
+        
+        if (result.ejectedUntil != 0) {
+            // the ejection time is over, this call probes the endpoint
+            result.probing = true;
+        }
+        
+        result.outstandingRequests++;
+        result.numberOfRequests++;
+        return new Selection(result, result.generation);
+    }
+
+    
+    /**
+     * Report the completion of a call. The results of the calls which were selected before the last ejection of the 
+     * endpoint are ignored, only the probe decides if the endpoint is taken back.
+     *
+     * @param selection the selection of the call
+     * @param successful true if the call was successful
+     */
+    public synchronized void complete(Selection selection, boolean successful) {
+        final Endpoint endpoint = selection.getEndpoint();
+        endpoint.outstandingRequests = Math.max(0, endpoint.outstandingRequests - 1);
+        if (selection.getGeneration() != endpoint.generation) {
+            // a late result of a call which was selected before the ejection
+            return;
+        }
+        
+        if (endpoint.ejectedUntil != 0 && !endpoint.probing) {
+            return;
+        }
+        
+        if (successful) {
+            if (endpoint.ejectedUntil != 0 && LOG.isInfoEnabled()) {
+                LOG.info("Endpoint " + endpoint.getBaseUri() + " is available again.");
+            }
+            
+            endpoint.consecutiveFailures = 0;
+            endpoint.ejectionFactor = 0;
+            endpoint.ejectedUntil = 0;
+            endpoint.probing = false;
+            return;
+        }
+        
+        endpoint.consecutiveFailures++;
+        if (failureThreshold > 0 && (endpoint.probing || (endpoint.ejectedUntil == 0 && endpoint.consecutiveFailures >= failureThreshold))) {
+            endpoint.ejectionFactor = Math.min(MAX_EJECTION_FACTOR, Math.max(1, endpoint.ejectionFactor * 2));
+            endpoint.ejectedUntil = System.nanoTime() + ejectionTime * 1_000_000L * endpoint.ejectionFactor;
+            if (endpoint.ejectedUntil == 0) {
+                endpoint.ejectedUntil = 1;
+            }
+            endpoint.generation++;
+            endpoint.probing = false;
+            numberOfEjections++;
+            LOG.warn("Eject endpoint " + endpoint.getBaseUri() + " for " + (ejectionTime * endpoint.ejectionFactor) + "ms after " + endpoint.consecutiveFailures + " failures.");
+        }
+    }
+
+    
+    /**
+     * Get the number of endpoints which are currently available
+     *
+     * @return the number of available endpoints
+     */
+    public synchronized int getNumberOfAvailableEndpoints() {
+        final long now = System.nanoTime();
+        int result = 0;
+        for (Endpoint endpoint : endpointList) {
+            if (endpoint.isAvailable(now)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    
+    /**
+     * Get the number of ejections so far
+     *
+     * @return the number of ejections
+     */
+    public synchronized long getNumberOfEjections() {
+        return numberOfEjections;
+    }
+
+    
+    /**
+     * Get the endpoints
+     *
+     * @return the endpoints
+     */
+    public List<Endpoint> getEndpointList() {
+        return endpointList;
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "HttpEndpointBalancer [strategy=" + strategy + ", endpointList=" + endpointList + ", failureThreshold=" + failureThreshold + ", ejectionTime=" + ejectionTime + "]";
+    }
+
+    
+    /**
+     * Defines the selection of an endpoint for a call: the endpoint and its generation at the time of the selection.
+     */
+    public static class Selection {
+        private final Endpoint endpoint;
+        private final long generation;
+
+        
+        /**
+         * Constructor for Selection
+         *
+         * @param endpoint the endpoint
+         * @param generation the generation of the endpoint
+         */
+        Selection(Endpoint endpoint, long generation) {
+            this.endpoint = endpoint;
+            this.generation = generation;
+        }
+
+        
+        /**
+         * Get the endpoint
+         *
+         * @return the endpoint
+         */
+        public Endpoint getEndpoint() {
+            return endpoint;
+        }
+
+        
+        /**
+         * Get the generation of the endpoint at the time of the selection
+         *
+         * @return the generation
+         */
+        public long getGeneration() {
+            return generation;
+        }
+
+        
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return endpoint + "#" + generation;
+        }
+    }
+
+    
+    /**
+     * Defines an endpoint: it replaces the scheme and the authority of a request, the path of the endpoint is a prefix of the request path.
+     */
+    public static class Endpoint {
+        private final URI baseUri;
+        private final String prefix;
+        private final int weight;
+        private int outstandingRequests;
+        private volatile long numberOfRequests;
+        private int currentWeight;
+        private int consecutiveFailures;
+        private int ejectionFactor;
+        private long ejectedUntil;
+        private boolean probing;
+        private long generation;
+        
+
+        /**
+         * Constructor for Endpoint
+         *
+         * @param baseUri the base uri, e.g. http://host:8080
+         * @param weight the weight
+         */
+        public Endpoint(URI baseUri, int weight) {
+            if (baseUri.getScheme() == null || baseUri.getRawAuthority() == null) {
+                throw new IllegalArgumentException("Invalid endpoint [" + baseUri + "]!");
+            }
+            
+            this.baseUri = baseUri;
+            String path = baseUri.getRawPath();
+            if (path == null) {
+                path = "";
+            } else if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            this.prefix = baseUri.getScheme() + "://" + baseUri.getRawAuthority() + path;
+            this.weight = Math.max(1, weight);
+            this.outstandingRequests = 0;
+            this.numberOfRequests = 0;
+            this.currentWeight = 0;
+            this.consecutiveFailures = 0;
+            this.ejectionFactor = 0;
+            this.ejectedUntil = 0;
+            this.probing = false;
+            this.generation = 0;
+        }
+
+        
+        /**
+         * Resolve an uri against this endpoint
+         *
+         * @param uri the uri
+         * @return the uri of this endpoint
+         */
+        public URI resolve(URI uri) {
+            final StringBuilder result = new StringBuilder(prefix);
+            if (uri.getRawPath() != null) {
+                result.append(uri.getRawPath());
+            }
+            if (uri.getRawQuery() != null) {
+                result.append('?').append(uri.getRawQuery());
+            }
+            return URI.create(result.toString());
+        }
+
+        
+        /**
+         * Create the request of this endpoint
+         *
+         * @param httpRequest the request
+         * @return the request of this endpoint
+         */
+        public HttpRequest resolve(HttpRequest httpRequest) {
+            return HttpRequest.newBuilder(httpRequest, (name, value) -> true).uri(resolve(httpRequest.uri())).build();
+        }
+
+        
+        /**
+         * Get the base uri
+         *
+         * @return the base uri
+         */
+        public URI getBaseUri() {
+            return baseUri;
+        }
+
+        
+        /**
+         * Get the weight
+         *
+         * @return the weight
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+        
+        /**
+         * Get the number of requests which are sent to this endpoint
+         *
+         * @return the number of requests
+         */
+        public long getNumberOfRequests() {
+            return numberOfRequests;
+        }
+
+        
+        /**
+         * Check if the endpoint is available: it is not ejected or the ejection time is over and no probe is pending
+         *
+         * @param now the current time in nanoseconds
+         * @return true if it is available
+         */
+        boolean isAvailable(long now) {
+            return ejectedUntil == 0 || (!probing && now - ejectedUntil >= 0);
+        }
+
+        
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return baseUri + (weight != 1 ? "|" + weight : "");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * HttpHandlerCall.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+
+/**
+ * Defines a call whose response is handled by the {@link IHttpResponseHandler} on a worker thread. The handler time
+ * is measured separately from the latency of the call, which ends with the received response.
+ *
+ * @author patrick
+ */
+final class HttpHandlerCall {
+    private static final byte[] EMPTY = new byte[0];
+    private final long index;
+    private final IHttpResponseHandler responseHandler;
+    private final HttpResponse<HttpResponseBody> response;
+    private final CompletableFuture<byte[]> future;
+    private volatile long handlerTime;
+
+
+    /**
+     * Constructor for HttpHandlerCall
+     *
+     * @param httpCall the completed call
+     * @param response the response of the call
+     * @param responseHandler the response handler
+     * @param executor the executor of the handler
+     */
+    HttpHandlerCall(HttpCall httpCall, HttpResponse<HttpResponseBody> response, IHttpResponseHandler responseHandler, Executor executor) {
+        this.index = httpCall.getIndex();
+        this.responseHandler = responseHandler;
+        this.response = response;
+        this.handlerTime = 0;
+        this.future = CompletableFuture.supplyAsync(this::handle, executor);
+    }
+
+
+    /**
+     * Get the index of the call
+     *
+     * @return the index
+     */
+    long getIndex() {
+        return index;
+    }
+
+
+    /**
+     * Get the status code of the response
+     *
+     * @return the status code
+     */
+    int getStatusCode() {
+        return response.statusCode();
+    }
+
+
+    /**
+     * Get the time of the handler, without the time in the queue of the worker pool
+     *
+     * @return the handler time in nanoseconds
+     */
+    long getHandlerTime() {
+        return handlerTime;
+    }
+
+
+    /**
+     * Get the future of the handler result
+     *
+     * @return the future
+     */
+    CompletableFuture<byte[]> getFuture() {
+        return future;
+    }
+
+
+    /**
+     * Check if the handler is done
+     *
+     * @return true if the handler is done
+     */
+    boolean isDone() {
+        return future.isDone();
+    }
+
+
+    /**
+     * Cancel the handler, a streamed body is closed so that its connection is released
+     */
+    void cancel() {
+        future.cancel(true);
+        if (response.body().getStream() != null) {
+            try {
+                response.body().getStream().close();
+            } catch (IOException e) {
+                // NOP
+            }
+        }
+    }
+
+
+    /**
+     * Handle the response
+     *
+     * @return the result of the handler
+     */
+    private byte[] handle() {
+        final long start = System.nanoTime();
+        byte[] content = response.body().getContent();
+        if (content == null) {
+            content = EMPTY;
+        }
+
+        try (InputStream body = openBody(content)) {
+            return responseHandler.handle(index, response.statusCode(), response.headers(), body, response.body().isTruncated());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            handlerTime = System.nanoTime() - start;
+        }
+    }
+
+
+    /**
+     * Open the body: the stream of a streamed body, the file of a body which was streamed into a file or the content
+     *
+     * @param content the content
+     * @return the body
+     * @throws IOException In case the file can not be opened
+     */
+    private InputStream openBody(byte[] content) throws IOException {
+        if (response.body().getStream() != null) {
+            return response.body().getStream();
+        } else if (response.body().getFile() != null) {
+            return Files.newInputStream(response.body().getFile());
+        }
+        
+        return new ByteArrayInputStream(content);
+    }
+}
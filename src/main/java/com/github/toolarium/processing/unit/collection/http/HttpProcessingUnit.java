@@ -6,7 +6,6 @@
 package com.github.toolarium.processing.unit.collection.http;
 
 
-import com.github.toolarium.common.util.ThreadUtil;
 import com.github.toolarium.processing.unit.IProcessingUnit;
 import com.github.toolarium.processing.unit.IProcessingUnitContext;
 import com.github.toolarium.processing.unit.IProcessingUnitPersistence;
@@ -17,12 +16,28 @@ import com.github.toolarium.processing.unit.dto.Parameter;
 import com.github.toolarium.processing.unit.exception.ProcessingException;
 import com.github.toolarium.processing.unit.exception.ValidationException;
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.LinkedList;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 import javax.net.ssl.SSLContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,8 +50,52 @@ import org.slf4j.LoggerFactory;
  */
 public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<HttpProcessingUnit.HttpResultPersistence>  implements HttpProcessingUnitConstants {
     private static final Logger LOG = LoggerFactory.getLogger(HttpProcessingUnit.class);
+    private static final long MAX_CAPACITY_WAIT_TIME = 1000;
+    private static final long LATE_THRESHOLD = 1_000_000L;
     private URI requestUri;
     private HttpClient httpClient;
+    private HttpRequestTemplate httpRequestTemplate;
+    private InputFileRequestSource requestSource;
+    private HttpEndpointBalancer endpointBalancer;
+    private String responseBodyMode;
+    private int expectedResponseCode;
+    private HttpResponse.BodyHandler<HttpResponseBody> bodyHandler;
+    private boolean compression;
+    private long numberOfCompressedBytes;
+    private long numberOfUncompressedBytes;
+    private long numberOfUploadedBytes;
+    private long totalUploadedBytes;
+    private HttpRetryPolicy retryPolicy;
+    private HttpResponseCache responseCache;
+    private Path cacheFile;
+    private long numberOfReportedCacheHits;
+    private long numberOfReportedCacheMisses;
+    private long numberOfReportedCacheRevalidations;
+    private long numberOfReportedRetries;
+    private IHttpResultStore resultStore;
+    private int persistenceCapacity;
+    private int maxInFlight;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private int callsPerCycle;
+    private int numberOfLanes;
+    private ExecutorService laneExecutor;
+    private double targetInterval;
+    private long maxRequestLateness;
+    private long scheduleStartTime;
+    private long numberOfScheduledCalls;
+    private Deque<HttpCall> inFlightRequestQueue;
+    private IHttpResponseHandler responseHandler;
+    private ExecutorService responseHandlerExecutor;
+    private Deque<HttpHandlerCall> pendingHandlerQueue;
+    private LatencyHistogram handlerTimeHistogram;
+    private long numberOfHandlerFailures;
+    private LatencyHistogram latencyHistogram;
+    private long statisticInterval;
+    private long statisticStartTime;
+    private long lastStatisticTime;
+    private long numberOfWarmUpCalls;
+    private long numberOfFailedWarmUpCalls;
+    private long warmUpTime;
 
 
     /**
@@ -48,20 +107,64 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
         getParameterRuntime().addParameterDefinition(PORT_PARAMETER);
         getParameterRuntime().addParameterDefinition(PATH_PARAMETER);
         getParameterRuntime().addParameterDefinition(URL_PARAMETER);
+        getParameterRuntime().addParameterDefinition(ENDPOINT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(ENDPOINT_BALANCING_PARAMETER);
+        getParameterRuntime().addParameterDefinition(ENDPOINT_FAILURE_THRESHOLD_PARAMETER);
+        getParameterRuntime().addParameterDefinition(ENDPOINT_EJECTION_TIME_PARAMETER);
         getParameterRuntime().addParameterDefinition(HTTP_VERSION_PARAMETER);
         getParameterRuntime().addParameterDefinition(VERIFY_CERTIFICATE_PARAMETER);
         getParameterRuntime().addParameterDefinition(TRUST_CERTIFICATE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(SECURE_RANDOM_PARAMETER);
         getParameterRuntime().addParameterDefinition(REQUEST_METHOD_PARAMETER);
         getParameterRuntime().addParameterDefinition(REQUEST_QUERY_PARAMETER);
         getParameterRuntime().addParameterDefinition(ENCODE_REQUEST_QUERY_PARAMETER);       
         getParameterRuntime().addParameterDefinition(REQUESTR_HEADER_PARAMETER);
         getParameterRuntime().addParameterDefinition(REQUEST_BODY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(REQUEST_BODY_FILE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(CACHE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(CACHE_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(CACHE_FILE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(COMPRESSION_PARAMETER);
         getParameterRuntime().addParameterDefinition(NUMBER_OF_CALLS_PARAMTER);
         getParameterRuntime().addParameterDefinition(TIMEOUT_PARAMTER);
         getParameterRuntime().addParameterDefinition(RETRY_AFTER_TIMEOUT_PARAMTER);
         getParameterRuntime().addParameterDefinition(SLEEPTIME_BEFORE_RETRY_PARAMTER);
+        getParameterRuntime().addParameterDefinition(MAX_RETRIES_PARAMETER);
+        getParameterRuntime().addParameterDefinition(MAX_RETRY_DELAY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RETRY_STATUS_CODES_PARAMETER);
         getParameterRuntime().addParameterDefinition(FOLLOW_REDIRECT_PARAMETER);
         getParameterRuntime().addParameterDefinition(EXPECTED_RESPONSE_CODE_PARAMTER);
+        getParameterRuntime().addParameterDefinition(INPUT_FILE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(INPUT_FORMAT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(MAX_IN_FLIGHT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(ADAPTIVE_CONCURRENCY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(MIN_IN_FLIGHT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(CALLS_PER_CYCLE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(LANES_PARAMETER);
+        getParameterRuntime().addParameterDefinition(LANE_EXECUTOR_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RESPONSE_HANDLER_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RESPONSE_HANDLER_POOL_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RESPONSE_HANDLER_STREAMING_PARAMETER);
+        getParameterRuntime().addParameterDefinition(TARGET_REQUESTS_PER_SECOND_PARAMETER);
+        getParameterRuntime().addParameterDefinition(MAX_REQUEST_LATENESS_PARAMETER);
+        getParameterRuntime().addParameterDefinition(WARM_UP_CONNECTIONS_PARAMETER);
+        getParameterRuntime().addParameterDefinition(WARM_UP_METHOD_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RESPONSE_BODY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(MAX_RESPONSE_BODY_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(RESPONSE_BODY_DIRECTORY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(DIGEST_ALGORITHM_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_DIRECTORY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_MEMORY_HEAD_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_SEGMENT_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_COMPRESSION_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_DEDUPLICATION_PARAMETER);
+        getParameterRuntime().addParameterDefinition(PERSISTENCE_CAPACITY_PARAMETER);
+        getParameterRuntime().addParameterDefinition(SHARED_CLIENT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(CLIENT_IDLE_TIMEOUT_PARAMETER);
+        getParameterRuntime().addParameterDefinition(EXECUTOR_PARAMETER);
+        getParameterRuntime().addParameterDefinition(EXECUTOR_POOL_SIZE_PARAMETER);
+        getParameterRuntime().addParameterDefinition(STATISTIC_INTERVAL_PARAMETER);
     }
     
     
@@ -86,12 +189,118 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
             LOG.debug("Request uri [" + requestUri + "]");
         }
         
+        endpointBalancer = HttpProcessingUnitUtil.getInstance().createEndpointBalancer(getParameterRuntime());
+        boolean isHttps = "https".equals(requestUri.getScheme());
+        if (endpointBalancer != null) {
+            isHttps = endpointBalancer.getEndpointList().stream().anyMatch(endpoint -> "https".equals(endpoint.getBaseUri().getScheme()));
+        }
+        
         SSLContext sslContext = null;
-        if ("https".equals(requestUri.getScheme())) {
+        if (isHttps) {
             sslContext = HttpProcessingUnitUtil.getInstance().getSSLContext(getParameterRuntime());
         }
         
-        httpClient = HttpProcessingUnitUtil.getInstance().createHttpClient(getParameterRuntime(), sslContext);
+        httpClient = HttpProcessingUnitUtil.getInstance().acquireHttpClient(getParameterRuntime(), sslContext);
+        httpRequestTemplate = HttpProcessingUnitUtil.getInstance().createHttpRequestTemplate(getParameterRuntime(), requestUri);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Request template " + httpRequestTemplate);
+        }
+        
+        requestSource = HttpProcessingUnitUtil.getInstance().createRequestSource(getParameterRuntime());
+
+        responseBodyMode = HttpProcessingUnitUtil.getInstance().getResponseBodyMode(getParameterRuntime());
+        expectedResponseCode = getParameterRuntime().getParameterValueList(EXPECTED_RESPONSE_CODE_PARAMTER).getValueAsInteger();
+        final long maxResponseBodySize = getParameterRuntime().getParameterValueList(MAX_RESPONSE_BODY_SIZE_PARAMETER).getValueAsLong();
+        final boolean discardBody = HttpProcessingUnitUtil.RESPONSE_BODY_DISCARD.equals(responseBodyMode) || HttpProcessingUnitUtil.RESPONSE_BODY_DIGEST.equals(responseBodyMode);
+        String digestAlgorithm = null;
+        if (HttpProcessingUnitUtil.RESPONSE_BODY_DIGEST.equals(responseBodyMode)) {
+            digestAlgorithm = HttpProcessingUnitUtil.getInstance().getDigestAlgorithm(getParameterRuntime());
+        }
+        
+        final String responseDigestAlgorithm = digestAlgorithm;
+        Path responseBodyDirectory = null;
+        if (HttpProcessingUnitUtil.RESPONSE_BODY_FILE.equals(responseBodyMode)) {
+            responseBodyDirectory = HttpProcessingUnitUtil.getInstance().getResponseBodyDirectory(getParameterRuntime());
+        }
+        
+        final Path bodyDirectory = responseBodyDirectory;
+        compression = HttpProcessingUnitUtil.getInstance().isCompression(getParameterRuntime());
+        numberOfCompressedBytes = 0;
+        numberOfUncompressedBytes = 0;
+        numberOfUploadedBytes = 0;
+        totalUploadedBytes = 0;
+        if (bodyDirectory != null) {
+            // only the body of a successful call is streamed into a file, e.g. a retried response is discarded
+            bodyHandler = responseInfo -> new HttpResponseBodySubscriber(maxResponseBodySize, !isSuccessful(responseInfo.statusCode()), null, 
+                                                                         compression ? responseInfo.headers().firstValue("Content-Encoding").orElse(null) : null, 
+                                                                         isSuccessful(responseInfo.statusCode()) ? bodyDirectory : null);
+        } else if (compression) {
+            bodyHandler = responseInfo -> new HttpResponseBodySubscriber(maxResponseBodySize, discardBody, responseDigestAlgorithm, 
+                                                                         responseInfo.headers().firstValue("Content-Encoding").orElse(null));
+        } else {
+            bodyHandler = responseInfo -> new HttpResponseBodySubscriber(maxResponseBodySize, discardBody, responseDigestAlgorithm);
+        }
+        responseHandler = HttpProcessingUnitUtil.getInstance().createResponseHandler(getParameterRuntime());
+        responseHandlerExecutor = null;
+        pendingHandlerQueue = new ArrayDeque<HttpHandlerCall>();
+        handlerTimeHistogram = new LatencyHistogram();
+        numberOfHandlerFailures = 0;
+        if (responseHandler != null) {
+            responseHandlerExecutor = HttpProcessingUnitUtil.getInstance().createResponseHandlerExecutor(getParameterRuntime());
+            if (HttpProcessingUnitUtil.getInstance().isResponseHandlerStreaming(getParameterRuntime())) {
+                // the handler reads the body while it is received, the latency ends with the headers
+                bodyHandler = responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), HttpResponseBody::new);
+            }
+        }
+        
+        retryPolicy = HttpProcessingUnitUtil.getInstance().createRetryPolicy(getParameterRuntime());
+        numberOfReportedRetries = 0;
+        
+        responseCache = HttpProcessingUnitUtil.getInstance().createResponseCache(getParameterRuntime());
+        cacheFile = HttpProcessingUnitUtil.getInstance().getCacheFile(getParameterRuntime());
+        numberOfReportedCacheHits = 0;
+        numberOfReportedCacheMisses = 0;
+        numberOfReportedCacheRevalidations = 0;
+        
+        resultStore = HttpProcessingUnitUtil.getInstance().createResultStore(getParameterRuntime());
+        persistenceCapacity = Math.max(0, getParameterRuntime().getParameterValueList(PERSISTENCE_CAPACITY_PARAMETER).getValueAsInteger());
+        
+        maxInFlight = Math.max(1, getParameterRuntime().getParameterValueList(MAX_IN_FLIGHT_PARAMETER).getValueAsInteger());
+        inFlightRequestQueue = new ArrayDeque<HttpCall>(maxInFlight);
+        concurrencyLimiter = null;
+        if (getParameterRuntime().getParameterValueList(ADAPTIVE_CONCURRENCY_PARAMETER).getValueAsBoolean()) {
+            concurrencyLimiter = new AdaptiveConcurrencyLimiter(getParameterRuntime().getParameterValueList(MIN_IN_FLIGHT_PARAMETER).getValueAsInteger(), maxInFlight);
+        }
+        
+        callsPerCycle = Math.max(1, getParameterRuntime().getParameterValueList(CALLS_PER_CYCLE_PARAMETER).getValueAsInteger());
+        numberOfLanes = Math.max(1, getParameterRuntime().getParameterValueList(LANES_PARAMETER).getValueAsInteger());
+        laneExecutor = HttpProcessingUnitUtil.getInstance().createLaneExecutor(getParameterRuntime());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Max in flight requests [" + maxInFlight + "], calls per cycle [" + callsPerCycle + "], lanes [" + numberOfLanes + "]");
+        }
+        
+        final double targetRequestsPerSecond = getParameterRuntime().getParameterValueList(TARGET_REQUESTS_PER_SECOND_PARAMETER).getValueAsDouble();
+        targetInterval = 0;
+        if (targetRequestsPerSecond > 0) {
+            targetInterval = 1_000_000_000.0 / targetRequestsPerSecond;
+        }
+        maxRequestLateness = Math.max(0, getParameterRuntime().getParameterValueList(MAX_REQUEST_LATENESS_PARAMETER).getValueAsLong()) * 1_000_000L;
+        scheduleStartTime = 0;
+        numberOfScheduledCalls = 0;
+        
+        // the warm-up opens the connections before the statistic starts
+        numberOfWarmUpCalls = 0;
+        numberOfFailedWarmUpCalls = 0;
+        warmUpTime = 0;
+        final int warmUpConnections = getParameterRuntime().getParameterValueList(WARM_UP_CONNECTIONS_PARAMETER).getValueAsInteger();
+        if (warmUpConnections > 0) {
+            warmUp(warmUpConnections, HttpProcessingUnitUtil.getInstance().getWarmUpMethod(getParameterRuntime()));
+        }
+        
+        latencyHistogram = new LatencyHistogram();
+        statisticInterval = Math.max(0, getParameterRuntime().getParameterValueList(STATISTIC_INTERVAL_PARAMETER).getValueAsLong()) * 1_000_000_000L;
+        statisticStartTime = System.nanoTime();
+        lastStatisticTime = statisticStartTime;
     }
 
 
@@ -100,6 +309,16 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
      */
     @Override
     public long estimateNumberOfUnitsToProcess() throws ProcessingException {
+        if (requestSource != null) {
+            try {
+                // in case of a resume the index starts at the position of the persistence
+                requestSource.index(getProcessingPersistence().getInputFilePosition());
+                return requestSource.getNumberOfRequests();
+            } catch (IOException e) {
+                throw new ProcessingException(e.getMessage());
+            }
+        }
+        
         return getParameterRuntime().getParameterValueList(NUMBER_OF_CALLS_PARAMTER).getValueAsInteger();
     }
 
@@ -109,32 +328,188 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
      */
     @Override
     public IProcessingUnitStatus processUnit(ProcessingUnitStatusBuilder processingUnitStatusBuilder) throws ProcessingException {
+        final HttpResultPersistence persistence = getProcessingPersistence();
+        if (resultStore != null) {
+            // in case of a resume the persistence keeps its own result store
+            persistence.initializeResultStore(resultStore);
+            persistence.setCapacity(persistenceCapacity);
+            resultStore = null;
+            
+            // the calls which were in flight at a suspend are issued again
+            persistence.getCallCursor().reset();
+            for (HttpCallLane lane : persistence.getLaneList()) {
+                lane.getCallCursor().reset();
+            }
+            if (requestSource != null && persistence.getInputFilePosition() != null && LOG.isDebugEnabled()) {
+                LOG.debug("Continue input file at " + persistence.getInputFilePosition() + ", " + persistence.getCallCursor());
+            }
+        }
         
-        try {
-            final HttpRequest httpRequest = HttpProcessingUnitUtil.getInstance().createHttpRequest(getParameterRuntime(), requestUri);
-            HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-            String result = "";
-            if (response.body() != null) {
-                result = response.body();
+        final long numberOfCalls = estimateNumberOfUnitsToProcess();
+
+        if (targetInterval > 0 && scheduleStartTime == 0) {
+            // the timetable starts with the first cycle, in case of a resume with the remaining calls
+            scheduleStartTime = System.nanoTime();
+        }
+
+        if (numberOfWarmUpCalls > 0) {
+            // the cost of the warm-up is reported once, separated from the measured calls
+            processingUnitStatusBuilder.statistic("warmUpCalls", numberOfWarmUpCalls);
+            processingUnitStatusBuilder.statistic("warmUpFailures", numberOfFailedWarmUpCalls);
+            processingUnitStatusBuilder.statistic("warmUpTime", warmUpTime / 1_000_000L);
+            numberOfWarmUpCalls = 0;
+        }
+        
+        // a cycle completes a batch of calls, every call is accounted individually in the status builder
+        int numberOfCompletedCalls = 0;
+        long blockedTime = 0;
+        long numberOfLateCalls = 0;
+        long numberOfDroppedCalls = 0;
+        if (laneExecutor != null) {
+            // the lanes replace the in flight window: every lane completes up to calls per cycle calls within the free capacity,
+            // the calls whose response is still handled take their result from the capacity as well
+            int remainingCapacity = persistence.getRemainingCapacity() - pendingHandlerQueue.size();
+            if (remainingCapacity <= 0) {
+                final long start = System.nanoTime();
+                persistence.awaitCapacity(MAX_CAPACITY_WAIT_TIME);
+                blockedTime += System.nanoTime() - start;
+                remainingCapacity = persistence.getRemainingCapacity() - pendingHandlerQueue.size();
+            }
+            
+            if (remainingCapacity > 0) {
+                numberOfCompletedCalls = processLanes(processingUnitStatusBuilder, numberOfCalls, remainingCapacity);
+            }
+            
+            if (numberOfCompletedCalls == 0 && !pendingHandlerQueue.isEmpty()) {
+                // no lane has a call to send: wait for the oldest handler instead of spinning
+                reapHandledResponses(processingUnitStatusBuilder, true);
+            }
+        }
+        
+        while (laneExecutor == null && numberOfCompletedCalls < callsPerCycle) {
+            // fill up the in flight window; with a window of 1 this is the same as a blocking send
+            final int concurrencyLimit = getConcurrencyLimit();
+            long nextStartTime = 0;
+            while (inFlightRequestQueue.size() < concurrencyLimit && persistence.getNumberOfProcessedCalls() + inFlightRequestQueue.size() + pendingHandlerQueue.size() < numberOfCalls) {
+                if (!persistence.hasCapacity(inFlightRequestQueue.size() + pendingHandlerQueue.size())) {
+                    if (!inFlightRequestQueue.isEmpty()) {
+                        break;
+                    }
+                    
+                    // the persistence is full: pause issuing new calls until a consumer has drained results
+                    final long start = System.nanoTime();
+                    final boolean hasCapacity = persistence.awaitCapacity(MAX_CAPACITY_WAIT_TIME);
+                    blockedTime += System.nanoTime() - start;
+                    if (!hasCapacity) {
+                        break;
+                    }
+                }
+                
+                long startTime = System.nanoTime();
+                if (targetInterval > 0) {
+                    // open loop: the call is sent at its intended time, the latency is measured from there (coordinated omission)
+                    final long intendedStartTime = scheduleStartTime + (long)(numberOfScheduledCalls * targetInterval);
+                    final long lateness = startTime - intendedStartTime;
+                    if (lateness < 0) {
+                        nextStartTime = intendedStartTime;
+                        break;
+                    }
+                    
+                    numberOfScheduledCalls++;
+                    if (maxRequestLateness > 0 && lateness > maxRequestLateness) {
+                        numberOfDroppedCalls++;
+                        numberOfCompletedCalls++;
+                        processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+                        persistence.completeCall(persistence.getCallCursor().next());
+                        continue;
+                    }
+                    
+                    if (lateness > Math.max(LATE_THRESHOLD, targetInterval)) {
+                        numberOfLateCalls++;
+                    }
+                    startTime = intendedStartTime;
+                }
+                
+                final long callIndex = persistence.getCallCursor().next();
+                final HttpRequest httpRequest;
+                try {
+                    httpRequest = createHttpRequest(callIndex);
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Invalid request " + callIndex + ": " + e.getMessage());
+                    numberOfCompletedCalls++;
+                    processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+                    persistence.completeCall(callIndex);
+                    continue;
+                }
+                
+                inFlightRequestQueue.add(new HttpCall(callIndex, retryPolicy.sendAsync(() -> sendRequest(httpRequest)), startTime));
             }
 
-            if (response.statusCode() == 404) {
-                if (getParameterRuntime().getParameterValueList(RETRY_AFTER_TIMEOUT_PARAMTER).getValueAsBoolean()) {
-                    ThreadUtil.getInstance().sleep(1000 * getParameterRuntime().getParameterValueList(SLEEPTIME_BEFORE_RETRY_PARAMTER).getValueAsLong());
+            if (inFlightRequestQueue.isEmpty()) {
+                if (nextStartTime == 0) {
+                    break;
                 }
-            } else if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                getProcessingPersistence().add(result);
+
+                LockSupport.parkNanos(nextStartTime - System.nanoTime());
+                continue;
             }
             
-            if (response.statusCode() != getParameterRuntime().getParameterValueList(EXPECTED_RESPONSE_CODE_PARAMTER).getValueAsInteger()) {
-                // TODO
+            numberOfCompletedCalls += reapCompletedRequests(processingUnitStatusBuilder, nextStartTime);
+            reapHandledResponses(processingUnitStatusBuilder, false);
+        }
+
+        if (!pendingHandlerQueue.isEmpty()) {
+            // in case all calls are sent it waits for the handler, otherwise the handler overlaps with the next calls
+            reapHandledResponses(processingUnitStatusBuilder, inFlightRequestQueue.isEmpty() 
+                                 && persistence.getNumberOfProcessedCalls() + pendingHandlerQueue.size() >= numberOfCalls);
+        }
+
+        if (blockedTime > 0) {
+            processingUnitStatusBuilder.statistic("persistenceBlockedTime", blockedTime / 1_000_000L);
+        }
+
+        if (requestSource != null) {
+            // a resume restarts at the first not completed request
+            try {
+                persistence.setInputFilePosition(requestSource.getPosition(persistence.getWatermark()));
+            } catch (IOException e) {
+                throw new ProcessingException(e.getMessage());
             }
+        }
 
-        } catch (InterruptedException | IOException e) {
-            LOG.warn("Error occured: " + e.getMessage(), e);
-            processingUnitStatusBuilder.increaseNumberOfFailedUnits();
-        } finally {
-            processingUnitStatusBuilder.increaseNumberOfSuccessfulUnits();
+        final long numberOfRetries = retryPolicy.getNumberOfRetries();
+        if (numberOfRetries > numberOfReportedRetries) {
+            processingUnitStatusBuilder.statistic("retries", numberOfRetries - numberOfReportedRetries);
+            numberOfReportedRetries = numberOfRetries;
+        }
+
+        if (numberOfHandlerFailures > 0) {
+            processingUnitStatusBuilder.statistic("handlerFailures", numberOfHandlerFailures);
+            numberOfHandlerFailures = 0;
+        }
+
+        if (numberOfLateCalls > 0) {
+            processingUnitStatusBuilder.statistic("lateCalls", numberOfLateCalls);
+        }
+
+        if (numberOfDroppedCalls > 0) {
+            processingUnitStatusBuilder.statistic("droppedCalls", numberOfDroppedCalls);
+        }
+
+        if (responseCache != null) {
+            publishCacheStatistic(processingUnitStatusBuilder);
+        }
+
+        if (numberOfUploadedBytes > 0) {
+            processingUnitStatusBuilder.statistic("uploadedBytes", numberOfUploadedBytes);
+            numberOfUploadedBytes = 0;
+        }
+
+        if (compression && numberOfCompressedBytes > 0) {
+            processingUnitStatusBuilder.statistic("compressedBytes", numberOfCompressedBytes);
+            processingUnitStatusBuilder.statistic("uncompressedBytes", numberOfUncompressedBytes);
+            numberOfCompressedBytes = 0;
+            numberOfUncompressedBytes = 0;
         }
 
         // During a processing step status message can be returned, a status SUCCESSFUL, WARN or ERROR. Additional a message can be set
@@ -142,8 +517,11 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
         //processingUnitStatusBuilder.error("Error sample");
         //processingUnitStatusBuilder.message("Error sample");
 
-        // Support of statistic:
-        //processingUnitStatusBuilder.statistic("counter", 1);
+        // the latency statistic is published periodically and at the end
+        final long now = System.nanoTime();
+        if (now - lastStatisticTime >= statisticInterval || (inFlightRequestQueue.isEmpty() && persistence.getNumberOfProcessedCalls() >= numberOfCalls)) {
+            publishLatencyStatistic(processingUnitStatusBuilder, now);
+        }
         
         return processingUnitStatusBuilder.hasNextIfHasUnprocessedUnits().build();
     }
@@ -154,13 +532,605 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
      */
     @Override
     public void releaseResource() throws ProcessingException {
-        if (httpClient != null) {
+        if (resultStore != null) {
+            // the result store was never handed over to the persistence
+            resultStore.clear();
+            resultStore = null;
+        }
+        
+        if (pendingHandlerQueue != null) {
+            for (HttpHandlerCall handlerCall : pendingHandlerQueue) {
+                handlerCall.cancel();
+            }
+            pendingHandlerQueue.clear();
+        }
+        
+        if (responseHandlerExecutor != null) {
+            responseHandlerExecutor.shutdownNow();
+            responseHandlerExecutor = null;
+        }
+        
+        if (responseHandler != null) {
+            responseHandler.close();
+            responseHandler = null;
+        }
+        
+        if (laneExecutor != null) {
+            laneExecutor.shutdownNow();
+            laneExecutor = null;
+        }
+        
+        if (inFlightRequestQueue != null) {
+            for (HttpCall httpCall : inFlightRequestQueue) {
+                httpCall.cancel();
+            }
+            inFlightRequestQueue.clear();
+        }
+        
+        if (responseCache != null && cacheFile != null) {
+            try {
+                responseCache.write(cacheFile);
+            } catch (IOException e) {
+                LOG.warn("Could not write cache file [" + cacheFile + "]: " + e.getMessage());
+            }
+        }
+        
+        if (requestSource != null) {
             try {
-                httpClient.close();
-            } catch (RuntimeException e) {
+                requestSource.close();
+            } catch (IOException e) {
                 // NOP
             }
         }
+        
+        if (httpClient != null) {
+            // a shared client is kept open for the next processing unit
+            HttpClientRegistry.getInstance().release(httpClient);
+            httpClient = null;
+        }
+    }
+
+
+    /**
+     * Warm up the connections: the probes are sent concurrently, with HTTP/1.1 every probe opens its own connection.
+     * The probes are neither counted as processed units nor recorded in the latency statistic.
+     *
+     * @param numberOfConnections the number of connections per endpoint
+     * @param method the request method of the probes
+     */
+    protected void warmUp(int numberOfConnections, String method) {
+        final List<URI> uriList = new ArrayList<URI>();
+        if (endpointBalancer != null) {
+            for (HttpEndpointBalancer.Endpoint endpoint : endpointBalancer.getEndpointList()) {
+                uriList.add(endpoint.resolve(requestUri));
+            }
+        } else {
+            uriList.add(requestUri);
+        }
+        
+        final long start = System.nanoTime();
+        final List<CompletableFuture<HttpResponse<Void>>> probeList = new ArrayList<CompletableFuture<HttpResponse<Void>>>(numberOfConnections * uriList.size());
+        for (URI uri : uriList) {
+            final HttpRequest probe = httpRequestTemplate.newHttpRequest(uri, method, HttpRequest.BodyPublishers.noBody(), null);
+            for (int i = 0; i < numberOfConnections; i++) {
+                probeList.add(httpClient.sendAsync(probe, HttpResponse.BodyHandlers.discarding()));
+            }
+        }
+
+        // any response proves an open connection, only an error counts as failure
+        for (CompletableFuture<HttpResponse<Void>> probeFuture : probeList) {
+            try {
+                probeFuture.join();
+            } catch (CompletionException | CancellationException e) {
+                numberOfFailedWarmUpCalls++;
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Warm-up call failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        numberOfWarmUpCalls = probeList.size();
+        warmUpTime = System.nanoTime() - start;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Warm-up with " + numberOfWarmUpCalls + " calls (" + numberOfFailedWarmUpCalls + " failed) in " + (warmUpTime / 1_000_000L) + "ms");
+        }
+    }
+
+    
+    /**
+     * Get the current limit of requests in flight
+     *
+     * @return the concurrency limit
+     */
+    protected int getConcurrencyLimit() {
+        if (concurrencyLimiter != null) {
+            return concurrencyLimiter.getLimit();
+        }
+        
+        return maxInFlight;
+    }
+
+    
+    /**
+     * Create the request of a call: by default the prebuilt request of the template, in case of an input file the request of the line
+     *
+     * @param callIndex the index of the call
+     * @return the request
+     * @throws IOException In case the request can not be read from the input file
+     */
+    protected HttpRequest createHttpRequest(long callIndex) throws IOException {
+        if (requestSource != null) {
+            return requestSource.createHttpRequest(callIndex, httpRequestTemplate);
+        }
+        
+        return httpRequestTemplate.getHttpRequest();
+    }
+
+    
+    /**
+     * Send a request asynchronous, in case of a cache a GET request is sent through the cache
+     *
+     * @param httpRequest the request
+     * @return the future of the response
+     */
+    protected CompletableFuture<HttpResponse<HttpResponseBody>> sendRequest(HttpRequest httpRequest) {
+        if (responseCache != null) {
+            return responseCache.sendAsync(httpRequest, this::sendToEndpoint);
+        }
+        
+        return sendToEndpoint(httpRequest);
+    }
+
+    
+    /**
+     * Send a request asynchronous. In case of endpoints every attempt selects its endpoint, in case of an adaptive concurrency every attempt is sampled.
+     *
+     * @param httpRequest the request
+     * @return the future of the response
+     */
+    protected CompletableFuture<HttpResponse<HttpResponseBody>> sendToEndpoint(HttpRequest httpRequest) {
+        if (concurrencyLimiter == null && endpointBalancer == null) {
+            return httpClient.sendAsync(httpRequest, bodyHandler);
+        }
+        
+        HttpRequest request = httpRequest;
+        HttpEndpointBalancer.Selection selection = null;
+        if (endpointBalancer != null) {
+            selection = endpointBalancer.select();
+            if (selection == null) {
+                return CompletableFuture.failedFuture(new ConnectException("No endpoint available, all endpoints are ejected."));
+            }
+            
+            request = selection.getEndpoint().resolve(httpRequest);
+        }
+        
+        final HttpEndpointBalancer.Selection selectedEndpoint = selection;
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<HttpResponseBody>> future;
+        try {
+            future = httpClient.sendAsync(request, bodyHandler);
+        } catch (RuntimeException e) {
+            if (selectedEndpoint != null) {
+                endpointBalancer.complete(selectedEndpoint, false);
+            }
+            throw e;
+        }
+        
+        return HttpCall.propagateCancel(future, future.whenComplete((response, throwable) -> {
+            if (selectedEndpoint != null) {
+                endpointBalancer.complete(selectedEndpoint, throwable == null && response.statusCode() < 500);
+            }
+            
+            if (concurrencyLimiter != null) {
+                boolean overload;
+                if (throwable != null) {
+                    overload = throwable instanceof HttpTimeoutException || throwable.getCause() instanceof HttpTimeoutException;
+                } else {
+                    overload = response.statusCode() == 429 || response.statusCode() == 503;
+                }
+                
+                concurrencyLimiter.onSample(System.nanoTime() - start, overload);
+            }
+        }));
+    }
+
+    
+    /**
+     * Process a cycle of the lanes which are not completed: the lanes send their calls in parallel, the responses are 
+     * processed afterwards by the calling thread, so the status and the persistence are updated by one thread. Every lane 
+     * has at most one call in flight, in case of an adaptive concurrency the number of active lanes is bounded by its limit. 
+     * The calls of all lanes together are bounded by the free capacity of the persistence.
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param numberOfCalls the number of calls
+     * @param remainingCapacity the number of results the persistence can take
+     * @return the number of completed calls
+     */
+    protected int processLanes(ProcessingUnitStatusBuilder processingUnitStatusBuilder, long numberOfCalls, int remainingCapacity) {
+        final List<HttpCallLane> laneList = getProcessingPersistence().initializeLanes(numberOfCalls, numberOfLanes);
+        final List<HttpCallLane> activeLaneList = new ArrayList<HttpCallLane>(laneList.size());
+        final List<Future<List<HttpCall>>> laneResultList = new ArrayList<Future<List<HttpCall>>>(laneList.size());
+        final int concurrencyLimit = (concurrencyLimiter != null) ? concurrencyLimiter.getLimit() : laneList.size();
+        int remainingCalls = remainingCapacity;
+        for (HttpCallLane lane : laneList) {
+            if (remainingCalls <= 0 || activeLaneList.size() >= concurrencyLimit) {
+                break;
+            }
+            
+            if (!lane.isCompleted()) {
+                final int numberOfLaneCalls = (int)Math.min(callsPerCycle, Math.min(remainingCalls, lane.getEnd() - lane.getCallCursor().getWatermark()));
+                remainingCalls -= numberOfLaneCalls;
+                activeLaneList.add(lane);
+                laneResultList.add(processLane(lane, numberOfLaneCalls));
+            }
+        }
+        
+        int numberOfCompletedCalls = 0;
+        for (int i = 0; i < laneResultList.size(); i++) {
+            try {
+                for (HttpCall httpCall : laneResultList.get(i).get()) {
+                    processResponse(processingUnitStatusBuilder, httpCall);
+                    numberOfCompletedCalls++;
+                }
+            } catch (ExecutionException e) {
+                // the calls of the lane which are not completed are issued again
+                LOG.warn("Lane " + activeLaneList.get(i).getId() + " failed: " + e.getMessage(), e.getCause());
+                activeLaneList.get(i).getCallCursor().reset();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                activeLaneList.get(i).getCallCursor().reset();
+            }
+        }
+        
+        processingUnitStatusBuilder.statistic("activeLanes", activeLaneList.size());
+        return numberOfCompletedCalls;
+    }
+
+    
+    /**
+     * Send the calls of a lane one after another until the given number of calls are done or the lane has no more calls.
+     * The next call is chained to the completion of the previous one on the lane executor, no thread waits for a response.
+     *
+     * @param lane the lane
+     * @param numberOfLaneCalls the max number of calls of the lane in this cycle
+     * @return the future of the completed calls of the lane
+     */
+    protected CompletableFuture<List<HttpCall>> processLane(HttpCallLane lane, int numberOfLaneCalls) {
+        final List<HttpCall> httpCallList = new ArrayList<HttpCall>(numberOfLaneCalls);
+        return CompletableFuture.completedFuture(httpCallList).thenComposeAsync(list -> sendLaneCall(lane, numberOfLaneCalls, list), laneExecutor);
+    }
+
+    
+    /**
+     * Send the next call of a lane and chain the following call to its completion
+     *
+     * @param lane the lane
+     * @param numberOfLaneCalls the max number of calls of the lane in this cycle
+     * @param httpCallList the calls of the lane in this cycle
+     * @return the future of the completed calls of the lane
+     */
+    private CompletableFuture<List<HttpCall>> sendLaneCall(HttpCallLane lane, int numberOfLaneCalls, List<HttpCall> httpCallList) {
+        if (httpCallList.size() >= numberOfLaneCalls) {
+            return CompletableFuture.completedFuture(httpCallList);
+        }
+        
+        final long callIndex = lane.next();
+        if (callIndex < 0) {
+            return CompletableFuture.completedFuture(httpCallList);
+        }
+        
+        final long startTime = System.nanoTime();
+        HttpCall httpCall;
+        try {
+            final HttpRequest httpRequest = createHttpRequest(callIndex);
+            httpCall = new HttpCall(callIndex, retryPolicy.sendAsync(() -> sendRequest(httpRequest)), startTime);
+        } catch (IOException | RuntimeException e) {
+            // an invalid request is accounted as failed call by the response processing
+            httpCall = new HttpCall(callIndex, CompletableFuture.failedFuture(e), startTime);
+        }
+        
+        httpCallList.add(httpCall);
+        return httpCall.getFuture().handle((response, throwable) -> httpCallList)
+                .thenComposeAsync(list -> sendLaneCall(lane, numberOfLaneCalls, list), laneExecutor);
+    }
+
+    
+    /**
+     * Reap all completed requests, in case none is completed it waits for the oldest one
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param deadline the time in nanoseconds until it waits for the oldest one, 0 means no limit
+     * @return the number of reaped requests
+     */
+    protected int reapCompletedRequests(ProcessingUnitStatusBuilder processingUnitStatusBuilder, long deadline) {
+        int numberOfCompletedRequests = 0;
+        Iterator<HttpCall> it = inFlightRequestQueue.iterator();
+        while (it.hasNext()) {
+            HttpCall httpCall = it.next();
+            if (httpCall.isDone()) {
+                it.remove();
+                processResponse(processingUnitStatusBuilder, httpCall);
+                numberOfCompletedRequests++;
+            }
+        }
+        
+        if (numberOfCompletedRequests == 0 && !inFlightRequestQueue.isEmpty()) {
+            if (deadline != 0 && !inFlightRequestQueue.peek().awaitCompletion(deadline)) {
+                return 0;
+            }
+            
+            processResponse(processingUnitStatusBuilder, inFlightRequestQueue.poll());
+            numberOfCompletedRequests++;
+        }
+        
+        return numberOfCompletedRequests;
+    }
+
+    
+    /**
+     * Process the response of a completed request
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param httpCall the completed or pending call
+     */
+    protected void processResponse(ProcessingUnitStatusBuilder processingUnitStatusBuilder, HttpCall httpCall) {
+        boolean isCompleted = true;
+        try {
+            HttpResponse<HttpResponseBody> response = httpCall.getFuture().get();
+            latencyHistogram.record(httpCall.getLatency());
+            numberOfCompressedBytes += response.body().getReceivedBytes();
+            numberOfUncompressedBytes += response.body().getDecodedBytes();
+            final long uploadedBytes = response.request().bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+            if (uploadedBytes > 0) {
+                numberOfUploadedBytes += uploadedBytes;
+                totalUploadedBytes += uploadedBytes;
+            }
+            if (HttpProcessingUnitUtil.RESPONSE_BODY_DIGEST.equals(responseBodyMode)) {
+                // the digest of every call is kept, independent of the status code; it is the result even in case of a response handler
+                getProcessingPersistence().add(new HttpResultDigest(response.statusCode(), response.body().getDecodedBytes(), httpCall.getLatency(), response.body().getDigest()).toBytes());
+            }
+
+            if (responseHandler != null) {
+                // the call is completed as soon as its response is handled
+                pendingHandlerQueue.add(new HttpHandlerCall(httpCall, response, responseHandler, responseHandlerExecutor));
+                isCompleted = false;
+                return;
+            }
+            
+            // retryable status codes are already retried by the retry policy
+            if (isSuccessful(response.statusCode())) {
+                addResult(response);
+            }
+            
+            if (response.statusCode() != expectedResponseCode) {
+                // a call with an unexpected response code is counted as failed
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Unexpected response code " + response.statusCode() + " of call " + httpCall.getIndex() + ", expected is " + expectedResponseCode + ".");
+                }
+                processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+                return;
+            }
+
+            processingUnitStatusBuilder.increaseNumberOfSuccessfulUnits();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause == null) {
+                cause = e;
+            }
+            
+            LOG.warn("Error occured: " + cause.getMessage(), cause);
+            processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+        } catch (InterruptedException | RuntimeException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            
+            LOG.warn("Error occured: " + e.getMessage(), e);
+            processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+        } finally {
+            if (isCompleted) {
+                getProcessingPersistence().completeCall(httpCall.getIndex());
+            }
+        }
+    }
+
+    
+    /**
+     * Reap the calls whose response is handled, the result of the handler is added to the persistence
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param wait true to wait for the oldest one in case none is handled
+     * @return the number of reaped calls
+     */
+    protected int reapHandledResponses(ProcessingUnitStatusBuilder processingUnitStatusBuilder, boolean wait) {
+        int numberOfHandledResponses = 0;
+        Iterator<HttpHandlerCall> it = pendingHandlerQueue.iterator();
+        while (it.hasNext()) {
+            HttpHandlerCall handlerCall = it.next();
+            if (handlerCall.isDone()) {
+                it.remove();
+                processHandlerResult(processingUnitStatusBuilder, handlerCall);
+                numberOfHandledResponses++;
+            }
+        }
+        
+        if (wait && numberOfHandledResponses == 0 && !pendingHandlerQueue.isEmpty()) {
+            processHandlerResult(processingUnitStatusBuilder, pendingHandlerQueue.poll());
+            numberOfHandledResponses++;
+        }
+        
+        return numberOfHandledResponses;
+    }
+
+    
+    /**
+     * Process the result of the response handler
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param handlerCall the handled or pending call
+     */
+    protected void processHandlerResult(ProcessingUnitStatusBuilder processingUnitStatusBuilder, HttpHandlerCall handlerCall) {
+        try {
+            final byte[] result = handlerCall.getFuture().get();
+            if (result != null && !HttpProcessingUnitUtil.RESPONSE_BODY_DIGEST.equals(responseBodyMode)) {
+                // in the response body mode digest the digest is already added as result of the call
+                getProcessingPersistence().add(result);
+            }
+            
+            if (handlerCall.getStatusCode() != expectedResponseCode) {
+                // a call with an unexpected response code is counted as failed, even if it is handled
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Unexpected response code " + handlerCall.getStatusCode() + " of call " + handlerCall.getIndex() + ", expected is " + expectedResponseCode + ".");
+                }
+                processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+                return;
+            }
+            
+            processingUnitStatusBuilder.increaseNumberOfSuccessfulUnits();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause == null) {
+                cause = e;
+            }
+            
+            LOG.warn("Response handler failed on call " + handlerCall.getIndex() + ": " + cause.getMessage(), cause);
+            numberOfHandlerFailures++;
+            processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+        } catch (InterruptedException | RuntimeException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            
+            LOG.warn("Response handler failed on call " + handlerCall.getIndex() + ": " + e.getMessage(), e);
+            numberOfHandlerFailures++;
+            processingUnitStatusBuilder.increaseNumberOfFailedUnits();
+        } finally {
+            handlerTimeHistogram.record(handlerCall.getHandlerTime());
+            getProcessingPersistence().completeCall(handlerCall.getIndex());
+        }
+    }
+
+
+    /**
+     * Publish the cache hits, misses and revalidations of the cycle
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     */
+    protected void publishCacheStatistic(ProcessingUnitStatusBuilder processingUnitStatusBuilder) {
+        final long numberOfCacheHits = responseCache.getNumberOfHits();
+        if (numberOfCacheHits > numberOfReportedCacheHits) {
+            processingUnitStatusBuilder.statistic("cacheHits", numberOfCacheHits - numberOfReportedCacheHits);
+            numberOfReportedCacheHits = numberOfCacheHits;
+        }
+
+        final long numberOfCacheMisses = responseCache.getNumberOfMisses();
+        if (numberOfCacheMisses > numberOfReportedCacheMisses) {
+            processingUnitStatusBuilder.statistic("cacheMisses", numberOfCacheMisses - numberOfReportedCacheMisses);
+            numberOfReportedCacheMisses = numberOfCacheMisses;
+        }
+
+        final long numberOfCacheRevalidations = responseCache.getNumberOfRevalidations();
+        if (numberOfCacheRevalidations > numberOfReportedCacheRevalidations) {
+            processingUnitStatusBuilder.statistic("cacheRevalidations", numberOfCacheRevalidations - numberOfReportedCacheRevalidations);
+            numberOfReportedCacheRevalidations = numberOfCacheRevalidations;
+        }
+    }
+
+    
+    /**
+     * Publish the latency percentiles in microseconds and the throughput in calls per second since the start of the processing unit
+     *
+     * @param processingUnitStatusBuilder the processing unit status builder
+     * @param now the current time in nanoseconds
+     */
+    protected void publishLatencyStatistic(ProcessingUnitStatusBuilder processingUnitStatusBuilder, long now) {
+        lastStatisticTime = now;
+        if (latencyHistogram.getTotalCount() == 0) {
+            return;
+        }
+
+        processingUnitStatusBuilder.statistic("latencyP50", latencyHistogram.getValueAtPercentile(50.0) / 1_000L);
+        processingUnitStatusBuilder.statistic("latencyP90", latencyHistogram.getValueAtPercentile(90.0) / 1_000L);
+        processingUnitStatusBuilder.statistic("latencyP99", latencyHistogram.getValueAtPercentile(99.0) / 1_000L);
+        processingUnitStatusBuilder.statistic("latencyP999", latencyHistogram.getValueAtPercentile(99.9) / 1_000L);
+        processingUnitStatusBuilder.statistic("latencyMax", latencyHistogram.getMax() / 1_000L);
+        
+        final long duration = Math.max(1, now - statisticStartTime);
+        processingUnitStatusBuilder.statistic("throughput", Math.round(latencyHistogram.getTotalCount() * 1_000_000_000.0 / duration));
+        if (handlerTimeHistogram.getTotalCount() > 0) {
+            // the latency is the network time, the handler time is tracked separately
+            processingUnitStatusBuilder.statistic("handlerTimeP50", handlerTimeHistogram.getValueAtPercentile(50.0) / 1_000L);
+            processingUnitStatusBuilder.statistic("handlerTimeP99", handlerTimeHistogram.getValueAtPercentile(99.0) / 1_000L);
+            processingUnitStatusBuilder.statistic("handlerTimeMax", handlerTimeHistogram.getMax() / 1_000L);
+        }
+        
+        if (totalUploadedBytes > 0) {
+            processingUnitStatusBuilder.statistic("uploadThroughput", Math.round(totalUploadedBytes * 1_000_000_000.0 / duration));
+        }
+        
+        if (responseCache != null && responseCache.getNumberOfHits() + responseCache.getNumberOfMisses() > 0) {
+            // the hit rate in percent of all cacheable requests
+            processingUnitStatusBuilder.statistic("cacheHitRate", 100 * responseCache.getNumberOfHits() / (responseCache.getNumberOfHits() + responseCache.getNumberOfMisses()));
+        }
+        
+        if (endpointBalancer != null) {
+            processingUnitStatusBuilder.statistic("availableEndpoints", endpointBalancer.getNumberOfAvailableEndpoints());
+            processingUnitStatusBuilder.statistic("endpointEjections", endpointBalancer.getNumberOfEjections());
+        }
+        
+        if (concurrencyLimiter != null) {
+            processingUnitStatusBuilder.statistic("concurrencyLimit", concurrencyLimiter.getLimit());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Concurrency " + concurrencyLimiter);
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Latency " + latencyHistogram);
+        }
+    }
+
+    
+    /**
+     * Add the response body to the persistence according to the response body mode
+     *
+     * @param response the response
+     */
+    protected void addResult(HttpResponse<HttpResponseBody> response) {
+        if (HttpProcessingUnitUtil.RESPONSE_BODY_DISCARD.equals(responseBodyMode) || HttpProcessingUnitUtil.RESPONSE_BODY_DIGEST.equals(responseBodyMode)) {
+            return;
+        }
+        
+        if (HttpProcessingUnitUtil.RESPONSE_BODY_FILE.equals(responseBodyMode)) {
+            // the body is already streamed into the file, the result is its path
+            if (response.body().getFile() != null) {
+                getProcessingPersistence().add(response.body().getFile().toString());
+            }
+            return;
+        }
+        
+        final byte[] result = response.body().getContent();
+
+        if (HttpProcessingUnitUtil.RESPONSE_BODY_STRING.equals(responseBodyMode)) {
+            final Charset charset = HttpProcessingUnitUtil.getInstance().getCharset(response.headers());
+            if (!StandardCharsets.UTF_8.equals(charset)) {
+                // the persistence keeps the strings UTF-8 encoded
+                getProcessingPersistence().add(new String(result, charset));
+                return;
+            }
+        }
+        
+        getProcessingPersistence().add(result);
+    }
+
+
+    /**
+     * Check if a status code is successful
+     *
+     * @param statusCode the status code
+     * @return true in case of a 2xx status code
+     */
+    protected boolean isSuccessful(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
     }
 
 
@@ -183,20 +1153,31 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
 
     
     /**
-     * Define the http persitense. It works like a fifo queue. 
+     * Define the http persitense. It works like a fifo queue. The responses are kept as bytes, strings are UTF-8 encoded.
+     * It is a static class, in case of a suspend only the persistence and not the processing unit is serialized.
      * 
      * @author patrick
      */
-    public class HttpResultPersistence implements IProcessingUnitPersistence {
+    public static class HttpResultPersistence implements IProcessingUnitPersistence {
         private static final long serialVersionUID = -178680376384580300L;
-        private LinkedList<String> responseQueue;
+        private IHttpResultStore resultStore;
+        private long numberOfProcessedCalls;
+        private int capacity;
+        private HttpCallCursor callCursor;
+        private List<HttpCallLane> laneList;
+        private InputFileRequestSource.Position inputFilePosition;
         
         
         /**
          * Constructor for HttpResultPersistence
          */
         HttpResultPersistence() {
-            responseQueue = new LinkedList<String>();
+            resultStore = null;
+            numberOfProcessedCalls = 0;
+            capacity = 0;
+            callCursor = new HttpCallCursor();
+            laneList = null;
+            inputFilePosition = null;
         }
         
         
@@ -206,7 +1187,28 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
          * @param response the response
          */
         public void add(String response) {
-            responseQueue.add(response);
+            if (response == null) {
+                add((byte[])null);
+            } else {
+                add(response.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        
+        /**
+         * Add new response
+         *
+         * @param response the response as bytes
+         */
+        public synchronized void add(byte[] response) {
+            if (response == null) {
+                getResultStore().add(new byte[0]);
+            } else {
+                getResultStore().add(response);
+            }
+            
+            // a consumer which waits in poll can take the result immediately
+            notifyAll();
         }
 
         
@@ -216,17 +1218,297 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
          * @return the response
          */
         public String pop() {
-            return responseQueue.pop();
+            return new String(popBytes(), StandardCharsets.UTF_8);
+        }
+
+        
+        /**
+         * Get the response as bytes
+         *
+         * @return the response as bytes
+         */
+        public synchronized byte[] popBytes() {
+            byte[] result = getResultStore().pop();
+            notifyAll();
+            return result;
+        }
+
+
+        /**
+         * Get the digest of a call in case of the response body mode digest
+         *
+         * @return the digest of the call
+         */
+        public HttpResultDigest popDigest() {
+            return HttpResultDigest.valueOf(popBytes());
         }
+
         
+        /**
+         * Get the response, it waits in case there is no response available. It can be used by a consumer thread to drain the 
+         * responses while the processing unit is still running.
+         *
+         * @param timeout the max time in milliseconds to wait
+         * @return the response or null in case there was no response in the given time
+         * @throws InterruptedException In case the waiting thread was interrupted
+         */
+        public String poll(long timeout) throws InterruptedException {
+            byte[] result = pollBytes(timeout);
+            if (result == null) {
+                return null;
+            }
+            
+            return new String(result, StandardCharsets.UTF_8);
+        }
+
+        
+        /**
+         * Get the response as bytes, it waits in case there is no response available.
+         *
+         * @param timeout the max time in milliseconds to wait
+         * @return the response or null in case there was no response in the given time
+         * @throws InterruptedException In case the waiting thread was interrupted
+         */
+        public synchronized byte[] pollBytes(long timeout) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + timeout;
+            while (getResultStore().size() == 0) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                wait(remaining);
+            }
+            
+            return popBytes();
+        }
+
         
         /**
          * Get the size
          *
          * @return the size
          */
-        public int getSize() {
-            return responseQueue.size();
+        public synchronized int getSize() {
+            return getResultStore().size();
+        }
+
+        
+        /**
+         * Remove all responses and release the resources of the result store, e.g. segment files. The persistence owns 
+         * the result store: a consumer which does not drain all responses has to clear it.
+         */
+        public synchronized void clear() {
+            getResultStore().clear();
+            notifyAll();
+        }
+
+        
+        /**
+         * Get the capacity
+         *
+         * @return the max number of responses, 0 means unlimited
+         */
+        public synchronized int getCapacity() {
+            return capacity;
+        }
+        
+        
+        /**
+         * Set the capacity
+         *
+         * @param capacity the max number of responses, 0 means unlimited
+         */
+        synchronized void setCapacity(int capacity) {
+            this.capacity = capacity;
+            notifyAll();
+        }
+
+        
+        /**
+         * Check if there is capacity for one more response
+         *
+         * @param numberOfPendingResponses the number of responses which are already pending, e.g. the requests in flight
+         * @return true if there is capacity for one more response
+         */
+        synchronized boolean hasCapacity(int numberOfPendingResponses) {
+            return capacity <= 0 || getResultStore().size() + numberOfPendingResponses < capacity;
+        }
+
+        
+        /**
+         * Get the number of responses which can be added until the capacity is reached
+         *
+         * @return the number of responses, {@link Integer#MAX_VALUE} in case the capacity is unlimited
+         */
+        synchronized int getRemainingCapacity() {
+            if (capacity <= 0) {
+                return Integer.MAX_VALUE;
+            }
+            return Math.max(0, capacity - getResultStore().size());
+        }
+
+        
+        /**
+         * Wait until there is capacity for one more response
+         *
+         * @param timeout the max time in milliseconds to wait
+         * @return true if there is capacity
+         */
+        synchronized boolean awaitCapacity(long timeout) {
+            final long deadline = System.currentTimeMillis() + timeout;
+            while (!hasCapacity(0)) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+
+        
+        /**
+         * Get the number of processed calls, successful or not. It is kept in the persistence to be available after a resume.
+         *
+         * @return the number of processed calls
+         */
+        public long getNumberOfProcessedCalls() {
+            return numberOfProcessedCalls;
+        }
+
+        
+        /**
+         * Get the call cursor: it defines which calls are completed and which one has to be issued next
+         *
+         * @return the call cursor
+         */
+        public synchronized HttpCallCursor getCallCursor() {
+            if (callCursor == null) {
+                callCursor = new HttpCallCursor();
+            }
+            return callCursor;
+        }
+
+        
+        /**
+         * Get the lanes, each lane has its own call cursor
+         *
+         * @return the lanes, empty in case the calls are not processed in lanes
+         */
+        public synchronized List<HttpCallLane> getLaneList() {
+            if (laneList == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(laneList);
+        }
+
+        
+        /**
+         * Get the watermark of the calls: all calls below are completed. In case of lanes it is the lowest watermark of the lanes.
+         *
+         * @return the watermark
+         */
+        synchronized long getWatermark() {
+            if (laneList == null) {
+                return getCallCursor().getWatermark();
+            }
+            
+            long watermark = Long.MAX_VALUE;
+            for (HttpCallLane lane : laneList) {
+                watermark = Math.min(watermark, lane.isCompleted() ? lane.getEnd() : lane.getCallCursor().getWatermark());
+            }
+            return (watermark == Long.MAX_VALUE) ? 0 : watermark;
+        }
+
+        
+        /**
+         * Get the position of the input file where a resume continues, it identifies the file by its size and modification time
+         *
+         * @return the position or null in case there is no input file or no cycle was processed
+         */
+        public synchronized InputFileRequestSource.Position getInputFilePosition() {
+            return inputFilePosition;
+        }
+
+        
+        /**
+         * Set the position of the input file where a resume continues
+         *
+         * @param inputFilePosition the position
+         */
+        synchronized void setInputFilePosition(InputFileRequestSource.Position inputFilePosition) {
+            this.inputFilePosition = inputFilePosition;
+        }
+
+        
+        /**
+         * Initialize the lanes in case they are not already defined, in case of a resume the lanes of the persistence are kept
+         *
+         * @param numberOfCalls the number of calls
+         * @param numberOfLanes the number of lanes
+         * @return the lanes
+         */
+        synchronized List<HttpCallLane> initializeLanes(long numberOfCalls, int numberOfLanes) {
+            if (laneList == null) {
+                laneList = HttpCallLane.partition(numberOfCalls, numberOfLanes);
+            }
+            return getLaneList();
+        }
+
+        
+        /**
+         * Mark a call as completed and increase the number of processed calls
+         *
+         * @param callIndex the index of the call
+         */
+        synchronized void completeCall(long callIndex) {
+            if (laneList != null) {
+                for (HttpCallLane lane : laneList) {
+                    if (lane.contains(callIndex)) {
+                        lane.complete(callIndex);
+                        break;
+                    }
+                }
+            } else {
+                getCallCursor().complete(callIndex);
+            }
+            
+            numberOfProcessedCalls++;
+        }
+
+        
+        /**
+         * Initialize the result store in case it is not already defined, otherwise (e.g. on a resume) the given store 
+         * is discarded and cleared
+         *
+         * @param resultStore the result store
+         */
+        synchronized void initializeResultStore(IHttpResultStore resultStore) {
+            if (this.resultStore == null) {
+                this.resultStore = resultStore;
+            } else if (this.resultStore != resultStore) {
+                resultStore.clear();
+            }
+        }
+
+        
+        /**
+         * Get the result store, by default all responses are kept in memory
+         *
+         * @return the result store
+         */
+        synchronized IHttpResultStore getResultStore() {
+            if (resultStore == null) {
+                resultStore = new MemoryHttpResultStore();
+            }
+            return resultStore;
         }
 
 
@@ -234,8 +1516,8 @@ public class HttpProcessingUnit extends AbstractProcessingUnitPersistenceImpl<Ht
          * @see java.lang.Object#toString()
          */
         @Override
-        public String toString() {
-            return "HttpResultPersistence [responseQueue=" + responseQueue + "]";
+        public synchronized String toString() {
+            return "HttpResultPersistence [numberOfProcessedCalls=" + numberOfProcessedCalls + ", callCursor=" + callCursor + ", laneList=" + laneList + ", resultStore=" + resultStore + "]";
         }
     }
 }
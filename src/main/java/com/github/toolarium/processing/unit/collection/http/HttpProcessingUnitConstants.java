@@ -31,6 +31,23 @@ public interface HttpProcessingUnitConstants {
     /** URL_PARAMETER: the url parameter. It is optional. */
     ParameterDefinition URL_PARAMETER = new ParameterDefinitionBuilder().name("url").emptyValueIsAllowed().description("The url: if this is defined than the parameters protcol, domain, port and port are ignored.").build();
 
+    /** ENDPOINT_PARAMETER: the endpoints of a load balancing. It is optional. */
+    ParameterDefinition ENDPOINT_PARAMETER = new ParameterDefinitionBuilder().name("endpoint").emptyValueIsAllowed().maxOccurs(Integer.MAX_VALUE)
+            .description("The base url of an endpoint with an optional weight, e.g. http://host1:8080|2: if endpoints are defined, the calls are balanced across them "
+                         + "and the scheme and host of every request are replaced by the endpoint.").build();
+
+    /** ENDPOINT_BALANCING_PARAMETER: the balancing strategy of the endpoints. */
+    ParameterDefinition ENDPOINT_BALANCING_PARAMETER = new ParameterDefinitionBuilder().name("endpointBalancing").defaultValue("round-robin")
+            .description("The balancing strategy of the endpoints: round-robin, weighted or least-outstanding (default: round-robin).").build();
+
+    /** ENDPOINT_FAILURE_THRESHOLD_PARAMETER: the number of failures after which an endpoint is ejected. */
+    ParameterDefinition ENDPOINT_FAILURE_THRESHOLD_PARAMETER = new ParameterDefinitionBuilder().name("endpointFailureThreshold").defaultValue(5)
+            .description("The number of failed calls (I/O errors or status code 5xx) in a row after which an endpoint is ejected, 0 means never (default: 5).").build();
+
+    /** ENDPOINT_EJECTION_TIME_PARAMETER: the time an endpoint is ejected. */
+    ParameterDefinition ENDPOINT_EJECTION_TIME_PARAMETER = new ParameterDefinitionBuilder().name("endpointEjectionTime").defaultValue(30)
+            .description("The time in seconds an endpoint is ejected before it is probed again, it doubles with every failed probe (default: 30).").build();
+
     /** HTTP_VERSION_PARAMETER: define the http version. */
     ParameterDefinition HTTP_VERSION_PARAMETER = new ParameterDefinitionBuilder().name("httpVersion").defaultValue("2").description("Define the http version: 2, 1.1, (default: 2).").build();
 
@@ -41,6 +58,10 @@ public interface HttpProcessingUnitConstants {
     ParameterDefinition TRUST_CERTIFICATE_PARAMETER = new ParameterDefinitionBuilder().name("trustCertificate")
             .description("The trust certificate in case of a https call. The certifcate must be in a PKCS#7 format (certificate chains are supported).").build();
 
+    /** SECURE_RANDOM_PARAMETER: the secure random of the ssl context. */
+    ParameterDefinition SECURE_RANDOM_PARAMETER = new ParameterDefinitionBuilder().name("secureRandom").defaultValue("default")
+            .description("The secure random of the ssl context in case of a https call: default (non-blocking) or strong (can block until enough entropy is available) (default: default).").build();
+
     /** METHOD_PARAMETER: the method parameter. */
     ParameterDefinition REQUEST_METHOD_PARAMETER = new ParameterDefinitionBuilder().name("method").defaultValue("GET").description("The request method to use (default: GET).").build();
 
@@ -53,9 +74,31 @@ public interface HttpProcessingUnitConstants {
     /** REQUESTR_HEADER_PARAMETER: the header parameter. */
     ParameterDefinition REQUESTR_HEADER_PARAMETER = new ParameterDefinitionBuilder().name("header").emptyValueIsAllowed().maxOccurs(Integer.MAX_VALUE).description("The request header parameter.").build();
 
+    /** COMPRESSION_PARAMETER: the compression of the response. */
+    ParameterDefinition COMPRESSION_PARAMETER = new ParameterDefinitionBuilder().name("compression").defaultValue(false)
+            .description("Accept a gzip or deflate compressed response, it is decoded while it is streamed; the compressed and uncompressed bytes are reported as statistic (default: false).").build();
+
+    /** CACHE_PARAMETER: the conditional request cache. */
+    ParameterDefinition CACHE_PARAMETER = new ParameterDefinitionBuilder().name("cache").defaultValue(false)
+            .description("Cache the responses of GET requests with an ETag or Last-Modified validator, a cached resource is requested conditional and a 304 response is "
+                         + "served from the cache; the hits, misses and revalidations are reported as statistic (default: false).").build();
+
+    /** CACHE_SIZE_PARAMETER: the max size of the conditional request cache. */
+    ParameterDefinition CACHE_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("cacheSize").defaultValue(64)
+            .description("The max size in megabytes of the cache, the least recently used responses are evicted (default: 64).").build();
+
+    /** CACHE_FILE_PARAMETER: the file of the conditional request cache. */
+    ParameterDefinition CACHE_FILE_PARAMETER = new ParameterDefinitionBuilder().name("cacheFile").defaultValue("").emptyValueIsAllowed()
+            .description("The file in which the cache is kept between runs, it is read at the start and written at the end; empty means the cache is only kept in memory (default is empty).").build();
+
     /** REQUEST_BODY_PARAMETER: the request body. */
     ParameterDefinition REQUEST_BODY_PARAMETER = new ParameterDefinitionBuilder().name("body").defaultValue("").emptyValueIsAllowed().description("The request body parameter (default is empty).").build();
 
+    /** REQUEST_BODY_FILE_PARAMETER: the file of the request body. */
+    ParameterDefinition REQUEST_BODY_FILE_PARAMETER = new ParameterDefinitionBuilder().name("bodyFile").defaultValue("").emptyValueIsAllowed()
+            .description("The file of the request body, it is memory mapped once and streamed for every request instead of the body parameter; "
+                         + "the uploaded bytes and the upload throughput (bytes per second) are reported as statistic (default is empty).").build();
+
     /** NUMBER_OF_CALLS_PARAMTER: the number of calls. */
     ParameterDefinition NUMBER_OF_CALLS_PARAMTER = new ParameterDefinitionBuilder().name("numberOfCalls").defaultValue(1).description("The number of calls to execute.").build();
 
@@ -63,14 +106,169 @@ public interface HttpProcessingUnitConstants {
     ParameterDefinition TIMEOUT_PARAMTER = new ParameterDefinitionBuilder().name("timeout").defaultValue(60).description("The timeout in seconds of the request.").build();
 
     /** RETRY_AFTER_TIMEOUT_PARAMTER: the timeout. */
-    ParameterDefinition RETRY_AFTER_TIMEOUT_PARAMTER = new ParameterDefinitionBuilder().name("retryAfterTimeout").defaultValue(true).description("The retry after timeout (default: true).").build();
+    ParameterDefinition RETRY_AFTER_TIMEOUT_PARAMTER = new ParameterDefinitionBuilder().name("retryAfterTimeout").defaultValue(true)
+            .description("The retry of calls with a retryable status code or an I/O error like a timeout (default: true).").build();
 
     /** SLEEPTIME_BEFORE_RETRY_PARAMTER: the timeout. */
-    ParameterDefinition SLEEPTIME_BEFORE_RETRY_PARAMTER = new ParameterDefinitionBuilder().name("sleeptimeBeforeRetry").defaultValue(3).description("The sleeptime before retry in seconds (default: 3).").build();
+    ParameterDefinition SLEEPTIME_BEFORE_RETRY_PARAMTER = new ParameterDefinitionBuilder().name("sleeptimeBeforeRetry").defaultValue(3)
+            .description("The base delay in seconds of the exponential backoff before a retry, the effective delay is a random value up to the backoff (default: 3).").build();
+
+    /** MAX_RETRIES_PARAMETER: the max number of retries of a call. */
+    ParameterDefinition MAX_RETRIES_PARAMETER = new ParameterDefinitionBuilder().name("maxRetries").defaultValue(3)
+            .description("The max number of retries of a call (default: 3).").build();
+
+    /** MAX_RETRY_DELAY_PARAMETER: the max delay before a retry. */
+    ParameterDefinition MAX_RETRY_DELAY_PARAMETER = new ParameterDefinitionBuilder().name("maxRetryDelay").defaultValue(60)
+            .description("The max delay in seconds before a retry, it limits the backoff and the Retry-After header of the server (default: 60).").build();
+
+    /** RETRY_STATUS_CODES_PARAMETER: the retryable status codes. */
+    ParameterDefinition RETRY_STATUS_CODES_PARAMETER = new ParameterDefinitionBuilder().name("retryStatusCodes").defaultValue("408,429,502,503,504")
+            .description("The comma separated list of retryable status codes (default: 408,429,502,503,504).").build();
 
     /** FOLLOW_REDIRECT_PARAMETER: define it redirect will be followed. */
     ParameterDefinition FOLLOW_REDIRECT_PARAMETER = new ParameterDefinitionBuilder().name("followRedirect").defaultValue(true).description("Define it redirect will be followed.").build();
 
     /** EXPECTED_RESPONSE_CODE_PARAMTER: the expected response code parameter. */
-    ParameterDefinition EXPECTED_RESPONSE_CODE_PARAMTER = new ParameterDefinitionBuilder().name("expectedResponseCode").defaultValue(200).description("The expected response code (default: 200).").build();
+    ParameterDefinition EXPECTED_RESPONSE_CODE_PARAMTER = new ParameterDefinitionBuilder().name("expectedResponseCode").defaultValue(200).description("The expected response code, a call with another response code is counted as failed (default: 200).").build();
+
+    /** INPUT_FILE_PARAMETER: the input file of the requests. */
+    ParameterDefinition INPUT_FILE_PARAMETER = new ParameterDefinitionBuilder().name("inputFile").defaultValue("").emptyValueIsAllowed()
+            .description("The input file with one request per line, the fields url, path, query, method and body overwrite the request parameters and all other fields "
+                         + "are sent as request headers. Each line is one call, the numberOfCalls is ignored (default: no input file).").build();
+
+    /** INPUT_FORMAT_PARAMETER: the format of the input file. */
+    ParameterDefinition INPUT_FORMAT_PARAMETER = new ParameterDefinitionBuilder().name("inputFormat").defaultValue("")
+            .emptyValueIsAllowed().description("The format of the input file: csv (with a header line) or jsonl (a JSON object per line), by default it is taken from the file extension.").build();
+
+    /** MAX_IN_FLIGHT_PARAMETER: the maximum number of requests which are sent asynchronous in parallel. */
+    ParameterDefinition MAX_IN_FLIGHT_PARAMETER = new ParameterDefinitionBuilder().name("maxInFlight").defaultValue(1)
+            .description("The maximum number of asynchronous requests which are in flight at the same time, 1 means one request after the other (default: 1).").build();
+
+    /** ADAPTIVE_CONCURRENCY_PARAMETER: defines if the number of requests in flight is adapted. */
+    ParameterDefinition ADAPTIVE_CONCURRENCY_PARAMETER = new ParameterDefinitionBuilder().name("adaptiveConcurrency").defaultValue(false)
+            .description("Adapts the number of requests in flight between minInFlight and maxInFlight: it is increased while the latency stays flat and "
+                         + "decreased on timeouts, 429 or 503 responses and growing latency (default: false).").build();
+
+    /** MIN_IN_FLIGHT_PARAMETER: the minimum number of requests which are sent asynchronous in parallel. */
+    ParameterDefinition MIN_IN_FLIGHT_PARAMETER = new ParameterDefinitionBuilder().name("minInFlight").defaultValue(1)
+            .description("The minimum and initial number of requests in flight in case of an adaptive concurrency (default: 1).").build();
+
+    /** TARGET_REQUESTS_PER_SECOND_PARAMETER: the arrival rate of an open loop load. */
+    ParameterDefinition TARGET_REQUESTS_PER_SECOND_PARAMETER = new ParameterDefinitionBuilder().name("targetRequestsPerSecond").defaultValue(0.0)
+            .description("The number of requests per second which are sent on a fixed timetable independent of the response times (open loop), fractions like 0.5 "
+                         + "are supported; the latency is measured from the intended send time; 0 means a request is sent as soon as the in flight window allows it (default: 0).").build();
+
+    /** MAX_REQUEST_LATENESS_PARAMETER: the max lateness of a scheduled request. */
+    ParameterDefinition MAX_REQUEST_LATENESS_PARAMETER = new ParameterDefinitionBuilder().name("maxRequestLateness").defaultValue(0)
+            .description("The max lateness in milliseconds of a scheduled request in case of a targetRequestsPerSecond, later requests are dropped and counted as failed; "
+                         + "0 means no request is dropped (default: 0).").build();
+
+    /** WARM_UP_CONNECTIONS_PARAMETER: the number of connections which are opened before the measured run. */
+    ParameterDefinition WARM_UP_CONNECTIONS_PARAMETER = new ParameterDefinitionBuilder().name("warmUpConnections").defaultValue(0)
+            .description("The number of concurrent probe calls per endpoint before the measured run to open the connections, they are not counted as processed units "
+                         + "and reported as warmUpCalls, warmUpFailures and warmUpTime; 0 means no warm-up (default: 0).").build();
+
+    /** WARM_UP_METHOD_PARAMETER: the request method of the warm-up probes. */
+    ParameterDefinition WARM_UP_METHOD_PARAMETER = new ParameterDefinitionBuilder().name("warmUpMethod").defaultValue("HEAD")
+            .description("The request method of the warm-up probes: HEAD, OPTIONS or GET (default: HEAD).").build();
+
+    /** CALLS_PER_CYCLE_PARAMETER: the number of calls which are processed in one processing cycle. */
+    ParameterDefinition CALLS_PER_CYCLE_PARAMETER = new ParameterDefinitionBuilder().name("callsPerCycle").defaultValue(1)
+            .description("The number of calls which are completed in one processing cycle, each call is counted as its own unit (default: 1).").build();
+
+    /** LANES_PARAMETER: the number of lanes which process the calls in parallel. */
+    ParameterDefinition LANES_PARAMETER = new ParameterDefinitionBuilder().name("lanes").defaultValue(1)
+            .description("The number of lanes which process the calls in parallel: the calls are split into ranges, every lane sends its calls one after another and has its own cursor "
+                         + "which is kept on a suspend. In a cycle every lane completes up to callsPerCycle calls within the free capacity of the persistence, every lane has "
+                         + "one call in flight; an adaptive concurrency limits the number of active lanes, the target requests per second is not considered, "
+                         + "1 means no lanes (default: 1).").build();
+
+    /** LANE_EXECUTOR_PARAMETER: the pool which runs the lanes. */
+    ParameterDefinition LANE_EXECUTOR_PARAMETER = new ParameterDefinitionBuilder().name("laneExecutor").defaultValue("forkjoin")
+            .description("The pool which runs the lanes: forkjoin (a fork-join pool with one thread per lane) or virtual (a virtual thread per lane) (default: forkjoin).").build();
+
+    /** RESPONSE_HANDLER_PARAMETER: the class name of the response handler. */
+    ParameterDefinition RESPONSE_HANDLER_PARAMETER = new ParameterDefinitionBuilder().name("responseHandler").defaultValue("").emptyValueIsAllowed()
+            .description("The class name of an IHttpResponseHandler which handles every response on a worker pool while the next calls are on the network, its result is added "
+                         + "to the persistence instead of the response body, in the response body mode digest the digest stays the result; a handled call with an "
+                         + "unexpected response code is counted as failed; empty means the response body is added (default is empty).").build();
+
+    /** RESPONSE_HANDLER_POOL_SIZE_PARAMETER: the number of threads of the response handler. */
+    ParameterDefinition RESPONSE_HANDLER_POOL_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("responseHandlerPoolSize").defaultValue(0)
+            .description("The number of threads of the response handler, the queue holds four responses per thread; in case it is full the response is handled by "
+                         + "the processing thread, 0 means one thread per available processor (default: 0).").build();
+
+    /** RESPONSE_HANDLER_STREAMING_PARAMETER: streams the response body to the response handler. */
+    ParameterDefinition RESPONSE_HANDLER_STREAMING_PARAMETER = new ParameterDefinitionBuilder().name("responseHandlerStreaming").defaultValue(false)
+            .description("Streams the response body to the response handler as soon as the headers are received instead of materializing it, the max response body size "
+                         + "does not apply and the latency ends with the headers. It can not be combined with the cache, retries, compression or the response body modes "
+                         + "discard, digest and file (default: false).").build();
+
+    /** RESPONSE_BODY_PARAMETER: defines how the response body is handled. */
+    ParameterDefinition RESPONSE_BODY_PARAMETER = new ParameterDefinitionBuilder().name("responseBody").defaultValue("string")
+            .description("Defines how the response body is handled: string (decoded by the response charset), bytes (raw bytes), discard (streamed and only counted), "
+                         + "digest (only status code, body length, content digest and latency of every call are kept) or file (the body of a successful call is streamed "
+                         + "into a file of the response body directory, the path of the file is kept) (default: string).").build();
+
+    /** DIGEST_ALGORITHM_PARAMETER: the digest algorithm of the digest response body mode. */
+    ParameterDefinition DIGEST_ALGORITHM_PARAMETER = new ParameterDefinitionBuilder().name("digestAlgorithm").defaultValue("CRC32C")
+            .description("The content digest algorithm in case of the response body mode digest: CRC32C or a message digest algorithm like SHA-256 (default: CRC32C).").build();
+
+    /** MAX_RESPONSE_BODY_SIZE_PARAMETER: the max size of a response body which is kept. */
+    ParameterDefinition MAX_RESPONSE_BODY_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("maxResponseBodySize").defaultValue(0)
+            .description("The max number of bytes of a response body which are kept, the rest is read but not kept, 0 means unlimited (default: 0).").build();
+
+    /** RESPONSE_BODY_DIRECTORY_PARAMETER: the directory of the response body mode file. */
+    ParameterDefinition RESPONSE_BODY_DIRECTORY_PARAMETER = new ParameterDefinitionBuilder().name("responseBodyDirectory").defaultValue("").emptyValueIsAllowed()
+            .description("The directory into which the response bodies are streamed in case of the response body mode file, the max response body size does not apply; "
+                         + "the files are left to the consumer of the results, it can not be combined with the cache (default is empty).").build();
+
+    /** PERSISTENCE_PARAMETER: defines where the results are kept. */
+    ParameterDefinition PERSISTENCE_PARAMETER = new ParameterDefinitionBuilder().name("persistence").defaultValue("memory")
+            .description("Defines where the results are kept: memory or segment (small memory head, the rest is spilled to memory-mapped segment files) (default: memory).").build();
+
+    /** PERSISTENCE_DIRECTORY_PARAMETER: the directory of the segment files. */
+    ParameterDefinition PERSISTENCE_DIRECTORY_PARAMETER = new ParameterDefinitionBuilder().name("persistenceDirectory").defaultValue("").emptyValueIsAllowed()
+            .description("The directory of the segment files, in case it is empty the temp directory is used (default is empty).").build();
+
+    /** PERSISTENCE_MEMORY_HEAD_SIZE_PARAMETER: the number of results which are kept in memory. */
+    ParameterDefinition PERSISTENCE_MEMORY_HEAD_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("persistenceMemoryHeadSize").defaultValue(1000)
+            .description("The number of results which are kept in memory before they are spilled to segment files (default: 1000).").build();
+
+    /** PERSISTENCE_SEGMENT_SIZE_PARAMETER: the size of a segment file. */
+    ParameterDefinition PERSISTENCE_SEGMENT_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("persistenceSegmentSize").defaultValue(64 * 1024 * 1024)
+            .description("The size of a segment file in bytes (default: 64MB).").build();
+
+    /** PERSISTENCE_COMPRESSION_PARAMETER: defines if the results are compressed in case of a suspend. */
+    ParameterDefinition PERSISTENCE_COMPRESSION_PARAMETER = new ParameterDefinitionBuilder().name("persistenceCompression").defaultValue("none")
+            .description("Defines if the results in memory are compressed in case of a suspend: none or deflate (default: none).").build();
+
+    /** PERSISTENCE_DEDUPLICATION_PARAMETER: defines if identical results are written only once in case of a suspend. */
+    ParameterDefinition PERSISTENCE_DEDUPLICATION_PARAMETER = new ParameterDefinitionBuilder().name("persistenceDeduplication").defaultValue(false)
+            .description("Defines if identical results in memory are written only once in case of a suspend (default: false).").build();
+
+    /** PERSISTENCE_CAPACITY_PARAMETER: the max number of results in the persistence. */
+    ParameterDefinition PERSISTENCE_CAPACITY_PARAMETER = new ParameterDefinitionBuilder().name("persistenceCapacity").defaultValue(0)
+            .description("The max number of results in the persistence, in case it is reached no new calls are issued until a consumer has drained results, 0 means unlimited (default: 0).").build();
+
+    /** STATISTIC_INTERVAL_PARAMETER: the interval in seconds in which the latency statistic is published. */
+    ParameterDefinition STATISTIC_INTERVAL_PARAMETER = new ParameterDefinitionBuilder().name("statisticInterval").defaultValue(10)
+            .description("The interval in seconds in which the latency percentiles (in microseconds) and the throughput (calls per second) are published as statistic, "
+                         + "they are always published at the end; 0 means in every processing cycle (default: 10).").build();
+
+    /** SHARED_CLIENT_PARAMETER: defines if the http client is shared. */
+    ParameterDefinition SHARED_CLIENT_PARAMETER = new ParameterDefinitionBuilder().name("sharedClient").defaultValue(true)
+            .description("Shares the http client, its connections and TLS sessions with all processing units in the JVM which use the same client configuration (default: true).").build();
+
+    /** CLIENT_IDLE_TIMEOUT_PARAMETER: the time an unused shared http client is kept open. */
+    ParameterDefinition CLIENT_IDLE_TIMEOUT_PARAMETER = new ParameterDefinitionBuilder().name("clientIdleTimeout").defaultValue(60)
+            .description("The time in seconds an unused shared http client is kept open for the next processing unit, 0 means it is closed immediately (default: 60).").build();
+
+    /** EXECUTOR_PARAMETER: the executor strategy of the http client. */
+    ParameterDefinition EXECUTOR_PARAMETER = new ParameterDefinitionBuilder().name("executor").defaultValue("shared")
+            .description("The executor of the http client: shared (fixed thread pool shared by all processing units in the JVM), virtual (shared virtual threads), client (own unbounded cached thread pool per client) or caller (no own threads) (default: shared).").build();
+
+    /** EXECUTOR_POOL_SIZE_PARAMETER: the size of the shared executor. */
+    ParameterDefinition EXECUTOR_POOL_SIZE_PARAMETER = new ParameterDefinitionBuilder().name("executorPoolSize").defaultValue(0)
+            .description("The number of threads of the shared executor, it is only considered by the first processing unit which uses the shared executor, a different size of a later processing unit is logged as warning, 0 means two threads per available processor (default: 0).").build();
 }
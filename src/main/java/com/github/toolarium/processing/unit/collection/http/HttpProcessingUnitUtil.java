@@ -10,20 +10,39 @@ import com.github.toolarium.processing.unit.exception.ValidationException;
 import com.github.toolarium.processing.unit.runtime.IParameterRuntime;
 import com.github.toolarium.security.configuration.PKIConfigurationUtil;
 import com.github.toolarium.security.keystore.util.KeyStoreUtil;
+import java.io.IOException;
 import java.net.ProxySelector;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import org.slf4j.Logger;
@@ -37,6 +56,39 @@ import org.slf4j.LoggerFactory;
  */
 public final class HttpProcessingUnitUtil {
     private static final Logger LOG = LoggerFactory.getLogger(HttpProcessingUnitUtil.class);
+    private static final String EXECUTOR_CLIENT = "client";
+    private static final String EXECUTOR_VIRTUAL = "virtual";
+    private static final String EXECUTOR_SHARED = "shared";
+    private static final String EXECUTOR_CALLER = "caller";
+    private static final String LANE_EXECUTOR_FORKJOIN = "forkjoin";
+    /** Response body mode: decoded by the response charset */
+    public static final String RESPONSE_BODY_STRING = "string";
+    /** Response body mode: raw bytes */
+    public static final String RESPONSE_BODY_BYTES = "bytes";
+    /** Response body mode: streamed and only counted */
+    public static final String RESPONSE_BODY_DISCARD = "discard";
+    /** Response body mode: only a digest of every call is kept */
+    public static final String RESPONSE_BODY_DIGEST = "digest";
+    /** Response body mode: the body is streamed into a file */
+    public static final String RESPONSE_BODY_FILE = "file";
+    /** Persistence: all results are kept in memory */
+    public static final String PERSISTENCE_MEMORY = "memory";
+    /** Persistence: the results are spilled to memory-mapped segment files */
+    public static final String PERSISTENCE_SEGMENT = "segment";
+    /** Persistence compression: none */
+    public static final String PERSISTENCE_COMPRESSION_NONE = "none";
+    /** Persistence compression: deflate */
+    public static final String PERSISTENCE_COMPRESSION_DEFLATE = "deflate";
+    /** Secure random: the default, non-blocking secure random */
+    public static final String SECURE_RANDOM_DEFAULT = "default";
+    /** Secure random: the strong secure random, it can block */
+    public static final String SECURE_RANDOM_STRONG = "strong";
+    private static final Executor CALLER_EXECUTOR = Runnable::run;
+    private final Map<String, TrustManager[]> trustManagerCache = new ConcurrentHashMap<String, TrustManager[]>();
+    private final Map<String, SSLContext> sslContextCache = new ConcurrentHashMap<String, SSLContext>();
+    private volatile ExecutorService sharedExecutor;
+    private volatile int sharedExecutorPoolSize;
+    private volatile ExecutorService virtualThreadExecutor;
 
     /**
      * Private class, the only instance of the singelton which will be created by accessing the holder class.
@@ -75,8 +127,64 @@ public final class HttpProcessingUnitUtil {
      * @throws ValidationException In case of a validation error
      */
     public HttpClient createHttpClient(IParameterRuntime parameterRuntime, SSLContext sslContext) throws ValidationException {
-        HttpClient httpClient;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                //.authenticator(null)
+                .connectTimeout(Duration.ofSeconds(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger()))
+                //.cookieHandler(null)
+                .followRedirects(getRedirect(parameterRuntime))
+                //.localAddress(null)
+                //.priority(0)
+                //.sslParameters(null)
+                .version(getHttpVersion(parameterRuntime))
+                .proxy(ProxySelector.getDefault());
         
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+
+        Executor executor = getExecutor(parameterRuntime);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        
+        return builder.build();
+    }
+
+
+    /**
+     * Acquire a {@link HttpClient}: in case of a shared client the client with the same configuration is taken from the {@link HttpClientRegistry}, 
+     * otherwise a new one is created. It has to be released by {@link HttpClientRegistry#release(HttpClient)}.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @param sslContext the ssl context
+     * @return the http client
+     * @throws ValidationException In case of a validation error
+     */
+    public HttpClient acquireHttpClient(IParameterRuntime parameterRuntime, SSLContext sslContext) throws ValidationException {
+        if (!parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.SHARED_CLIENT_PARAMETER).getValueAsBoolean()) {
+            return createHttpClient(parameterRuntime, sslContext);
+        }
+        
+        final String configuration = getHttpVersion(parameterRuntime) + "|" + getRedirect(parameterRuntime) + "|" 
+                                     + parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger();
+        final HttpClientRegistry.Key key = new HttpClientRegistry.Key(configuration, sslContext, getExecutor(parameterRuntime));
+        HttpClient httpClient = HttpClientRegistry.getInstance().acquire(key);
+        if (httpClient == null) {
+            final long idleTimeout = 1000L * Math.max(0, parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.CLIENT_IDLE_TIMEOUT_PARAMETER).getValueAsLong());
+            httpClient = HttpClientRegistry.getInstance().register(key, createHttpClient(parameterRuntime, sslContext), idleTimeout);
+        }
+        
+        return httpClient;
+    }
+
+    
+    /**
+     * Get the redirect policy
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the redirect policy
+     */
+    public HttpClient.Redirect getRedirect(IParameterRuntime parameterRuntime) {
         HttpClient.Redirect redirect = HttpClient.Redirect.NORMAL;
         if (parameterRuntime.existParameter(HttpProcessingUnitConstants.FOLLOW_REDIRECT_PARAMETER)) {
             final String follow = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.FOLLOW_REDIRECT_PARAMETER).getValueAsString();
@@ -85,35 +193,194 @@ public final class HttpProcessingUnitUtil {
             } else if (HttpClient.Redirect.ALWAYS.toString().equalsIgnoreCase(follow)) {
                 redirect = HttpClient.Redirect.ALWAYS;
             }
-        }        
+        }
+        
+        return redirect;
+    }
 
-        if (sslContext != null) {
-            httpClient = HttpClient.newBuilder()
-                    //.authenticator(null)
-                    .connectTimeout(Duration.ofSeconds(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger()))
-                    //.cookieHandler(null)
-                    .followRedirects(redirect)
-                    //.localAddress(null)
-                    //.priority(0)
-                    .sslContext(sslContext)
-                    //.sslParameters(null)
-                    .version(getHttpVersion(parameterRuntime))
-                    .proxy(ProxySelector.getDefault())
-                    .build();
-        } else {
-            httpClient = HttpClient.newBuilder()
-                    //.authenticator(null)
-                    .connectTimeout(Duration.ofSeconds(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger()))
-                    //.cookieHandler(null)
-                    .followRedirects(redirect)
-                    //.localAddress(null)
-                    //.priority(0)
-                    .version(getHttpVersion(parameterRuntime))
-                    .proxy(ProxySelector.getDefault())
-                    .build();
+    
+    /**
+     * Get the executor of the http client. The virtual and shared executors are created once and shared by all
+     * processing units in the JVM, they are never shut down. The bounded shared executor is the default: the own cached 
+     * thread pool of every http client grows without limit under load and its threads are not shared between clients.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the executor or null to use the own executor of the http client
+     * @throws ValidationException In case of a validation error
+     */
+    public Executor getExecutor(IParameterRuntime parameterRuntime) throws ValidationException {
+        String executorStrategy = EXECUTOR_SHARED;
+        if (parameterRuntime.existParameter(HttpProcessingUnitConstants.EXECUTOR_PARAMETER)) {
+            executorStrategy = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.EXECUTOR_PARAMETER).getValueAsString().trim().toLowerCase();
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set executor: [" + executorStrategy + "]");
+        }
+        
+        switch (executorStrategy) {
+            case EXECUTOR_CLIENT:
+                return null;
+            case EXECUTOR_CALLER:
+                return CALLER_EXECUTOR;
+            case EXECUTOR_VIRTUAL:
+                if (virtualThreadExecutor == null) {
+                    synchronized (this) {
+                        if (virtualThreadExecutor == null) {
+                            virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                        }
+                    }
+                }
+                return virtualThreadExecutor;
+            case EXECUTOR_SHARED:
+                int poolSize = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.EXECUTOR_POOL_SIZE_PARAMETER).getValueAsInteger();
+                if (poolSize <= 0) {
+                    poolSize = 2 * Runtime.getRuntime().availableProcessors();
+                }
+                
+                if (sharedExecutor == null) {
+                    synchronized (this) {
+                        if (sharedExecutor == null) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("Create shared executor with [" + poolSize + "] threads.");
+                            }
+                            sharedExecutorPoolSize = poolSize;
+                            sharedExecutor = Executors.newFixedThreadPool(poolSize, new DaemonThreadFactory("http-processing-unit-"));
+                        }
+                    }
+                }
+                
+                if (poolSize != sharedExecutorPoolSize) {
+                    // the size of the shared executor is defined by the first processing unit
+                    LOG.warn("Ignore executor pool size [" + poolSize + "], the shared executor is already created with [" + sharedExecutorPoolSize + "] threads.");
+                }
+                return sharedExecutor;
+            default:
+                throw new ValidationException("Invalid executor [" + executorStrategy + "], supported are: " + EXECUTOR_SHARED + ", " + EXECUTOR_VIRTUAL + ", " + EXECUTOR_CLIENT + ", " + EXECUTOR_CALLER + ".");
         }
+    }
 
-        return httpClient;
+    
+    /**
+     * Create the executor of the lanes. In contrast to the executor of the http client it belongs to the processing unit
+     * and has to be shut down by the processing unit.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the executor or null in case there are no lanes
+     * @throws ValidationException In case of a validation error
+     */
+    public ExecutorService createLaneExecutor(IParameterRuntime parameterRuntime) throws ValidationException {
+        final int numberOfLanes = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.LANES_PARAMETER).getValueAsInteger();
+        if (numberOfLanes <= 1) {
+            return null;
+        }
+        
+        if (parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TARGET_REQUESTS_PER_SECOND_PARAMETER).getValueAsDouble() > 0) {
+            throw new ValidationException("Invalid lanes [" + numberOfLanes + "], lanes can not be combined with a target requests per second.");
+        }
+        
+        final String laneExecutor = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.LANE_EXECUTOR_PARAMETER).getValueAsString().trim().toLowerCase();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Create lane executor: [" + laneExecutor + "] for [" + numberOfLanes + "] lanes");
+        }
+        
+        switch (laneExecutor) {
+            case LANE_EXECUTOR_FORKJOIN:
+                return new ForkJoinPool(numberOfLanes);
+            case EXECUTOR_VIRTUAL:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            default:
+                throw new ValidationException("Invalid lane executor [" + laneExecutor + "], supported are: " + LANE_EXECUTOR_FORKJOIN + ", " + EXECUTOR_VIRTUAL + ".");
+        }
+    }
+
+    
+    /**
+     * Create the response handler
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the initialized response handler or null
+     * @throws ValidationException In case of a validation error
+     */
+    public IHttpResponseHandler createResponseHandler(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_PARAMETER)) {
+            return null;
+        }
+        
+        final String className = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RESPONSE_HANDLER_PARAMETER).getValueAsString().trim();
+        if (className.isEmpty()) {
+            return null;
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Create response handler: [" + className + "]");
+        }
+        
+        final IHttpResponseHandler responseHandler;
+        try {
+            final Class<?> responseHandlerClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            if (!IHttpResponseHandler.class.isAssignableFrom(responseHandlerClass)) {
+                throw new ValidationException("Invalid response handler [" + className + "], it has to implement " + IHttpResponseHandler.class.getName() + ".");
+            }
+            
+            responseHandler = (IHttpResponseHandler)responseHandlerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new ValidationException("Invalid response handler [" + className + "]: " + e.getMessage());
+        }
+        
+        responseHandler.initialize(parameterRuntime);
+        return responseHandler;
+    }
+
+    
+    /**
+     * Check if the response body is streamed to the response handler. A streamed body can be read only once, this is why it 
+     * can not be combined with a cache, retries or a decoding of the content.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return true if the response body is streamed to the response handler
+     * @throws ValidationException In case streaming is combined with a cache, retries, compression or an unsupported response body mode
+     */
+    public boolean isResponseHandlerStreaming(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_STREAMING_PARAMETER)
+                || !parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RESPONSE_HANDLER_STREAMING_PARAMETER).getValueAsBoolean()) {
+            return false;
+        }
+        
+        final String responseBodyMode = getResponseBodyMode(parameterRuntime);
+        if (!RESPONSE_BODY_STRING.equals(responseBodyMode) && !RESPONSE_BODY_BYTES.equals(responseBodyMode)) {
+            throw new ValidationException("Invalid response handler streaming, it is not supported by the response body [" + responseBodyMode + "].");
+        }
+        
+        final boolean retry = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RETRY_AFTER_TIMEOUT_PARAMTER).getValueAsBoolean()
+                && parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.MAX_RETRIES_PARAMETER).getValueAsInteger() > 0;
+        if (isCache(parameterRuntime) || retry || isCompression(parameterRuntime)) {
+            throw new ValidationException("Invalid response handler streaming, it can not be combined with the cache, retries or compression.");
+        }
+        
+        return true;
+    }
+
+    
+    /**
+     * Create the bounded worker pool of the response handler: in case the queue is full the response is handled by the
+     * processing thread, this slows down the calls to the speed of the handler.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the executor, it has to be shut down by the processing unit
+     */
+    public ExecutorService createResponseHandlerExecutor(IParameterRuntime parameterRuntime) {
+        int poolSize = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RESPONSE_HANDLER_POOL_SIZE_PARAMETER).getValueAsInteger();
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Create response handler executor with [" + poolSize + "] threads.");
+        }
+        
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(4 * poolSize), 
+                                      new DaemonThreadFactory("http-response-handler-"), new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     
@@ -126,38 +393,132 @@ public final class HttpProcessingUnitUtil {
      * @throws ValidationException In case of a validation error
      */
     public HttpRequest createHttpRequest(IParameterRuntime parameterRuntime, URI requestUri) throws ValidationException {
-        String requestMethod = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER).getValueAsString().trim();
-        HttpRequest.Builder builder = HttpRequest.newBuilder(requestUri);
-      
-        if (requestMethod.equalsIgnoreCase("GET")) {
-            builder.GET();
-        } else if (requestMethod.equalsIgnoreCase("DELETE")) {
-            builder.DELETE();
-        } else if (requestMethod.equalsIgnoreCase("POST")) {
-            BodyPublisher requestBody = HttpRequest.BodyPublishers.ofString(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER).getValueAsString().trim()); 
-            return builder.POST(requestBody).build();
-            
+        return createHttpRequestTemplate(parameterRuntime, requestUri).getHttpRequest();
+    }
 
-        } else if (requestMethod.equalsIgnoreCase("PUT")) {
-            BodyPublisher requestBody = HttpRequest.BodyPublishers.ofString(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER).getValueAsString().trim()); 
-            builder.PUT(requestBody);
-        } else {
-            BodyPublisher requestBody = HttpRequest.BodyPublishers.ofString(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER).getValueAsString().trim()); 
-            requestMethod = requestMethod.toUpperCase();
-            builder.method(requestMethod, requestBody);
+    
+    /**
+     * Create the request template. It resolves all request parameters once.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @param requestUri the request uri
+     * @return the http request template
+     * @throws ValidationException In case of a validation error
+     */
+    public HttpRequestTemplate createHttpRequestTemplate(IParameterRuntime parameterRuntime, URI requestUri) throws ValidationException {
+        final String requestMethod = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER).getValueAsString().trim();
+        BodyPublisher requestBody = null;
+        if (!requestMethod.equalsIgnoreCase("GET") && !requestMethod.equalsIgnoreCase("DELETE")) {
+            requestBody = createFileBodyPublisher(parameterRuntime);
+            if (requestBody == null) {
+                requestBody = HttpRequest.BodyPublishers.ofString(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER).getValueAsString().trim());
+            }
+        }
+
+        final Duration timeout = Duration.ofSeconds(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger());
+        try {
+            return new HttpRequestTemplate(requestUri, requestMethod, requestBody, getRequestHeaders(parameterRuntime), timeout, getHttpVersion(parameterRuntime));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Could not initialize request: " + e.getMessage(), e);
         }
+    }
+
+    
+    /**
+     * Check if the conditional request cache is enabled
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return true if the cache is enabled
+     */
+    public boolean isCache(IParameterRuntime parameterRuntime) {
+        return parameterRuntime.existParameter(HttpProcessingUnitConstants.CACHE_PARAMETER)
+                && parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.CACHE_PARAMETER).getValueAsBoolean();
+    }
 
-        String[] headers = getRequestHeaders(parameterRuntime);
-        if (headers != null && headers.length > 0) {
-            builder.headers(headers);
+    
+    /**
+     * Create the conditional request cache, in case of a cache file it is read
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the cache or null in case it is not enabled
+     */
+    public HttpResponseCache createResponseCache(IParameterRuntime parameterRuntime) {
+        if (!isCache(parameterRuntime)) {
+            return null;
+        }
+        
+        final long cacheSize = Math.max(1, parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.CACHE_SIZE_PARAMETER).getValueAsLong()) * 1024L * 1024L;
+        final HttpResponseCache responseCache = new HttpResponseCache(cacheSize);
+        final Path cacheFile = getCacheFile(parameterRuntime);
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            try {
+                responseCache.read(cacheFile);
+            } catch (IOException e) {
+                // the cache is only an optimization, an unreadable file is replaced at the end
+                LOG.warn("Could not read cache file [" + cacheFile + "]: " + e.getMessage());
+            }
         }
         
-        Duration duration = Duration.ofSeconds(parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TIMEOUT_PARAMTER).getValueAsInteger());
-        if (duration != null) {
-            builder.timeout(duration);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set response cache " + responseCache);
         }
         
-        return builder.version(getHttpVersion(parameterRuntime)).build();
+        return responseCache;
+    }
+
+    
+    /**
+     * Get the cache file
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the cache file or null
+     */
+    public Path getCacheFile(IParameterRuntime parameterRuntime) {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.CACHE_FILE_PARAMETER)) {
+            return null;
+        }
+        
+        final String cacheFile = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.CACHE_FILE_PARAMETER).getValueAsString().trim();
+        if (cacheFile.isEmpty()) {
+            return null;
+        }
+        
+        return Paths.get(cacheFile);
+    }
+
+    
+    /**
+     * Create the body publisher of the body file, the file is resolved once
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the body publisher or null in case there is no body file
+     * @throws ValidationException In case of a validation error
+     */
+    public BodyPublisher createFileBodyPublisher(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.REQUEST_BODY_FILE_PARAMETER)) {
+            return null;
+        }
+        
+        final String bodyFile = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUEST_BODY_FILE_PARAMETER).getValueAsString().trim();
+        if (bodyFile.isEmpty()) {
+            return null;
+        }
+
+        final Path path = Paths.get(bodyFile);
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new ValidationException("Invalid body file [" + bodyFile + "], it does not exist or is not readable.");
+        }
+        
+        try {
+            final BodyPublisher bodyPublisher = MappedFileBodyPublisher.create(path);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Set request body file [" + path + "] with " + bodyPublisher.contentLength() + " bytes.");
+            }
+            
+            return bodyPublisher;
+        } catch (IOException e) {
+            throw new ValidationException("Could not read body file [" + bodyFile + "]: " + e.getMessage(), e);
+        }
     }
 
     
@@ -276,6 +637,13 @@ public final class HttpProcessingUnitUtil {
             list = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.REQUESTR_HEADER_PARAMETER).getValueAsStringList();
         }
         
+        if (isCompression(parameterRuntime)) {
+            // the JDK http client does not negotiate a compression by itself
+            list = new ArrayList<String>(list);
+            list.add("Accept-Encoding");
+            list.add(HttpContentDecoder.ACCEPT_ENCODING);
+        }
+        
         if (!list.isEmpty()) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Set request headers: " + list);
@@ -285,6 +653,329 @@ public final class HttpProcessingUnitUtil {
     }
 
     
+    /**
+     * Check if a compressed response is accepted
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return true if a compressed response is accepted
+     */
+    public boolean isCompression(IParameterRuntime parameterRuntime) {
+        return parameterRuntime.existParameter(HttpProcessingUnitConstants.COMPRESSION_PARAMETER) 
+                && parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.COMPRESSION_PARAMETER).getValueAsBoolean();
+    }
+
+    
+    /**
+     * Get the response body mode
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the response body mode
+     * @throws ValidationException In case of a validation error
+     */
+    public String getResponseBodyMode(IParameterRuntime parameterRuntime) throws ValidationException {
+        final String responseBodyMode = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER).getValueAsString().trim().toLowerCase();
+        if (!RESPONSE_BODY_STRING.equals(responseBodyMode) && !RESPONSE_BODY_BYTES.equals(responseBodyMode) && !RESPONSE_BODY_DISCARD.equals(responseBodyMode) 
+                && !RESPONSE_BODY_DIGEST.equals(responseBodyMode) && !RESPONSE_BODY_FILE.equals(responseBodyMode)) {
+            throw new ValidationException("Invalid response body [" + responseBodyMode + "], supported are: " 
+                                          + RESPONSE_BODY_STRING + ", " + RESPONSE_BODY_BYTES + ", " + RESPONSE_BODY_DISCARD + ", " + RESPONSE_BODY_DIGEST + ", " + RESPONSE_BODY_FILE + ".");
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set response body: [" + responseBodyMode + "]");
+        }
+        
+        return responseBodyMode;
+    }
+
+    
+    /**
+     * Get the directory of the response body mode file, it is created in case it does not exist. The response body mode 
+     * file can not be combined with the cache: a response which is served from the cache has no file.
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the response body directory
+     * @throws ValidationException In case the directory is not defined or can not be created or the cache is enabled
+     */
+    public Path getResponseBodyDirectory(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (isCache(parameterRuntime)) {
+            throw new ValidationException("Invalid response body " + RESPONSE_BODY_FILE + ", it can not be combined with the cache.");
+        }
+        
+        String responseBodyDirectory = "";
+        if (parameterRuntime.existParameter(HttpProcessingUnitConstants.RESPONSE_BODY_DIRECTORY_PARAMETER)) {
+            responseBodyDirectory = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RESPONSE_BODY_DIRECTORY_PARAMETER).getValueAsString().trim();
+        }
+        
+        if (responseBodyDirectory.isEmpty()) {
+            throw new ValidationException("Missing response body directory, it is required by the response body " + RESPONSE_BODY_FILE + ".");
+        }
+        
+        final Path path = Paths.get(responseBodyDirectory);
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new ValidationException("Invalid response body directory [" + path + "]: " + e.getMessage());
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set response body directory: [" + path + "]");
+        }
+        
+        return path;
+    }
+
+    
+    /**
+     * Get the request method of the warm-up probes
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the request method
+     * @throws ValidationException In case of a validation error
+     */
+    public String getWarmUpMethod(IParameterRuntime parameterRuntime) throws ValidationException {
+        final String warmUpMethod = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.WARM_UP_METHOD_PARAMETER).getValueAsString().trim().toUpperCase();
+        if (!"HEAD".equals(warmUpMethod) && !"OPTIONS".equals(warmUpMethod) && !"GET".equals(warmUpMethod)) {
+            throw new ValidationException("Invalid warm-up method [" + warmUpMethod + "], supported are: HEAD, OPTIONS, GET.");
+        }
+        
+        return warmUpMethod;
+    }
+
+    
+    /**
+     * Get the digest algorithm
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the digest algorithm
+     * @throws ValidationException In case of a validation error
+     */
+    public String getDigestAlgorithm(IParameterRuntime parameterRuntime) throws ValidationException {
+        final String digestAlgorithm = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.DIGEST_ALGORITHM_PARAMETER).getValueAsString().trim();
+        if (!HttpResponseBodySubscriber.DIGEST_CRC32C.equalsIgnoreCase(digestAlgorithm)) {
+            try {
+                MessageDigest.getInstance(digestAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new ValidationException("Invalid digest algorithm [" + digestAlgorithm + "]: " + e.getMessage(), e);
+            }
+        }
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set digest algorithm: [" + digestAlgorithm + "]");
+        }
+        
+        return digestAlgorithm;
+    }
+
+    
+    /**
+     * Create the result store
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the result store
+     * @throws ValidationException In case of a validation error
+     */
+    public IHttpResultStore createResultStore(IParameterRuntime parameterRuntime) throws ValidationException {
+        final String persistence = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_PARAMETER).getValueAsString().trim().toLowerCase();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set persistence: [" + persistence + "]");
+        }
+        
+        if (PERSISTENCE_MEMORY.equals(persistence)) {
+            final String compression = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_COMPRESSION_PARAMETER).getValueAsString().trim().toLowerCase();
+            if (!PERSISTENCE_COMPRESSION_NONE.equals(compression) && !PERSISTENCE_COMPRESSION_DEFLATE.equals(compression)) {
+                throw new ValidationException("Invalid persistence compression [" + compression + "], supported are: " + PERSISTENCE_COMPRESSION_NONE + ", " + PERSISTENCE_COMPRESSION_DEFLATE + ".");
+            }
+            
+            return new MemoryHttpResultStore(PERSISTENCE_COMPRESSION_DEFLATE.equals(compression), 
+                                             parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_DEDUPLICATION_PARAMETER).getValueAsBoolean());
+        } else if (PERSISTENCE_SEGMENT.equals(persistence)) {
+            String directory = "";
+            if (parameterRuntime.existParameter(HttpProcessingUnitConstants.PERSISTENCE_DIRECTORY_PARAMETER)) {
+                directory = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_DIRECTORY_PARAMETER).getValueAsString().trim();
+            }
+            
+            return new SegmentHttpResultStore(directory, 
+                                              parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_MEMORY_HEAD_SIZE_PARAMETER).getValueAsInteger(), 
+                                              parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.PERSISTENCE_SEGMENT_SIZE_PARAMETER).getValueAsInteger());
+        }
+        
+        throw new ValidationException("Invalid persistence [" + persistence + "], supported are: " + PERSISTENCE_MEMORY + ", " + PERSISTENCE_SEGMENT + ".");
+    }
+
+    
+    /**
+     * Create the endpoint balancer
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the endpoint balancer or null in case there are no endpoints
+     * @throws ValidationException In case of a validation error
+     */
+    public HttpEndpointBalancer createEndpointBalancer(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.ENDPOINT_PARAMETER)) {
+            return null;
+        }
+
+        final List<HttpEndpointBalancer.Endpoint> endpointList = new ArrayList<HttpEndpointBalancer.Endpoint>();
+        for (String endpoint : parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.ENDPOINT_PARAMETER).getValueAsStringList()) {
+            if (endpoint == null || endpoint.isBlank()) {
+                continue;
+            }
+            
+            String url = endpoint.trim();
+            int weight = 1;
+            final int idx = url.lastIndexOf('|');
+            try {
+                if (idx >= 0) {
+                    weight = Integer.parseInt(url.substring(idx + 1).trim());
+                    url = url.substring(0, idx).trim();
+                }
+                
+                endpointList.add(new HttpEndpointBalancer.Endpoint(URI.create(url), weight));
+            } catch (RuntimeException e) {
+                throw new ValidationException("Invalid endpoint [" + endpoint.trim() + "]: " + e.getMessage(), e);
+            }
+        }
+
+        if (endpointList.isEmpty()) {
+            return null;
+        }
+        
+        final String strategy = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.ENDPOINT_BALANCING_PARAMETER).getValueAsString().trim().toLowerCase();
+        if (!HttpEndpointBalancer.ROUND_ROBIN.equals(strategy) && !HttpEndpointBalancer.WEIGHTED.equals(strategy) && !HttpEndpointBalancer.LEAST_OUTSTANDING.equals(strategy)) {
+            throw new ValidationException("Invalid endpoint balancing [" + strategy + "], supported are: " 
+                                          + HttpEndpointBalancer.ROUND_ROBIN + ", " + HttpEndpointBalancer.WEIGHTED + ", " + HttpEndpointBalancer.LEAST_OUTSTANDING + ".");
+        }
+        
+        final int failureThreshold = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.ENDPOINT_FAILURE_THRESHOLD_PARAMETER).getValueAsInteger();
+        final long ejectionTime = 1000L * parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.ENDPOINT_EJECTION_TIME_PARAMETER).getValueAsLong();
+        final HttpEndpointBalancer endpointBalancer = new HttpEndpointBalancer(endpointList, strategy, failureThreshold, ejectionTime);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set " + endpointBalancer);
+        }
+        
+        return endpointBalancer;
+    }
+
+    
+    /**
+     * Create the retry policy
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the retry policy
+     * @throws ValidationException In case of a validation error
+     */
+    public HttpRetryPolicy createRetryPolicy(IParameterRuntime parameterRuntime) throws ValidationException {
+        int maxRetries = 0;
+        if (parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RETRY_AFTER_TIMEOUT_PARAMTER).getValueAsBoolean()) {
+            maxRetries = Math.max(0, parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.MAX_RETRIES_PARAMETER).getValueAsInteger());
+        }
+        
+        final List<Integer> statusCodeList = new ArrayList<Integer>();
+        final String retryStatusCodes = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.RETRY_STATUS_CODES_PARAMETER).getValueAsString();
+        if (retryStatusCodes != null) {
+            for (String statusCode : retryStatusCodes.split(",")) {
+                if (!statusCode.isBlank()) {
+                    try {
+                        statusCodeList.add(Integer.valueOf(statusCode.trim()));
+                    } catch (NumberFormatException e) {
+                        throw new ValidationException("Invalid retry status code [" + statusCode.trim() + "]!");
+                    }
+                }
+            }
+        }
+        
+        final long baseDelay = 1000L * Math.max(0, parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.SLEEPTIME_BEFORE_RETRY_PARAMTER).getValueAsLong());
+        final long maxDelay = 1000L * Math.max(0, parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.MAX_RETRY_DELAY_PARAMETER).getValueAsLong());
+        final HttpRetryPolicy retryPolicy = new HttpRetryPolicy(maxRetries, statusCodeList.stream().mapToInt(Integer::intValue).toArray(), baseDelay, maxDelay);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Set " + retryPolicy);
+        }
+        
+        return retryPolicy;
+    }
+
+    
+    /**
+     * Create the request source of the input file
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the request source or null in case there is no input file
+     * @throws ValidationException In case of a validation error
+     */
+    public InputFileRequestSource createRequestSource(IParameterRuntime parameterRuntime) throws ValidationException {
+        if (!parameterRuntime.existParameter(HttpProcessingUnitConstants.INPUT_FILE_PARAMETER)) {
+            return null;
+        }
+        
+        final String inputFile = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.INPUT_FILE_PARAMETER).getValueAsString();
+        if (inputFile == null || inputFile.isBlank()) {
+            return null;
+        }
+
+        final Path inputFilePath = Paths.get(inputFile.trim());
+        if (!Files.isReadable(inputFilePath)) {
+            throw new ValidationException("Invalid input file [" + inputFilePath + "], it is not readable!");
+        }
+        
+        String inputFormat = null;
+        if (parameterRuntime.existParameter(HttpProcessingUnitConstants.INPUT_FORMAT_PARAMETER)) {
+            inputFormat = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.INPUT_FORMAT_PARAMETER).getValueAsString();
+        }
+        
+        if (inputFormat == null || inputFormat.isBlank()) {
+            final String fileName = inputFilePath.getFileName().toString().toLowerCase();
+            inputFormat = fileName.endsWith("." + InputFileRequestSource.FORMAT_CSV) ? InputFileRequestSource.FORMAT_CSV : InputFileRequestSource.FORMAT_JSONL;
+        }
+
+        inputFormat = inputFormat.trim().toLowerCase();
+        if (!InputFileRequestSource.FORMAT_CSV.equals(inputFormat) && !InputFileRequestSource.FORMAT_JSONL.equals(inputFormat)) {
+            throw new ValidationException("Invalid input format [" + inputFormat + "], supported are: " + InputFileRequestSource.FORMAT_CSV + ", " + InputFileRequestSource.FORMAT_JSONL + ".");
+        }
+        
+        try {
+            final InputFileRequestSource requestSource = new InputFileRequestSource(inputFilePath, inputFormat);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Set " + requestSource);
+            }
+            return requestSource;
+        } catch (IOException e) {
+            throw new ValidationException("Could not read input file [" + inputFilePath + "]: " + e.getMessage(), e);
+        }
+    }
+
+    
+    /**
+     * Get the charset of the content type header
+     *
+     * @param headers the response headers
+     * @return the charset, by default UTF-8
+     */
+    public Charset getCharset(HttpHeaders headers) {
+        final String contentType = headers.firstValue("Content-Type").orElse(null);
+        if (contentType != null) {
+            final int idx = contentType.toLowerCase().indexOf("charset=");
+            if (idx >= 0) {
+                String charset = contentType.substring(idx + "charset=".length());
+                final int end = charset.indexOf(';');
+                if (end >= 0) {
+                    charset = charset.substring(0, end);
+                }
+                
+                charset = charset.trim().replace("\"", "");
+                try {
+                    return Charset.forName(charset);
+                } catch (RuntimeException e) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Unsupported charset [" + charset + "], use UTF-8: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        
+        return StandardCharsets.UTF_8;
+    }
+
+    
     /**
      * Get the ssl context
      *
@@ -293,27 +984,50 @@ public final class HttpProcessingUnitUtil {
      * @throws ValidationException In case of a validation error
      */
     public SSLContext getSSLContext(IParameterRuntime parameterRuntime) throws ValidationException {
+        // the ssl contexts are cached by the verify flag, the fingerprint of the trust certificate and the secure random
+        final boolean verifyCertificate = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.VERIFY_CERTIFICATE_PARAMETER).getValueAsBoolean();
+        String trustCertificate = null;
+        if (verifyCertificate && parameterRuntime.existParameter(HttpProcessingUnitConstants.TRUST_CERTIFICATE_PARAMETER)) {
+            trustCertificate = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TRUST_CERTIFICATE_PARAMETER).getValueAsString();
+        }
+        
+        final String trustCertificateFingerprint = getFingerprint(trustCertificate);
+        final String secureRandom = getSecureRandom(parameterRuntime);
+        final String key = verifyCertificate + "|" + trustCertificateFingerprint + "|" + secureRandom;
+        final SSLContext cachedSslContext = sslContextCache.get(key);
+        if (cachedSslContext != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Reuse SSL context [" + key + "].");
+            }
+            return cachedSslContext;
+        }
+        
         SSLContext sslContext = null;
         try {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Initialize SSL context.");
+                LOG.debug("Initialize SSL context [" + key + "].");
             }
             
             sslContext = SSLContext.getInstance("TLS");
             
             TrustManager[] trustManager = null;
-            if (!parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.VERIFY_CERTIFICATE_PARAMETER).getValueAsBoolean()) {
+            if (!verifyCertificate) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Trust all certificates.");
                 }
                 trustManager = KeyStoreUtil.getInstance().getTrustAllCertificateManager(); 
             } else {
-                if (parameterRuntime.existParameter(HttpProcessingUnitConstants.TRUST_CERTIFICATE_PARAMETER)) {
+                if (trustCertificate != null) {
                     try {
                         if (LOG.isDebugEnabled()) {
                             LOG.debug("Use known trust certificates and added own certificate.");
                         }
-                        trustManager = PKIConfigurationUtil.getInstance().getTrustManagers("alias", parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.TRUST_CERTIFICATE_PARAMETER).getValueAsString());
+                        
+                        trustManager = trustManagerCache.get(trustCertificateFingerprint);
+                        if (trustManager == null) {
+                            trustManager = PKIConfigurationUtil.getInstance().getTrustManagers("alias", trustCertificate);
+                            trustManagerCache.put(trustCertificateFingerprint, trustManager);
+                        }
                     } catch (GeneralSecurityException e) {
                         LOG.warn("Could not initialize trust certificate: " + e.getMessage(), e);
                         throw ExceptionWrapper.getInstance().convertException(e, ValidationException.class);
@@ -324,7 +1038,12 @@ public final class HttpProcessingUnitUtil {
                     }
                 }
             }
-            sslContext.init(null, trustManager, SecureRandom.getInstanceStrong()); 
+            
+            if (SECURE_RANDOM_STRONG.equals(secureRandom)) {
+                sslContext.init(null, trustManager, SecureRandom.getInstanceStrong());
+            } else {
+                sslContext.init(null, trustManager, new SecureRandom());
+            }
         } catch (NoSuchAlgorithmException | KeyManagementException e) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Could not initialize ssl context: " + e.getMessage(), e);
@@ -333,6 +1052,86 @@ public final class HttpProcessingUnitUtil {
             throw new ValidationException("Could not initialize ssl context: " + e.getMessage(), e);
         }
         
+        final SSLContext registeredSslContext = sslContextCache.putIfAbsent(key, sslContext);
+        if (registeredSslContext != null) {
+            return registeredSslContext;
+        }
         return sslContext;
     }
+
+    
+    /**
+     * Get the secure random of the ssl context
+     *
+     * @param parameterRuntime the parameter runtime
+     * @return the secure random
+     * @throws ValidationException In case of a validation error
+     */
+    public String getSecureRandom(IParameterRuntime parameterRuntime) throws ValidationException {
+        String secureRandom = SECURE_RANDOM_DEFAULT;
+        if (parameterRuntime.existParameter(HttpProcessingUnitConstants.SECURE_RANDOM_PARAMETER)) {
+            secureRandom = parameterRuntime.getParameterValueList(HttpProcessingUnitConstants.SECURE_RANDOM_PARAMETER).getValueAsString().trim().toLowerCase();
+        }
+        
+        if (!SECURE_RANDOM_DEFAULT.equals(secureRandom) && !SECURE_RANDOM_STRONG.equals(secureRandom)) {
+            throw new ValidationException("Invalid secure random [" + secureRandom + "], supported are: " + SECURE_RANDOM_DEFAULT + ", " + SECURE_RANDOM_STRONG + ".");
+        }
+        
+        return secureRandom;
+    }
+
+    
+    /**
+     * Get the SHA-256 fingerprint of a certificate, whitespaces are ignored
+     *
+     * @param certificate the certificate or null
+     * @return the fingerprint or an empty string
+     */
+    public String getFingerprint(String certificate) {
+        if (certificate == null || certificate.isBlank()) {
+            return "";
+        }
+        
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(certificate.replaceAll("\\s", "").getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is always supported
+            return certificate;
+        }
+    }
+
+
+    
+    /**
+     * Creates named daemon threads, they should not prevent the JVM from shutting down.
+     *
+     * @author patrick
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCounter;
+        private final String prefix;
+
+        
+        /**
+         * Constructor for DaemonThreadFactory
+         *
+         * @param prefix the thread name prefix
+         */
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+            this.threadCounter = new AtomicInteger(0);
+        }
+
+        
+        /**
+         * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+         */
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
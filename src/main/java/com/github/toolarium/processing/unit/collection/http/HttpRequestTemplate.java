@@ -0,0 +1,181 @@
+/*
+ * HttpRequestTemplate.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.time.Duration;
+import java.util.Arrays;
+
+
+/**
+ * Defines an immutable http request template. All values are resolved once, the prebuilt {@link HttpRequest} 
+ * is immutable as well and can be sent any number of times.
+ * 
+ * @author patrick
+ */
+public final class HttpRequestTemplate {
+    private final URI requestUri;
+    private final String requestMethod;
+    private final BodyPublisher requestBody;
+    private final String[] headers;
+    private final Duration timeout;
+    private final HttpClient.Version httpVersion;
+    private final HttpRequest httpRequest;
+
+    
+    /**
+     * Constructor for HttpRequestTemplate
+     *
+     * @param requestUri the request uri
+     * @param requestMethod the request method
+     * @param requestBody the request body publisher, it is ignored in case of GET and DELETE
+     * @param headers the headers as name value pairs or null
+     * @param timeout the timeout or null
+     * @param httpVersion the http version
+     */
+    public HttpRequestTemplate(URI requestUri, String requestMethod, BodyPublisher requestBody, String[] headers, Duration timeout, HttpClient.Version httpVersion) {
+        this.requestUri = requestUri;
+        this.requestMethod = requestMethod.trim().toUpperCase();
+        this.requestBody = requestBody;
+        if (headers != null) {
+            this.headers = headers.clone();
+        } else {
+            this.headers = new String[0];
+        }
+        this.timeout = timeout;
+        this.httpVersion = httpVersion;
+        this.httpRequest = newHttpRequest(requestUri);
+    }
+
+    
+    /**
+     * Get the prebuilt http request
+     *
+     * @return the http request
+     */
+    public HttpRequest getHttpRequest() {
+        return httpRequest;
+    }
+
+    
+    /**
+     * Create a new http request with the same settings but a different uri
+     *
+     * @param uri the uri
+     * @return the http request
+     */
+    public HttpRequest newHttpRequest(URI uri) {
+        return newHttpRequest(uri, null, null, null);
+    }
+
+    
+    /**
+     * Create a new http request with the same settings but a different uri, method, body and additional headers
+     *
+     * @param uri the uri
+     * @param method the request method or null to take the method of the template
+     * @param body the request body publisher or null to take the body of the template
+     * @param additionalHeaders the additional headers as name value pairs or null
+     * @return the http request
+     */
+    public HttpRequest newHttpRequest(URI uri, String method, BodyPublisher body, String[] additionalHeaders) {
+        final String method0 = (method != null) ? method.trim().toUpperCase() : requestMethod;
+        BodyPublisher body0 = (body != null) ? body : requestBody;
+        if (body0 == null) {
+            body0 = HttpRequest.BodyPublishers.noBody();
+        }
+        
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if ("GET".equals(method0) && body == null) {
+            builder.GET();
+        } else if ("DELETE".equals(method0) && body == null) {
+            builder.DELETE();
+        } else if ("POST".equals(method0)) {
+            builder.POST(body0);
+        } else if ("PUT".equals(method0)) {
+            builder.PUT(body0);
+        } else {
+            builder.method(method0, body0);
+        }
+
+        if (headers.length > 0) {
+            builder.headers(headers);
+        }
+
+        if (additionalHeaders != null && additionalHeaders.length > 0) {
+            builder.headers(additionalHeaders);
+        }
+        
+        if (timeout != null) {
+            builder.timeout(timeout);
+        }
+        
+        return builder.version(httpVersion).build();
+    }
+
+    
+    /**
+     * Get the request uri
+     *
+     * @return the request uri
+     */
+    public URI getRequestUri() {
+        return requestUri;
+    }
+
+    
+    /**
+     * Get the request method
+     *
+     * @return the request method
+     */
+    public String getRequestMethod() {
+        return requestMethod;
+    }
+
+    
+    /**
+     * Get the request headers
+     *
+     * @return the request headers
+     */
+    public String[] getHeaders() {
+        return headers.clone();
+    }
+
+    
+    /**
+     * Get the timeout
+     *
+     * @return the timeout
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    
+    /**
+     * Get the http version
+     *
+     * @return the http version
+     */
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "HttpRequestTemplate [requestUri=" + requestUri + ", requestMethod=" + requestMethod + ", headers=" + Arrays.toString(headers) 
+               + ", timeout=" + timeout + ", httpVersion=" + httpVersion + "]";
+    }
+}
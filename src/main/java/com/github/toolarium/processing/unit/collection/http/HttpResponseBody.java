@@ -0,0 +1,163 @@
+/*
+ * HttpResponseBody.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Defines the response body which is read by the {@link HttpResponseBodySubscriber}.
+ * 
+ * @author patrick
+ */
+public final class HttpResponseBody {
+    private static final byte[] EMPTY = new byte[0];
+    private final byte[] content;
+    private final long receivedBytes;
+    private final long decodedBytes;
+    private final boolean truncated;
+    private final byte[] digest;
+    private final Path file;
+    private final InputStream stream;
+
+    
+    /**
+     * Constructor for HttpResponseBody of a body which is not yet received: it is streamed, the number of bytes is unknown
+     *
+     * @param stream the stream of the body
+     */
+    public HttpResponseBody(InputStream stream) {
+        this.content = EMPTY;
+        this.receivedBytes = 0;
+        this.decodedBytes = 0;
+        this.truncated = false;
+        this.digest = null;
+        this.file = null;
+        this.stream = stream;
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBody
+     *
+     * @param content the kept content or null
+     * @param receivedBytes the number of received bytes
+     * @param truncated true if the content was truncated
+     * @param digest the digest of the body or null
+     */
+    public HttpResponseBody(byte[] content, long receivedBytes, boolean truncated, byte[] digest) {
+        this(content, receivedBytes, receivedBytes, truncated, digest);
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBody
+     *
+     * @param content the kept content or null
+     * @param receivedBytes the number of received bytes
+     * @param decodedBytes the number of bytes after the content decoding
+     * @param truncated true if the content was truncated
+     * @param digest the digest of the body or null
+     */
+    public HttpResponseBody(byte[] content, long receivedBytes, long decodedBytes, boolean truncated, byte[] digest) {
+        this(content, receivedBytes, decodedBytes, truncated, digest, null);
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBody
+     *
+     * @param content the kept content or null
+     * @param receivedBytes the number of received bytes
+     * @param decodedBytes the number of bytes after the content decoding
+     * @param truncated true if the content was truncated
+     * @param digest the digest of the body or null
+     * @param file the file into which the body was streamed or null
+     */
+    public HttpResponseBody(byte[] content, long receivedBytes, long decodedBytes, boolean truncated, byte[] digest, Path file) {
+        if (content == null) {
+            this.content = EMPTY;
+        } else {
+            this.content = content;
+        }
+        this.receivedBytes = receivedBytes;
+        this.decodedBytes = decodedBytes;
+        this.truncated = truncated;
+        this.digest = digest;
+        this.file = file;
+        this.stream = null;
+    }
+
+    
+    /**
+     * Get the kept content of the body
+     *
+     * @return the content, it is empty in case the body was discarded
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    
+    /**
+     * Get the number of bytes which are received
+     *
+     * @return the number of received bytes
+     */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    
+    /**
+     * Get the number of bytes after the content decoding, it is the same as the received bytes in case the body was not encoded
+     *
+     * @return the number of decoded bytes
+     */
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    
+    /**
+     * Check if the content was truncated
+     *
+     * @return true if the body was longer than the max body size
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    
+    /**
+     * Get the digest of the whole body
+     *
+     * @return the digest or null in case no digest was calculated
+     */
+    public byte[] getDigest() {
+        return digest;
+    }
+
+    
+    /**
+     * Get the file into which the body was streamed
+     *
+     * @return the file or null in case the body was not streamed into a file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    
+    /**
+     * Get the stream of a body which is read while it is received, it can be read only once
+     *
+     * @return the stream or null in case the body is already received
+     */
+    public InputStream getStream() {
+        return stream;
+    }
+}
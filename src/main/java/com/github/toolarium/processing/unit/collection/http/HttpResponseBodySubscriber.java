@@ -0,0 +1,388 @@
+/*
+ * HttpResponseBodySubscriber.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+import java.util.zip.ZipException;
+
+
+/**
+ * Implements a backpressure aware {@link BodySubscriber} which requests one chunk after the other. It keeps at most 
+ * <code>maxBodySize</code> bytes of the body, the rest is read from the network but not materialized, this keeps the 
+ * connection reusable. In case the body should be discarded only the number of received bytes is counted. Optional a 
+ * digest of the whole body is calculated incrementally while it is streamed. A gzip or deflate encoded body is decoded 
+ * incrementally by a {@link HttpContentDecoder}, the content limit and the digest apply to the decoded content. In case 
+ * of a body directory the whole decoded body is streamed into a new file of the directory instead of being kept in memory, 
+ * the content limit does not apply to the file.
+ * 
+ * @author patrick
+ */
+public class HttpResponseBodySubscriber implements BodySubscriber<HttpResponseBody> {
+    /** The CRC32C digest algorithm */
+    public static final String DIGEST_CRC32C = "CRC32C";
+    private final CompletableFuture<HttpResponseBody> result;
+    private final long maxBodySize;
+    private final boolean discardBody;
+    private final Checksum checksum;
+    private final MessageDigest messageDigest;
+    private final HttpContentDecoder decoder;
+    private final Path bodyDirectory;
+    private ByteArrayOutputStream body;
+    private Path bodyFile;
+    private FileChannel bodyChannel;
+    private Flow.Subscription subscription;
+    private long receivedBytes;
+    private long decodedBytes;
+    private boolean truncated;
+
+    
+    /**
+     * Constructor for HttpResponseBodySubscriber
+     *
+     * @param maxBodySize the max number of bytes to keep, 0 or less means unlimited
+     * @param discardBody true to keep nothing of the body
+     */
+    public HttpResponseBodySubscriber(long maxBodySize, boolean discardBody) {
+        this(maxBodySize, discardBody, null);
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBodySubscriber
+     *
+     * @param maxBodySize the max number of bytes to keep, 0 or less means unlimited
+     * @param discardBody true to keep nothing of the body
+     * @param digestAlgorithm the digest algorithm, e.g. CRC32C or SHA-256, null means no digest
+     * @throws IllegalArgumentException In case of an unsupported digest algorithm
+     */
+    public HttpResponseBodySubscriber(long maxBodySize, boolean discardBody, String digestAlgorithm) {
+        this(maxBodySize, discardBody, digestAlgorithm, null);
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBodySubscriber
+     *
+     * @param maxBodySize the max number of bytes to keep, 0 or less means unlimited
+     * @param discardBody true to keep nothing of the body
+     * @param digestAlgorithm the digest algorithm, e.g. CRC32C or SHA-256, null means no digest
+     * @param contentEncoding the content encoding of the response, gzip and deflate are decoded, null means no decoding
+     * @throws IllegalArgumentException In case of an unsupported digest algorithm
+     */
+    public HttpResponseBodySubscriber(long maxBodySize, boolean discardBody, String digestAlgorithm, String contentEncoding) {
+        this(maxBodySize, discardBody, digestAlgorithm, contentEncoding, null);
+    }
+
+    
+    /**
+     * Constructor for HttpResponseBodySubscriber
+     *
+     * @param maxBodySize the max number of bytes to keep, 0 or less means unlimited
+     * @param discardBody true to keep nothing of the body
+     * @param digestAlgorithm the digest algorithm, e.g. CRC32C or SHA-256, null means no digest
+     * @param contentEncoding the content encoding of the response, gzip and deflate are decoded, null means no decoding
+     * @param bodyDirectory the directory into which the body is streamed, null means the body is kept in memory
+     * @throws IllegalArgumentException In case of an unsupported digest algorithm
+     */
+    public HttpResponseBodySubscriber(long maxBodySize, boolean discardBody, String digestAlgorithm, String contentEncoding, Path bodyDirectory) {
+        this.bodyDirectory = bodyDirectory;
+        this.bodyFile = null;
+        this.bodyChannel = null;
+        this.result = new CompletableFuture<HttpResponseBody>();
+        this.maxBodySize = maxBodySize;
+        this.discardBody = discardBody;
+        this.receivedBytes = 0;
+        this.decodedBytes = 0;
+        this.truncated = false;
+        
+        if (digestAlgorithm == null) {
+            this.checksum = null;
+            this.messageDigest = null;
+        } else if (DIGEST_CRC32C.equalsIgnoreCase(digestAlgorithm)) {
+            this.checksum = new CRC32C();
+            this.messageDigest = null;
+        } else {
+            this.checksum = null;
+            try {
+                this.messageDigest = MessageDigest.getInstance(digestAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Unsupported digest algorithm [" + digestAlgorithm + "]!", e);
+            }
+        }
+        
+        this.decoder = HttpContentDecoder.create(contentEncoding);
+    }
+
+    
+    /**
+     * @see java.util.concurrent.Flow.Subscriber#onSubscribe(java.util.concurrent.Flow.Subscription)
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    
+    /**
+     * @see java.util.concurrent.Flow.Subscriber#onNext(java.lang.Object)
+     */
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        if (result.isDone()) {
+            // the subscription is already cancelled because of an invalid encoded content
+            return;
+        }
+        
+        for (ByteBuffer buffer : item) {
+            receivedBytes += buffer.remaining();
+            if (decoder == null) {
+                consume(buffer);
+            } else {
+                try {
+                    decoder.decode(buffer, this::consume);
+                } catch (ZipException e) {
+                    subscription.cancel();
+                    decoder.end();
+                    deleteBodyFile();
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+            
+            if (result.isDone()) {
+                // the body file could not be written
+                return;
+            }
+        }
+        
+        subscription.request(1);
+    }
+
+    
+    /**
+     * @see java.util.concurrent.Flow.Subscriber#onError(java.lang.Throwable)
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        if (decoder != null) {
+            decoder.end();
+        }
+        
+        deleteBodyFile();
+        result.completeExceptionally(throwable);
+    }
+
+    
+    /**
+     * @see java.util.concurrent.Flow.Subscriber#onComplete()
+     */
+    @Override
+    public void onComplete() {
+        if (decoder != null) {
+            decoder.end();
+            try {
+                decoder.finish();
+            } catch (ZipException e) {
+                deleteBodyFile();
+                result.completeExceptionally(e);
+                return;
+            }
+        }
+        
+        if (result.isDone()) {
+            return;
+        }
+        
+        byte[] content = null;
+        if (body != null) {
+            content = body.toByteArray();
+        }
+        
+        if (bodyDirectory != null) {
+            try {
+                // an empty body results in an empty file
+                openBodyFile();
+                bodyChannel.close();
+            } catch (IOException e) {
+                deleteBodyFile();
+                result.completeExceptionally(e);
+                return;
+            }
+        }
+        
+        result.complete(new HttpResponseBody(content, receivedBytes, decodedBytes, truncated, getDigest(), bodyFile));
+    }
+
+    
+    /**
+     * @see java.net.http.HttpResponse.BodySubscriber#getBody()
+     */
+    @Override
+    public CompletionStage<HttpResponseBody> getBody() {
+        return result;
+    }
+
+    
+    /**
+     * Consume the (decoded) content of a buffer: update the digest and keep the content up to the max body size
+     *
+     * @param buffer the buffer
+     */
+    protected void consume(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        decodedBytes += length;
+        updateDigest(buffer);
+        
+        if (bodyDirectory != null) {
+            writeBodyFile(buffer);
+        } else if (!discardBody && !truncated) {
+            if (body == null) {
+                body = new ByteArrayOutputStream(Math.max(32, length));
+            }
+            
+            if (maxBodySize > 0 && body.size() + length > maxBodySize) {
+                length = (int)(maxBodySize - body.size());
+                truncated = true;
+            }
+            
+            write(buffer, length);
+        }
+    }
+
+    
+    /**
+     * Write the given number of bytes of the buffer into the body
+     *
+     * @param buffer the buffer
+     * @param length the number of bytes to write
+     */
+    protected void write(ByteBuffer buffer, int length) {
+        if (length <= 0) {
+            return;
+        }
+        
+        if (buffer.hasArray()) {
+            body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        } else {
+            byte[] content = new byte[length];
+            buffer.get(content);
+            body.write(content, 0, length);
+        }
+    }
+
+    
+    /**
+     * Write the buffer into the body file, the position of the buffer is not changed. In case of an error the
+     * subscription is cancelled and the body completes exceptionally.
+     *
+     * @param buffer the buffer
+     */
+    protected void writeBodyFile(ByteBuffer buffer) {
+        if (result.isDone()) {
+            return;
+        }
+        
+        try {
+            openBodyFile();
+            final ByteBuffer content = buffer.duplicate();
+            while (content.hasRemaining()) {
+                bodyChannel.write(content);
+            }
+        } catch (IOException e) {
+            subscription.cancel();
+            deleteBodyFile();
+            result.completeExceptionally(e);
+        }
+    }
+
+    
+    /**
+     * Create the body file in case it does not already exist
+     *
+     * @throws IOException In case the file can not be created
+     */
+    private void openBodyFile() throws IOException {
+        if (bodyChannel == null) {
+            bodyFile = Files.createTempFile(bodyDirectory, "response-", ".body");
+            bodyChannel = FileChannel.open(bodyFile, StandardOpenOption.WRITE);
+        }
+    }
+
+    
+    /**
+     * Close and delete the body file of an incomplete body
+     */
+    private void deleteBodyFile() {
+        if (bodyChannel == null) {
+            return;
+        }
+        
+        try {
+            bodyChannel.close();
+            Files.deleteIfExists(bodyFile);
+        } catch (IOException e) {
+            // the file is left, the response failed anyway
+        }
+        bodyFile = null;
+    }
+
+    
+    /**
+     * Update the digest, the position of the buffer is not changed
+     *
+     * @param buffer the buffer
+     */
+    protected void updateDigest(ByteBuffer buffer) {
+        if (checksum == null && messageDigest == null) {
+            return;
+        }
+        
+        final int position = buffer.position();
+        if (checksum != null) {
+            checksum.update(buffer);
+        } else {
+            messageDigest.update(buffer);
+        }
+        buffer.position(position);
+    }
+
+    
+    /**
+     * Get the digest
+     *
+     * @return the digest or null
+     */
+    protected byte[] getDigest() {
+        if (checksum != null) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt((int)checksum.getValue()).array();
+        } else if (messageDigest != null) {
+            return messageDigest.digest();
+        }
+        
+        return null;
+    }
+}
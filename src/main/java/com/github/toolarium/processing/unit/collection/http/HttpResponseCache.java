@@ -0,0 +1,586 @@
+/*
+ * HttpResponseCache.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.net.ssl.SSLSession;
+
+
+/**
+ * Implements a conditional request cache of GET requests: the validators (ETag and Last-Modified), the body, its length 
+ * and digest of a successful response are kept in a LRU cache which is bounded by the size of the bodies. A cached request is sent with
+ * If-None-Match and If-Modified-Since, in case of a 304 response the body is served from the cache. The Vary header
+ * is not considered, the cache key is the uri of the request. In case the body is discarded or only its digest is kept, 
+ * the length and the digest of the body are served from the cache. Optional the cache is written to a file in a compact
+ * binary format and read again by the next run.
+ *
+ * @author patrick
+ */
+public class HttpResponseCache {
+    private static final int FORMAT_VERSION = 2;
+    private static final int ENTRY_OVERHEAD = 128;
+    private final LinkedHashMap<String, Entry> cache;
+    private final long maxSize;
+    private final AtomicLong numberOfHits;
+    private final AtomicLong numberOfMisses;
+    private final AtomicLong numberOfRevalidations;
+    private long size;
+
+
+    /**
+     * Constructor for HttpResponseCache
+     *
+     * @param maxSize the max size of the cache in bytes
+     */
+    public HttpResponseCache(long maxSize) {
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        this.maxSize = maxSize;
+        this.numberOfHits = new AtomicLong();
+        this.numberOfMisses = new AtomicLong();
+        this.numberOfRevalidations = new AtomicLong();
+        this.size = 0;
+    }
+
+
+    /**
+     * Send a request through the cache: a GET request of a cached resource is sent conditional, a 304 response is served
+     * from the cache and a successful response with a validator is cached.
+     *
+     * @param httpRequest the request
+     * @param sender the sender of the request
+     * @return the future of the response
+     */
+    public CompletableFuture<HttpResponse<HttpResponseBody>> sendAsync(HttpRequest httpRequest, Function<HttpRequest, CompletableFuture<HttpResponse<HttpResponseBody>>> sender) {
+        if (!"GET".equals(httpRequest.method())) {
+            return sender.apply(httpRequest);
+        }
+
+        final String key = httpRequest.uri().toString();
+        final Entry entry = get(key);
+        if (entry == null) {
+            numberOfMisses.incrementAndGet();
+            final CompletableFuture<HttpResponse<HttpResponseBody>> future = sender.apply(httpRequest);
+            return HttpCall.propagateCancel(future, future.thenApply(response -> update(key, null, response)));
+        }
+
+        // the request is copied with the validators of the cached response
+        numberOfRevalidations.incrementAndGet();
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(httpRequest, (name, value) -> true);
+        if (entry.getEntityTag() != null) {
+            builder.setHeader("If-None-Match", entry.getEntityTag());
+        }
+
+        if (entry.getLastModified() != null) {
+            builder.setHeader("If-Modified-Since", entry.getLastModified());
+        }
+
+        final CompletableFuture<HttpResponse<HttpResponseBody>> future = sender.apply(builder.build());
+        return HttpCall.propagateCancel(future, future.thenApply(response -> update(key, entry, response)));
+    }
+
+
+    /**
+     * Get a cached entry, it is marked as the most recently used
+     *
+     * @param key the key
+     * @return the entry or null
+     */
+    public synchronized Entry get(String key) {
+        return cache.get(key);
+    }
+
+
+    /**
+     * Put an entry into the cache, the least recently used entries are evicted until it fits. An entry which is larger
+     * than the cache is not kept.
+     *
+     * @param key the key
+     * @param entry the entry
+     */
+    public synchronized void put(String key, Entry entry) {
+        final Entry previousEntry = cache.remove(key);
+        if (previousEntry != null) {
+            size -= previousEntry.getSize(key);
+        }
+
+        final long entrySize = entry.getSize(key);
+        if (entrySize > maxSize) {
+            return;
+        }
+
+        final Iterator<Map.Entry<String, Entry>> it = cache.entrySet().iterator();
+        while (size + entrySize > maxSize && it.hasNext()) {
+            final Map.Entry<String, Entry> eldest = it.next();
+            size -= eldest.getValue().getSize(eldest.getKey());
+            it.remove();
+        }
+
+        cache.put(key, entry);
+        size += entrySize;
+    }
+
+
+    /**
+     * Get the number of cached entries
+     *
+     * @return the number of cached entries
+     */
+    public synchronized int getNumberOfEntries() {
+        return cache.size();
+    }
+
+
+    /**
+     * Get the size of the cache in bytes
+     *
+     * @return the size of the cache
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+
+    /**
+     * Get the number of responses which are served from the cache
+     *
+     * @return the number of hits
+     */
+    public long getNumberOfHits() {
+        return numberOfHits.get();
+    }
+
+
+    /**
+     * Get the number of requests of resources which are not cached
+     *
+     * @return the number of misses
+     */
+    public long getNumberOfMisses() {
+        return numberOfMisses.get();
+    }
+
+
+    /**
+     * Get the number of conditional requests of cached resources, they are either a hit or the resource has changed
+     *
+     * @return the number of revalidations
+     */
+    public long getNumberOfRevalidations() {
+        return numberOfRevalidations.get();
+    }
+
+
+    /**
+     * Write the cache into a file, the least recently used entry first. The file is replaced atomically.
+     *
+     * @param file the file
+     * @throws IOException In case of an I/O error
+     */
+    public synchronized void write(Path file) throws IOException {
+        final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(cache.size());
+            for (Map.Entry<String, Entry> e : cache.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeString(out, e.getValue().getEntityTag());
+                writeString(out, e.getValue().getLastModified());
+                writeBytes(out, e.getValue().getContent());
+                writeBytes(out, e.getValue().getDigest());
+                out.writeLong(e.getValue().getLength());
+            }
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Read the cache from a file, the entries are added to the cache
+     *
+     * @param file the file
+     * @throws IOException In case of an I/O error or an invalid file
+     */
+    public void read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new StreamCorruptedException("Unsupported cache format version " + version + "!");
+            }
+
+            final int numberOfEntries = in.readInt();
+            for (int i = 0; i < numberOfEntries; i++) {
+                final String key = in.readUTF();
+                final String entityTag = readString(in);
+                final String lastModified = readString(in);
+                final byte[] content = readBytes(in);
+                final byte[] digest = readBytes(in);
+                put(key, new Entry(entityTag, lastModified, content, digest, in.readLong()));
+            }
+        }
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+        return "HttpResponseCache [entries=" + cache.size() + ", size=" + size + ", maxSize=" + maxSize + ", hits=" + numberOfHits.get()
+               + ", misses=" + numberOfMisses.get() + ", revalidations=" + numberOfRevalidations.get() + "]";
+    }
+
+
+    /**
+     * Update the cache by the response
+     *
+     * @param key the key
+     * @param entry the cached entry or null
+     * @param response the response
+     * @return the response or in case of a 304 the response with the cached body
+     */
+    protected HttpResponse<HttpResponseBody> update(String key, Entry entry, HttpResponse<HttpResponseBody> response) {
+        if (entry != null && response.statusCode() == 304) {
+            numberOfHits.incrementAndGet();
+
+            // a 304 response can refresh the validators
+            final String entityTag = response.headers().firstValue("ETag").orElse(entry.getEntityTag());
+            final String lastModified = response.headers().firstValue("Last-Modified").orElse(entry.getLastModified());
+            Entry cachedEntry = entry;
+            if (!isEqual(entityTag, entry.getEntityTag()) || !isEqual(lastModified, entry.getLastModified())) {
+                cachedEntry = new Entry(entityTag, lastModified, entry.getContent(), entry.getDigest(), entry.getLength());
+                put(key, cachedEntry);
+            }
+
+            return new CachedHttpResponse(response, new HttpResponseBody(cachedEntry.getContent(), 0, cachedEntry.getLength(), false, cachedEntry.getDigest()));
+        }
+
+        if (response.statusCode() == 200 && !response.body().isTruncated() && !isNoStore(response.headers())) {
+            final String entityTag = response.headers().firstValue("ETag").orElse(null);
+            final String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            if (entityTag != null || lastModified != null) {
+                // the content is empty in case the body is discarded, the length is the decoded length of the body
+                put(key, new Entry(entityTag, lastModified, response.body().getContent(), response.body().getDigest(), response.body().getDecodedBytes()));
+            }
+        }
+
+        return response;
+    }
+
+
+    /**
+     * Check if the response must not be stored
+     *
+     * @param headers the response headers
+     * @return true if the response must not be stored
+     */
+    private boolean isNoStore(HttpHeaders headers) {
+        for (String value : headers.allValues("Cache-Control")) {
+            if (value.toLowerCase().contains("no-store")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Compare two nullable strings
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return true if they are equal
+     */
+    private static boolean isEqual(String a, String b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+
+    /**
+     * Write a nullable string
+     *
+     * @param out the output
+     * @param value the value or null
+     * @throws IOException In case of an I/O error
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+
+    /**
+     * Read a nullable string
+     *
+     * @param in the input
+     * @return the value or null
+     * @throws IOException In case of an I/O error
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        return in.readUTF();
+    }
+
+
+    /**
+     * Write nullable bytes
+     *
+     * @param out the output
+     * @param value the value or null
+     * @throws IOException In case of an I/O error
+     */
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+
+    /**
+     * Read nullable bytes
+     *
+     * @param in the input
+     * @return the value or null
+     * @throws IOException In case of an I/O error
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+
+    /**
+     * Defines a cached response: the validators, the kept content, the length and the digest of the body
+     */
+    public static final class Entry {
+        private final String entityTag;
+        private final String lastModified;
+        private final byte[] content;
+        private final byte[] digest;
+        private final long length;
+
+
+        /**
+         * Constructor for Entry
+         *
+         * @param entityTag the entity tag or null
+         * @param lastModified the last modified date or null
+         * @param content the content
+         * @param digest the digest or null
+         */
+        public Entry(String entityTag, String lastModified, byte[] content, byte[] digest) {
+            this(entityTag, lastModified, content, digest, (content != null) ? content.length : 0);
+        }
+
+
+        /**
+         * Constructor for Entry
+         *
+         * @param entityTag the entity tag or null
+         * @param lastModified the last modified date or null
+         * @param content the content, it is empty in case the body is discarded
+         * @param digest the digest or null
+         * @param length the decoded length of the body
+         */
+        public Entry(String entityTag, String lastModified, byte[] content, byte[] digest, long length) {
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.content = (content != null) ? content : new byte[0];
+            this.digest = digest;
+            this.length = length;
+        }
+
+
+        /**
+         * Get the entity tag
+         *
+         * @return the entity tag or null
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+
+        /**
+         * Get the last modified date
+         *
+         * @return the last modified date or null
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+
+        /**
+         * Get the content
+         *
+         * @return the content
+         */
+        public byte[] getContent() {
+            return content;
+        }
+
+
+        /**
+         * Get the digest
+         *
+         * @return the digest or null
+         */
+        public byte[] getDigest() {
+            return digest;
+        }
+
+
+        /**
+         * Get the decoded length of the body, it can differ from the length of the content
+         *
+         * @return the length
+         */
+        public long getLength() {
+            return length;
+        }
+
+
+        /**
+         * Get the estimated size of the entry
+         *
+         * @param key the key
+         * @return the size in bytes
+         */
+        long getSize(String key) {
+            return ENTRY_OVERHEAD + 2L * key.length() + content.length + ((digest != null) ? digest.length : 0);
+        }
+    }
+
+
+    /**
+     * Defines the response of a 304 with the cached body, the status code is 200
+     */
+    private static final class CachedHttpResponse implements HttpResponse<HttpResponseBody> {
+        private final HttpResponse<HttpResponseBody> notModifiedResponse;
+        private final HttpResponseBody body;
+
+
+        /**
+         * Constructor for CachedHttpResponse
+         *
+         * @param notModifiedResponse the 304 response
+         * @param body the cached body
+         */
+        CachedHttpResponse(HttpResponse<HttpResponseBody> notModifiedResponse, HttpResponseBody body) {
+            this.notModifiedResponse = notModifiedResponse;
+            this.body = body;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#statusCode()
+         */
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#request()
+         */
+        @Override
+        public HttpRequest request() {
+            return notModifiedResponse.request();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#previousResponse()
+         */
+        @Override
+        public Optional<HttpResponse<HttpResponseBody>> previousResponse() {
+            return Optional.of(notModifiedResponse);
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#headers()
+         */
+        @Override
+        public HttpHeaders headers() {
+            return notModifiedResponse.headers();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#body()
+         */
+        @Override
+        public HttpResponseBody body() {
+            return body;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#sslSession()
+         */
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return notModifiedResponse.sslSession();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#uri()
+         */
+        @Override
+        public URI uri() {
+            return notModifiedResponse.uri();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#version()
+         */
+        @Override
+        public HttpClient.Version version() {
+            return notModifiedResponse.version();
+        }
+    }
+}
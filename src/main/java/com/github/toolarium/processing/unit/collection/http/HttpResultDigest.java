@@ -0,0 +1,161 @@
+/*
+ * HttpResultDigest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Defines the digest of a http call: status code, body length, content digest and latency. It is stored in a compact 
+ * binary form of a few dozen bytes in the {@link HttpProcessingUnit.HttpResultPersistence}.
+ * 
+ * @author patrick
+ */
+public final class HttpResultDigest {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private final int statusCode;
+    private final long bodyLength;
+    private final long latency;
+    private final byte[] digest;
+
+    
+    /**
+     * Constructor for HttpResultDigest
+     *
+     * @param statusCode the status code
+     * @param bodyLength the body length in bytes
+     * @param latency the latency in nanoseconds
+     * @param digest the content digest
+     */
+    public HttpResultDigest(int statusCode, long bodyLength, long latency, byte[] digest) {
+        this.statusCode = statusCode;
+        this.bodyLength = bodyLength;
+        this.latency = latency;
+        if (digest == null) {
+            this.digest = new byte[0];
+        } else {
+            this.digest = digest;
+        }
+    }
+
+    
+    /**
+     * Create the digest from its binary form
+     *
+     * @param content the binary form
+     * @return the result digest
+     */
+    public static HttpResultDigest valueOf(byte[] content) {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        final int statusCode = buffer.getInt();
+        final long bodyLength = buffer.getLong();
+        final long latency = buffer.getLong();
+        byte[] digest = new byte[buffer.remaining()];
+        buffer.get(digest);
+        return new HttpResultDigest(statusCode, bodyLength, latency, digest);
+    }
+
+    
+    /**
+     * Get the binary form
+     *
+     * @return the binary form
+     */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(Integer.BYTES + 2 * Long.BYTES + digest.length).putInt(statusCode).putLong(bodyLength).putLong(latency).put(digest).array();
+    }
+
+    
+    /**
+     * Get the status code
+     *
+     * @return the status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    
+    /**
+     * Get the body length
+     *
+     * @return the body length in bytes
+     */
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
+    
+    /**
+     * Get the latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    
+    /**
+     * Get the content digest
+     *
+     * @return the content digest
+     */
+    public byte[] getDigest() {
+        return digest.clone();
+    }
+
+    
+    /**
+     * Get the content digest as hex string
+     *
+     * @return the content digest as hex string
+     */
+    public String getDigestAsHex() {
+        StringBuilder builder = new StringBuilder(2 * digest.length);
+        for (byte b : digest) {
+            builder.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return builder.toString();
+    }
+
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * statusCode + Long.hashCode(bodyLength)) + Long.hashCode(latency)) + Arrays.hashCode(digest);
+    }
+
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        
+        HttpResultDigest other = (HttpResultDigest) obj;
+        return statusCode == other.statusCode && bodyLength == other.bodyLength && latency == other.latency && Arrays.equals(digest, other.digest);
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "HttpResultDigest [statusCode=" + statusCode + ", bodyLength=" + bodyLength + ", latency=" + latency + ", digest=" + getDigestAsHex() + "]";
+    }
+}
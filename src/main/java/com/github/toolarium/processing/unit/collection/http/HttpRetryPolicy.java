@@ -0,0 +1,266 @@
+/*
+ * HttpRetryPolicy.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Defines the retry policy of http calls. A call is retried in case of a retryable status code or an {@link IOException} 
+ * (e.g. connect or request timeout). The delay is an exponential backoff with full jitter, a <code>Retry-After</code> 
+ * header of the server is honored. The retries are scheduled asynchronous, the calling thread is never blocked. A
+ * cancelled call cancels the pending attempt and no further retry is scheduled.
+ * 
+ * @author patrick
+ */
+public class HttpRetryPolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpRetryPolicy.class);
+    private static final String RETRY_AFTER = "Retry-After";
+    private final int maxRetries;
+    private final int[] retryStatusCodes;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final AtomicLong numberOfRetries;
+
+    
+    /**
+     * Constructor for HttpRetryPolicy
+     *
+     * @param maxRetries the max number of retries of a call, 0 means no retry
+     * @param retryStatusCodes the retryable status codes
+     * @param baseDelay the base delay in milliseconds
+     * @param maxDelay the max delay in milliseconds
+     */
+    public HttpRetryPolicy(int maxRetries, int[] retryStatusCodes, long baseDelay, long maxDelay) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryStatusCodes = retryStatusCodes != null ? retryStatusCodes.clone() : new int[0];
+        Arrays.sort(this.retryStatusCodes);
+        this.baseDelay = Math.max(0, baseDelay);
+        this.maxDelay = Math.max(this.baseDelay, maxDelay);
+        this.numberOfRetries = new AtomicLong();
+    }
+
+    
+    /**
+     * Send a request asynchronous and retry it according to the policy
+     *
+     * @param <T> the response body type
+     * @param requestSender sends the request, it is called for every attempt
+     * @return the future of the final response, its cancellation cancels the pending attempt and the retries
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(Supplier<CompletableFuture<HttpResponse<T>>> requestSender) {
+        if (maxRetries == 0) {
+            return requestSender.get();
+        }
+        
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<HttpResponse<T>>();
+        final AtomicReference<CompletableFuture<?>> pendingAttempt = new AtomicReference<CompletableFuture<?>>();
+        result.whenComplete((response, throwable) -> {
+            final CompletableFuture<?> attempt = pendingAttempt.get();
+            if (result.isCancelled() && attempt != null) {
+                attempt.cancel(true);
+            }
+        });
+        
+        sendAsync(requestSender, 0, result, pendingAttempt);
+        return result;
+    }
+
+    
+    /**
+     * Check if a status code is retryable
+     *
+     * @param statusCode the status code
+     * @return true if it is retryable
+     */
+    public boolean isRetryable(int statusCode) {
+        return Arrays.binarySearch(retryStatusCodes, statusCode) >= 0;
+    }
+
+    
+    /**
+     * Check if an exception is retryable
+     *
+     * @param throwable the exception
+     * @return true if it is retryable
+     */
+    public boolean isRetryable(Throwable throwable) {
+        Throwable t = throwable;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+
+        return t instanceof IOException;
+    }
+
+    
+    /**
+     * Get the delay before the next attempt: in case the server sent a <code>Retry-After</code> header it is taken, 
+     * otherwise a random delay between 0 and the exponential backoff (full jitter).
+     *
+     * @param attempt the number of the failed attempt, starting with 0
+     * @param headers the response headers or null
+     * @return the delay in milliseconds
+     */
+    public long getDelay(int attempt, HttpHeaders headers) {
+        if (headers != null) {
+            final long retryAfter = parseRetryAfter(headers.firstValue(RETRY_AFTER));
+            if (retryAfter >= 0) {
+                return Math.min(maxDelay, retryAfter);
+            }
+        }
+        
+        long backoff = maxDelay;
+        if (attempt < 63 && baseDelay <= (maxDelay >> attempt)) {
+            backoff = baseDelay << attempt;
+        }
+        
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    
+    /**
+     * Get the max number of retries of a call
+     *
+     * @return the max number of retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    
+    /**
+     * Get the number of retries which are scheduled so far
+     *
+     * @return the number of retries
+     */
+    public long getNumberOfRetries() {
+        return numberOfRetries.get();
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "HttpRetryPolicy [maxRetries=" + maxRetries + ", retryStatusCodes=" + Arrays.toString(retryStatusCodes) + ", baseDelay=" + baseDelay + ", maxDelay=" + maxDelay + "]";
+    }
+
+    
+    /**
+     * Parse the value of a <code>Retry-After</code> header, either delay seconds or a http date
+     *
+     * @param retryAfter the value
+     * @return the delay in milliseconds or -1 if it is not defined or invalid
+     */
+    static long parseRetryAfter(Optional<String> retryAfter) {
+        if (retryAfter == null || retryAfter.isEmpty() || retryAfter.get().isBlank()) {
+            return -1;
+        }
+        
+        final String value = retryAfter.get().trim();
+        try {
+            return Math.max(0, Long.parseLong(value)) * 1000L;
+        } catch (NumberFormatException e) {
+            // NOP, http date
+        }
+        
+        try {
+            return Math.max(0, Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)).toMillis());
+        } catch (DateTimeParseException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Invalid " + RETRY_AFTER + " header [" + value + "]: " + e.getMessage());
+            }
+            return -1;
+        }
+    }
+
+    
+    /**
+     * Send a request and schedule a retry in case of a retryable result
+     *
+     * @param <T> the response body type
+     * @param requestSender sends the request
+     * @param attempt the number of the attempt
+     * @param result the future of the final response
+     * @param pendingAttempt the pending attempt or the delay of the next attempt, it is cancelled with the result
+     */
+    private <T> void sendAsync(Supplier<CompletableFuture<HttpResponse<T>>> requestSender, int attempt, CompletableFuture<HttpResponse<T>> result, AtomicReference<CompletableFuture<?>> pendingAttempt) {
+        if (result.isDone()) {
+            // the call is cancelled
+            return;
+        }
+        
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = requestSender.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        
+        final CompletableFuture<HttpResponse<T>> attemptFuture = future;
+        pendingAttempt.set(attemptFuture);
+        if (result.isDone()) {
+            attemptFuture.cancel(true);
+            return;
+        }
+        
+        attemptFuture.whenComplete((response, throwable) -> {
+            long delay = -1;
+            if (attempt < maxRetries) {
+                if (throwable != null) {
+                    if (isRetryable(throwable)) {
+                        delay = getDelay(attempt, null);
+                    }
+                } else if (response != null && isRetryable(response.statusCode())) {
+                    delay = getDelay(attempt, response.headers());
+                }
+            }
+            
+            if (delay < 0) {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+
+            numberOfRetries.incrementAndGet();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Retry call in " + delay + "ms (attempt " + (attempt + 1) + " of " + maxRetries + "): " + (throwable != null ? throwable.getMessage() : "status code " + response.statusCode()));
+            }
+
+            // the delayed executor only triggers the next attempt, no thread is blocked while waiting
+            final CompletableFuture<Void> retry = CompletableFuture.runAsync(() -> sendAsync(requestSender, attempt + 1, result, pendingAttempt), 
+                                                                             CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+            // a retry without delay can already have replaced the attempt
+            pendingAttempt.compareAndSet(attemptFuture, retry);
+            if (result.isDone()) {
+                retry.cancel(true);
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * IHttpResponseHandler.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import com.github.toolarium.processing.unit.exception.ValidationException;
+import com.github.toolarium.processing.unit.runtime.IParameterRuntime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+
+
+/**
+ * Defines the handler of the responses, e.g. to parse them. It is configured by its class name and needs a public
+ * default constructor. The responses are handled by a bounded worker pool while the next calls are on the network,
+ * this means the handler is called concurrently and has to be thread-safe.
+ *
+ * @author patrick
+ */
+public interface IHttpResponseHandler {
+
+    /**
+     * Initialize the handler before the first response
+     *
+     * @param parameterRuntime the parameter runtime of the processing unit
+     * @throws ValidationException In case of an invalid configuration
+     */
+    default void initialize(IParameterRuntime parameterRuntime) throws ValidationException {
+        // NOP
+    }
+
+
+    /**
+     * Handle a response. The body is already decoded, in case of the response body mode discard or digest it is empty, 
+     * in case of the response body mode file it is read from the file. In case of streaming the body is read while it is 
+     * received.
+     *
+     * @param callIndex the index of the call
+     * @param statusCode the status code
+     * @param headers the response headers
+     * @param body the response body
+     * @return the result which is added to the persistence or null
+     * @throws IOException In case the response can not be handled, the call is counted as failed
+     */
+    byte[] handle(long callIndex, int statusCode, HttpHeaders headers, InputStream body) throws IOException;
+
+
+    /**
+     * Handle a response which can be truncated: in case the body is longer than the max response body size only its 
+     * beginning is kept. By default a truncated body is handled as any other body.
+     *
+     * @param callIndex the index of the call
+     * @param statusCode the status code
+     * @param headers the response headers
+     * @param body the response body
+     * @param truncated true in case the body was truncated to the max response body size
+     * @return the result which is added to the persistence or null
+     * @throws IOException In case the response can not be handled, the call is counted as failed
+     */
+    default byte[] handle(long callIndex, int statusCode, HttpHeaders headers, InputStream body, boolean truncated) throws IOException {
+        return handle(callIndex, statusCode, headers, body);
+    }
+
+
+    /**
+     * Release the resources of the handler after the last response
+     */
+    default void close() {
+        // NOP
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * IHttpResultStore.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.Serializable;
+
+
+/**
+ * Defines the store of the {@link HttpProcessingUnit.HttpResultPersistence}. It works like a fifo queue. 
+ * 
+ * @author patrick
+ */
+public interface IHttpResultStore extends Serializable {
+    
+    /**
+     * Add a new result
+     *
+     * @param result the result
+     */
+    void add(byte[] result);
+
+    
+    /**
+     * Remove and return the oldest result
+     *
+     * @return the oldest result
+     * @throws java.util.NoSuchElementException In case the store is empty
+     */
+    byte[] pop();
+
+    
+    /**
+     * Get the number of results in the store
+     *
+     * @return the number of results
+     */
+    int size();
+
+    
+    /**
+     * Remove all results and release all resources of the store
+     */
+    void clear();
+}
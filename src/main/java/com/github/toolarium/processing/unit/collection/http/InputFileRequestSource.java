@@ -0,0 +1,670 @@
+/*
+ * InputFileRequestSource.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Defines a request source which reads one request per line from an input file. The file is indexed once by a memory-mapped 
+ * scan, afterwards every line is read by its offset, the file is never kept in memory. Supported are CSV files with a header 
+ * line and JSONL files with a flat JSON object per line (values which are objects or arrays are taken as raw text). 
+ * The fields url, path, query, method and body define the request, all other fields are taken as request headers. 
+ * Empty lines are ignored, a CSV field can not span several lines.
+ * 
+ * <p>The lines are indexed with the first access. A resumed processing restarts the index at the byte offset of its 
+ * {@link Position}, the lines before are not scanned again. The position keeps the size and the modification time of 
+ * the file, a file which was changed since the suspend is rejected.</p>
+ * 
+ * @author patrick
+ */
+public class InputFileRequestSource implements Closeable {
+    /** Input format: comma separated values with a header line */
+    public static final String FORMAT_CSV = "csv";
+    /** Input format: a JSON object per line */
+    public static final String FORMAT_JSONL = "jsonl";
+    /** The field of the url */
+    public static final String FIELD_URL = "url";
+    /** The field of the path */
+    public static final String FIELD_PATH = "path";
+    /** The field of the query */
+    public static final String FIELD_QUERY = "query";
+    /** The field of the method */
+    public static final String FIELD_METHOD = "method";
+    /** The field of the body */
+    public static final String FIELD_BODY = "body";
+    private static final Logger LOG = LoggerFactory.getLogger(InputFileRequestSource.class);
+    private static final long MAP_SIZE = 64L * 1024L * 1024L;
+    private final Path inputFile;
+    private final String format;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long lastModified;
+    private long dataOffset;
+    private long firstIndex;
+    private volatile boolean indexed;
+    private long[] lineOffsets;
+    private int[] lineLengths;
+    private int numberOfLines;
+    private String[] columns;
+    private ByteBuffer readBuffer;
+
+    
+    /**
+     * Constructor for InputFileRequestSource
+     *
+     * @param inputFile the input file
+     * @param format the format: csv or jsonl
+     * @throws IOException In case the file can not be read
+     */
+    public InputFileRequestSource(Path inputFile, String format) throws IOException {
+        this.inputFile = inputFile;
+        this.format = format;
+        this.channel = FileChannel.open(inputFile, StandardOpenOption.READ);
+        this.dataOffset = 0;
+        this.firstIndex = 0;
+        this.indexed = false;
+        this.lineOffsets = new long[1024];
+        this.lineLengths = new int[1024];
+        this.numberOfLines = 0;
+        this.columns = null;
+        this.readBuffer = ByteBuffer.allocate(8192);
+        
+        try {
+            this.fileSize = channel.size();
+            this.lastModified = Files.getLastModifiedTime(inputFile).toMillis();
+            
+            if (FORMAT_CSV.equals(format)) {
+                // the header line defines the columns, it is not a request
+                dataOffset = indexLines(0, 1);
+                if (numberOfLines > 0) {
+                    final List<String> header = parseCsvLine(readLine(0));
+                    columns = header.toArray(new String[header.size()]);
+                    numberOfLines = 0;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    
+    /**
+     * Index the requests, in case of a position the index starts at its byte offset. The index is built once: a source which 
+     * is already indexed only verifies the position.
+     *
+     * @param position the position of a resumed processing or null to index the whole file
+     * @throws IOException In case the file was changed since the position was taken or can not be read
+     */
+    public synchronized void index(Position position) throws IOException {
+        if (position != null && (position.getFileSize() != fileSize || position.getLastModified() != lastModified || position.getOffset() < dataOffset)) {
+            throw new IOException("The input file [" + inputFile + "] was changed since the suspend (size " + position.getFileSize() + " / " + fileSize 
+                                  + ", last modified " + position.getLastModified() + " / " + lastModified + "), it can not be resumed at offset " + position.getOffset() + "!");
+        }
+        
+        if (indexed) {
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        long offset = dataOffset;
+        if (position != null) {
+            offset = position.getOffset();
+            firstIndex = position.getIndex();
+        }
+        
+        try {
+            indexLines(offset, Integer.MAX_VALUE);
+        } catch (IOException | RuntimeException e) {
+            numberOfLines = 0;
+            firstIndex = 0;
+            throw e;
+        }
+        indexed = true;
+        
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Indexed " + numberOfLines + " requests of [" + inputFile + "] from offset " + offset + " in " + (System.currentTimeMillis() - start) + "ms.");
+        }
+    }
+
+    
+    /**
+     * Get the number of requests
+     *
+     * @return the number of requests
+     * @throws IOException In case the file can not be indexed
+     */
+    public long getNumberOfRequests() throws IOException {
+        ensureIndexed();
+        return firstIndex + numberOfLines;
+    }
+
+    
+    /**
+     * Get the byte offset of a request in the input file
+     *
+     * @param index the index of the request
+     * @return the byte offset, the size of the file after the last request or -1 if the request is before the indexed part
+     * @throws IOException In case the file can not be indexed
+     */
+    public long getOffset(long index) throws IOException {
+        ensureIndexed();
+        if (index < firstIndex) {
+            return -1;
+        }
+        
+        if (index - firstIndex >= numberOfLines) {
+            return fileSize;
+        }
+        return lineOffsets[(int)(index - firstIndex)];
+    }
+
+    
+    /**
+     * Get the position of a request, it is kept in the persistence to resume the processing at this request
+     *
+     * @param index the index of the request
+     * @return the position
+     * @throws IOException In case the file can not be indexed
+     */
+    public Position getPosition(long index) throws IOException {
+        return new Position(index, getOffset(index), fileSize, lastModified);
+    }
+
+    
+    /**
+     * Read the fields of a request
+     *
+     * @param index the index of the request
+     * @return the fields
+     * @throws IOException In case the request can not be read or is invalid
+     */
+    public Map<String, String> getRequest(long index) throws IOException {
+        ensureIndexed();
+        if (index < firstIndex || index - firstIndex >= numberOfLines) {
+            throw new IOException("Invalid request index [" + index + "], the input file [" + inputFile + "] has the requests " + firstIndex + " to " + (firstIndex + numberOfLines - 1) + "!");
+        }
+        
+        final String line = readLine((int)(index - firstIndex));
+        if (FORMAT_CSV.equals(format)) {
+            final List<String> valueList = parseCsvLine(line);
+            final Map<String, String> result = new LinkedHashMap<String, String>();
+            for (int i = 0; i < columns.length && i < valueList.size(); i++) {
+                result.put(columns[i], valueList.get(i));
+            }
+            return result;
+        }
+        
+        return parseJsonLine(line);
+    }
+
+    
+    /**
+     * Create the http request of an input line
+     *
+     * @param index the index of the request
+     * @param httpRequestTemplate the request template which defines the defaults
+     * @return the http request
+     * @throws IOException In case the request can not be read or is invalid
+     */
+    public HttpRequest createHttpRequest(long index, HttpRequestTemplate httpRequestTemplate) throws IOException {
+        final Map<String, String> fields = getRequest(index);
+        
+        URI uri = httpRequestTemplate.getRequestUri();
+        final String url = fields.get(FIELD_URL);
+        if (url != null && !url.isBlank()) {
+            uri = URI.create(url.trim());
+        } else if (fields.containsKey(FIELD_PATH) || fields.containsKey(FIELD_QUERY)) {
+            String path = fields.containsKey(FIELD_PATH) ? fields.get(FIELD_PATH).trim() : uri.getRawPath();
+            if (path == null || !path.startsWith("/")) {
+                path = "/" + (path != null ? path : "");
+            }
+            
+            final String query = fields.containsKey(FIELD_QUERY) ? fields.get(FIELD_QUERY).trim() : uri.getRawQuery();
+            uri = URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + path + ((query != null && !query.isEmpty()) ? "?" + query : ""));
+        }
+
+        final String method = fields.get(FIELD_METHOD);
+        HttpRequest.BodyPublisher body = null;
+        if (fields.get(FIELD_BODY) != null) {
+            body = HttpRequest.BodyPublishers.ofString(fields.get(FIELD_BODY));
+        }
+        
+        final List<String> headerList = new ArrayList<String>();
+        for (Map.Entry<String, String> e : fields.entrySet()) {
+            if (e.getValue() != null && !e.getValue().isEmpty() && !FIELD_URL.equals(e.getKey()) && !FIELD_PATH.equals(e.getKey()) && !FIELD_QUERY.equals(e.getKey()) 
+                    && !FIELD_METHOD.equals(e.getKey()) && !FIELD_BODY.equals(e.getKey())) {
+                headerList.add(e.getKey());
+                headerList.add(e.getValue());
+            }
+        }
+        
+        return httpRequestTemplate.newHttpRequest(uri, (method != null && !method.isBlank()) ? method : null, body, headerList.toArray(new String[headerList.size()]));
+    }
+
+
+    /**
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "InputFileRequestSource [inputFile=" + inputFile + ", format=" + format + ", fileSize=" + fileSize + ", firstIndex=" + firstIndex + ", numberOfLines=" + numberOfLines + "]";
+    }
+
+    
+    /**
+     * Index the whole file in case it is not already indexed
+     *
+     * @throws IOException In case of an I/O error
+     */
+    private void ensureIndexed() throws IOException {
+        if (!indexed) {
+            index(null);
+        }
+    }
+
+    
+    /**
+     * Index the start and the length of the not empty lines, only the size of the file when it was opened is scanned
+     *
+     * @param offset the byte offset where the scan starts, it has to be the start of a line
+     * @param maxLines the max number of lines to index
+     * @return the byte offset after the last indexed line
+     * @throws IOException In case of an I/O error
+     */
+    private long indexLines(long offset, int maxLines) throws IOException {
+        final long size = fileSize;
+        long lineStart = offset;
+        long position = offset;
+        byte previous = 0;
+        while (position < size) {
+            final long mapSize = Math.min(MAP_SIZE, size - position);
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+            for (int i = 0; i < mapSize; i++) {
+                final byte b = buffer.get(i);
+                if (b == '\n') {
+                    addLine(lineStart, (previous == '\r') ? position + i - 1 : position + i);
+                    lineStart = position + i + 1;
+                    if (numberOfLines >= maxLines) {
+                        return lineStart;
+                    }
+                }
+                previous = b;
+            }
+            position += mapSize;
+        }
+        
+        if (lineStart < size) {
+            addLine(lineStart, (previous == '\r') ? size - 1 : size);
+        }
+        return size;
+    }
+
+    
+    /**
+     * Add a line to the index, empty lines are ignored
+     *
+     * @param start the start offset of the line
+     * @param end the end offset of the line (exclusive, without the line break)
+     * @throws IOException In case the line is too long
+     */
+    private void addLine(long start, long end) throws IOException {
+        final long length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Too long line at offset " + start + " in [" + inputFile + "]!");
+        }
+
+        if (numberOfLines == lineOffsets.length) {
+            lineOffsets = Arrays.copyOf(lineOffsets, numberOfLines * 2);
+            lineLengths = Arrays.copyOf(lineLengths, numberOfLines * 2);
+        }
+        
+        lineOffsets[numberOfLines] = start;
+        lineLengths[numberOfLines] = (int)length;
+        numberOfLines++;
+    }
+
+    
+    /**
+     * Read an indexed line
+     *
+     * @param index the line index
+     * @return the line
+     * @throws IOException In case of an I/O error
+     */
+    private synchronized String readLine(int index) throws IOException {
+        final int length = lineLengths[index];
+        if (readBuffer.capacity() < length) {
+            readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+        }
+        
+        readBuffer.clear().limit(length);
+        long position = lineOffsets[index];
+        while (readBuffer.hasRemaining()) {
+            final int read = channel.read(readBuffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file [" + inputFile + "] at offset " + position + "!");
+            }
+            position += read;
+        }
+        
+        return new String(readBuffer.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    
+    /**
+     * Parse a CSV line, a quoted value can contain separators and escaped quotes
+     *
+     * @param line the line
+     * @return the values
+     */
+    static List<String> parseCsvLine(String line) {
+        final List<String> result = new ArrayList<String>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                result.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        
+        result.add(value.toString());
+        return result;
+    }
+
+    
+    /**
+     * Parse a flat JSON object
+     *
+     * @param line the line
+     * @return the fields, null values are ignored
+     * @throws IOException In case of an invalid JSON object
+     */
+    static Map<String, String> parseJsonLine(String line) throws IOException {
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        final int[] position = new int[] {skipWhitespace(line, 0)};
+        expect(line, position, '{');
+        final int end = skipWhitespace(line, position[0]);
+        if (end < line.length() && line.charAt(end) == '}') {
+            return result;
+        }
+        
+        while (true) {
+            position[0] = skipWhitespace(line, position[0]);
+            final String key = parseJsonString(line, position);
+            position[0] = skipWhitespace(line, position[0]);
+            expect(line, position, ':');
+            position[0] = skipWhitespace(line, position[0]);
+            
+            String value;
+            if (position[0] < line.length() && line.charAt(position[0]) == '"') {
+                value = parseJsonString(line, position);
+            } else {
+                final int start = position[0];
+                int depth = 0;
+                boolean inString = false;
+                while (position[0] < line.length()) {
+                    final char c = line.charAt(position[0]);
+                    if (inString) {
+                        if (c == '\\') {
+                            position[0]++;
+                        } else if (c == '"') {
+                            inString = false;
+                        }
+                    } else if (c == '"') {
+                        inString = true;
+                    } else if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        if (depth == 0) {
+                            break;
+                        }
+                        depth--;
+                    } else if (c == ',' && depth == 0) {
+                        break;
+                    }
+                    position[0]++;
+                }
+                
+                value = line.substring(start, Math.min(position[0], line.length())).trim();
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            
+            if (value != null) {
+                result.put(key, value);
+            }
+            
+            position[0] = skipWhitespace(line, position[0]);
+            if (position[0] < line.length() && line.charAt(position[0]) == ',') {
+                position[0]++;
+            } else {
+                expect(line, position, '}');
+                return result;
+            }
+        }
+    }
+
+    
+    /**
+     * Parse a JSON string
+     *
+     * @param line the line
+     * @param position the position of the quote, it is moved after the closing quote
+     * @return the unescaped string
+     * @throws IOException In case of an invalid string
+     */
+    private static String parseJsonString(String line, int[] position) throws IOException {
+        expect(line, position, '"');
+        final StringBuilder value = new StringBuilder();
+        while (position[0] < line.length()) {
+            char c = line.charAt(position[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            
+            if (c == '\\' && position[0] < line.length()) {
+                c = line.charAt(position[0]++);
+                switch (c) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (position[0] + 4 > line.length()) {
+                            throw new IOException("Invalid unicode escape in JSON line: " + line);
+                        }
+                        try {
+                            value.append((char)Integer.parseInt(line.substring(position[0], position[0] + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IOException("Invalid unicode escape in JSON line: " + line);
+                        }
+                        position[0] += 4;
+                        break;
+                    default:
+                        value.append(c);
+                        break;
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        
+        throw new IOException("Unterminated string in JSON line: " + line);
+    }
+
+    
+    /**
+     * Expect a character
+     *
+     * @param line the line
+     * @param position the position, it is moved after the character
+     * @param expected the expected character
+     * @throws IOException In case of a different character
+     */
+    private static void expect(String line, int[] position, char expected) throws IOException {
+        if (position[0] >= line.length() || line.charAt(position[0]) != expected) {
+            throw new IOException("Invalid JSON line, expected '" + expected + "' at position " + position[0] + ": " + line);
+        }
+        position[0]++;
+    }
+
+    
+    /**
+     * Skip whitespaces
+     *
+     * @param line the line
+     * @param position the position
+     * @return the position of the next non whitespace character
+     */
+    private static int skipWhitespace(String line, int position) {
+        int result = position;
+        while (result < line.length() && Character.isWhitespace(line.charAt(result))) {
+            result++;
+        }
+        return result;
+    }
+
+
+    
+    /**
+     * Defines the position of a request in the input file together with the identity of the file: its size and 
+     * modification time. It is kept in the persistence to resume the processing at this request.
+     */
+    public static class Position implements Serializable {
+        private static final long serialVersionUID = 5313861950934471251L;
+        private final long index;
+        private final long offset;
+        private final long fileSize;
+        private final long lastModified;
+
+        
+        /**
+         * Constructor for Position
+         *
+         * @param index the index of the request
+         * @param offset the byte offset of the request
+         * @param fileSize the size of the file
+         * @param lastModified the modification time of the file in milliseconds
+         */
+        public Position(long index, long offset, long fileSize, long lastModified) {
+            this.index = index;
+            this.offset = offset;
+            this.fileSize = fileSize;
+            this.lastModified = lastModified;
+        }
+
+        
+        /**
+         * Get the index of the request
+         *
+         * @return the index
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        
+        /**
+         * Get the byte offset of the request
+         *
+         * @return the byte offset
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        
+        /**
+         * Get the size of the file
+         *
+         * @return the size
+         */
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        
+        /**
+         * Get the modification time of the file
+         *
+         * @return the modification time in milliseconds
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "Position [index=" + index + ", offset=" + offset + ", fileSize=" + fileSize + ", lastModified=" + lastModified + "]";
+        }
+    }
+}
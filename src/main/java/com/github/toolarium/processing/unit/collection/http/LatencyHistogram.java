@@ -0,0 +1,186 @@
+/*
+ * LatencyHistogram.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.util.Arrays;
+
+
+/**
+ * Implements a fixed memory latency histogram with log-linear buckets (similar to HdrHistogram). Values below 128 are
+ * counted exactly, above every power of two range is split into 64 linear sub buckets, which results in a relative 
+ * error below 1.6%. Recording a value does not allocate any memory. It is not thread-safe.
+ * 
+ * @author patrick
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int NUMBER_OF_BUCKETS = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+    private final long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+    private long sum;
+
+    
+    /**
+     * Constructor for LatencyHistogram
+     */
+    public LatencyHistogram() {
+        counts = new long[NUMBER_OF_BUCKETS];
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+    }
+
+    
+    /**
+     * Record a value
+     *
+     * @param value the value, e.g. a latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long value) {
+        final long v = Math.max(0, value);
+        counts[getIndex(v)]++;
+        totalCount++;
+        sum += v;
+        if (v < min) {
+            min = v;
+        }
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    
+    /**
+     * Get the value at the given percentile. It is the highest value which is equivalent to the bucket of the percentile.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value or 0 in case no value was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final double p = Math.min(100.0, Math.max(0.0, percentile));
+        final long countAtPercentile = Math.max(1, (long)Math.ceil(p / 100.0 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(max, getHighestEquivalentValue(i));
+            }
+        }
+        
+        return max;
+    }
+
+    
+    /**
+     * Get the number of recorded values
+     *
+     * @return the number of recorded values
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    
+    /**
+     * Get the min value
+     *
+     * @return the min value or 0 in case no value was recorded
+     */
+    public long getMin() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        return min;
+    }
+
+    
+    /**
+     * Get the max value
+     *
+     * @return the max value
+     */
+    public long getMax() {
+        return max;
+    }
+
+    
+    /**
+     * Get the mean value
+     *
+     * @return the mean value
+     */
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        return (double)sum / totalCount;
+    }
+
+    
+    /**
+     * Reset the histogram
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        sum = 0;
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "LatencyHistogram [totalCount=" + totalCount + ", min=" + getMin() + ", p50=" + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + max + "]";
+    }
+
+    
+    /**
+     * Get the bucket index of a value
+     *
+     * @param value the value
+     * @return the index
+     */
+    static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        final int subBucket = (int)(value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+    }
+
+    
+    /**
+     * Get the highest value of a bucket
+     *
+     * @param index the index
+     * @return the highest value of the bucket
+     */
+    static long getHighestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        
+        final int bucket = index - SUB_BUCKET_COUNT;
+        final int shift = bucket / SUB_BUCKET_HALF_COUNT + 1;
+        final long subBucket = bucket % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * MappedFileBodyPublisher.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Implements a {@link BodyPublisher} of a file which is memory mapped once and published as read-only slices of the
+ * mapping for every request. The content is never copied on the heap and every subscription is independent, this means
+ * the same publisher can be used for concurrent requests and retries. Files above 2GB can not be mapped in one buffer,
+ * they are streamed by the {@link HttpRequest.BodyPublishers#ofFile(Path)} publisher.
+ *
+ * @author patrick
+ */
+public final class MappedFileBodyPublisher implements BodyPublisher {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private final Path file;
+    private final ByteBuffer content;
+
+
+    /**
+     * Constructor for MappedFileBodyPublisher
+     *
+     * @param file the file
+     * @param content the mapped content
+     */
+    private MappedFileBodyPublisher(Path file, ByteBuffer content) {
+        this.file = file;
+        this.content = content;
+    }
+
+
+    /**
+     * Create a body publisher of a file
+     *
+     * @param file the file
+     * @return the body publisher
+     * @throws IOException In case the file can not be read
+     */
+    public static BodyPublisher create(Path file) throws IOException {
+        final long size = Files.size(file);
+        if (size > Integer.MAX_VALUE) {
+            return HttpRequest.BodyPublishers.ofFile(file);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedFileBodyPublisher(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer());
+        }
+    }
+
+
+    /**
+     * @see java.net.http.HttpRequest.BodyPublisher#contentLength()
+     */
+    @Override
+    public long contentLength() {
+        return content.capacity();
+    }
+
+
+    /**
+     * @see java.util.concurrent.Flow.Publisher#subscribe(java.util.concurrent.Flow.Subscriber)
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new ChunkSubscription(subscriber, content.duplicate()));
+    }
+
+
+    /**
+     * Get the file
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MappedFileBodyPublisher [file=" + file + ", contentLength=" + contentLength() + "]";
+    }
+
+
+    /**
+     * The subscription publishes one chunk per requested item, a reentrant request from the subscriber is drained by the
+     * thread which is already publishing.
+     */
+    private static final class ChunkSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final ByteBuffer content;
+        private final AtomicLong demand;
+        private final AtomicInteger workInProgress;
+        private volatile boolean cancelled;
+        private boolean completed;
+
+
+        /**
+         * Constructor for ChunkSubscription
+         *
+         * @param subscriber the subscriber
+         * @param content the content, its position is moved as the chunks are published
+         */
+        ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, ByteBuffer content) {
+            this.subscriber = subscriber;
+            this.content = content;
+            this.demand = new AtomicLong();
+            this.workInProgress = new AtomicInteger();
+            this.cancelled = false;
+            this.completed = false;
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscription#request(long)
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("Invalid request of " + n + " items!"));
+                return;
+            }
+
+            demand.getAndAccumulate(n, (current, add) -> (current + add < 0) ? Long.MAX_VALUE : current + add);
+            drain();
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscription#cancel()
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+
+        /**
+         * Publish the chunks as long as there is demand
+         */
+        private void drain() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                while (!cancelled && !completed && content.hasRemaining() && demand.get() > 0) {
+                    final int length = Math.min(CHUNK_SIZE, content.remaining());
+                    final ByteBuffer chunk = content.slice(content.position(), length);
+                    content.position(content.position() + length);
+                    demand.decrementAndGet();
+                    subscriber.onNext(chunk);
+                }
+
+                if (!cancelled && !completed && !content.hasRemaining()) {
+                    completed = true;
+                    subscriber.onComplete();
+                }
+            } while (workInProgress.decrementAndGet() != 0);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * MemoryHttpResultStore.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * Implements a {@link IHttpResultStore} which keeps all results in memory. In case of a suspend the results are written in 
+ * a compact binary format: a varint length prefix followed by the raw bytes (strings are UTF-8 encoded). Optional the 
+ * results can be deflate compressed and identical results can be deduplicated, in this case a result which was already 
+ * written is only referenced by its index.
+ * 
+ * @author patrick
+ */
+public class MemoryHttpResultStore implements IHttpResultStore, Externalizable {
+    private static final long serialVersionUID = 4390127791866245130L;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_COMPRESS = 1;
+    private static final int FLAG_DEDUPLICATE = 2;
+    private LinkedList<byte[]> resultQueue;
+    private boolean compress;
+    private boolean deduplicate;
+
+    
+    /**
+     * Constructor for MemoryHttpResultStore
+     */
+    public MemoryHttpResultStore() {
+        this(false, false);
+    }
+
+    
+    /**
+     * Constructor for MemoryHttpResultStore
+     *
+     * @param compress true to deflate compress the results in case of a suspend
+     * @param deduplicate true to write identical results only once in case of a suspend
+     */
+    public MemoryHttpResultStore(boolean compress, boolean deduplicate) {
+        this.resultQueue = new LinkedList<byte[]>();
+        this.compress = compress;
+        this.deduplicate = deduplicate;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#add(byte[])
+     */
+    @Override
+    public void add(byte[] result) {
+        resultQueue.add(result);
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#pop()
+     */
+    @Override
+    public byte[] pop() {
+        return resultQueue.pop();
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#size()
+     */
+    @Override
+    public int size() {
+        return resultQueue.size();
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#clear()
+     */
+    @Override
+    public void clear() {
+        resultQueue.clear();
+    }
+
+    
+    /**
+     * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        int flags = 0;
+        if (compress) {
+            flags |= FLAG_COMPRESS;
+        }
+        if (deduplicate) {
+            flags |= FLAG_DEDUPLICATE;
+        }
+        
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(flags);
+        out.writeInt(resultQueue.size());
+        
+        if (compress) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DataOutputStream dataOutputStream = new DataOutputStream(new DeflaterOutputStream(buffer, deflater, 64 * 1024))) {
+                writeResults(dataOutputStream);
+            } finally {
+                deflater.end();
+            }
+            
+            out.writeInt(buffer.size());
+            buffer.writeTo(new ObjectOutputAdapter(out));
+        } else {
+            writeResults(out);
+        }
+    }
+
+    
+    /**
+     * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        final int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported format version " + version + "!");
+        }
+        
+        final int flags = in.readUnsignedByte();
+        compress = (flags & FLAG_COMPRESS) != 0;
+        deduplicate = (flags & FLAG_DEDUPLICATE) != 0;
+        final int size = in.readInt();
+        resultQueue = new LinkedList<byte[]>();
+        
+        if (compress) {
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            // the inflater is not owned by the stream, it has to be ended to release the native memory
+            final Inflater inflater = new Inflater();
+            try (DataInputStream dataInputStream = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(content), inflater, 64 * 1024))) {
+                readResults(dataInputStream, size);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            readResults(in, size);
+        }
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MemoryHttpResultStore [size=" + resultQueue.size() + ", compress=" + compress + ", deduplicate=" + deduplicate + "]";
+    }
+
+    
+    /**
+     * Write the results
+     *
+     * @param out the output
+     * @throws IOException In case of an I/O error
+     */
+    private void writeResults(DataOutput out) throws IOException {
+        Map<ByteBuffer, Integer> resultIndex = null;
+        if (deduplicate) {
+            resultIndex = new HashMap<ByteBuffer, Integer>();
+        }
+        
+        for (byte[] result : resultQueue) {
+            if (resultIndex != null) {
+                // index 0 marks a new result, otherwise it references the already written result index - 1
+                final ByteBuffer key = ByteBuffer.wrap(result);
+                final Integer index = resultIndex.get(key);
+                if (index != null) {
+                    writeVarInt(out, index + 1);
+                    continue;
+                }
+                
+                resultIndex.put(key, resultIndex.size());
+                writeVarInt(out, 0);
+            }
+            
+            writeVarInt(out, result.length);
+            out.write(result);
+        }
+    }
+
+    
+    /**
+     * Read the results
+     *
+     * @param in the input
+     * @param size the number of results
+     * @throws IOException In case of an I/O error
+     */
+    private void readResults(DataInput in, int size) throws IOException {
+        List<byte[]> resultIndex = null;
+        if (deduplicate) {
+            resultIndex = new ArrayList<byte[]>();
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (resultIndex != null) {
+                final int index = readVarInt(in);
+                if (index > 0) {
+                    if (index > resultIndex.size()) {
+                        throw new StreamCorruptedException("Invalid result reference " + index + "!");
+                    }
+                    
+                    // identical results share the same instance
+                    resultQueue.add(resultIndex.get(index - 1));
+                    continue;
+                }
+            }
+            
+            byte[] result = new byte[readVarInt(in)];
+            in.readFully(result);
+            resultQueue.add(result);
+            
+            if (resultIndex != null) {
+                resultIndex.add(result);
+            }
+        }
+    }
+
+    
+    /**
+     * Write an unsigned variable length integer
+     *
+     * @param out the output
+     * @param value the value
+     * @throws IOException In case of an I/O error
+     */
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    
+    /**
+     * Read an unsigned variable length integer
+     *
+     * @param in the input
+     * @return the value
+     * @throws IOException In case of an I/O error
+     */
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        
+        throw new StreamCorruptedException("Invalid variable length integer!");
+    }
+
+    
+    /**
+     * Adapts an {@link ObjectOutput} as output stream.
+     * 
+     * @author patrick
+     */
+    private static class ObjectOutputAdapter extends OutputStream {
+        private final ObjectOutput out;
+
+        
+        /**
+         * Constructor for ObjectOutputAdapter
+         *
+         * @param out the object output
+         */
+        ObjectOutputAdapter(ObjectOutput out) {
+            this.out = out;
+        }
+
+        
+        /**
+         * @see java.io.OutputStream#write(int)
+         */
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        
+        /**
+         * @see java.io.OutputStream#write(byte[], int, int)
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+    }
+}
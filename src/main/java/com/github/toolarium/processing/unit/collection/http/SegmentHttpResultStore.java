@@ -0,0 +1,449 @@
+/*
+ * SegmentHttpResultStore.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implements a {@link IHttpResultStore} which keeps a small head of results in memory and spills the rest to 
+ * append-only memory-mapped segment files. A segment entry is a length-prefixed byte array. Consumed segments 
+ * are unmapped and deleted, the segment directory is removed as soon as the last spilled result is consumed. In case 
+ * of a suspend only the memory head, the segment references and the offsets are serialized, on a resume the segment 
+ * files have to exist with their size.
+ * 
+ * <p>The store is owned by the {@link HttpProcessingUnit.HttpResultPersistence}: the consumer either drains all results 
+ * or calls {@link HttpProcessingUnit.HttpResultPersistence#clear()}, otherwise the segment files are kept, e.g. to be 
+ * resumed.</p>
+ * 
+ * @author patrick
+ */
+public class SegmentHttpResultStore implements IHttpResultStore {
+    private static final long serialVersionUID = -2983726170538361733L;
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentHttpResultStore.class);
+    private final String baseDirectory;
+    private final int memoryHeadSize;
+    private final int segmentSize;
+    private String segmentDirectory;
+    private LinkedList<byte[]> memoryHead;
+    private List<Segment> segmentList;
+    private int readPosition;
+    private int numberOfSpilledResults;
+    private long segmentCounter;
+
+    
+    /**
+     * Constructor for SegmentHttpResultStore
+     *
+     * @param baseDirectory the directory in which the segment directory is created
+     * @param memoryHeadSize the number of results which are kept in memory
+     * @param segmentSize the size of a segment file in bytes
+     */
+    public SegmentHttpResultStore(String baseDirectory, int memoryHeadSize, int segmentSize) {
+        this.baseDirectory = baseDirectory;
+        this.memoryHeadSize = Math.max(0, memoryHeadSize);
+        this.segmentSize = Math.max(1024, segmentSize);
+        this.segmentDirectory = null;
+        this.memoryHead = new LinkedList<byte[]>();
+        this.segmentList = new ArrayList<Segment>();
+        this.readPosition = 0;
+        this.numberOfSpilledResults = 0;
+        this.segmentCounter = 0;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#add(byte[])
+     */
+    @Override
+    public void add(byte[] result) {
+        if (numberOfSpilledResults == 0 && memoryHead.size() < memoryHeadSize) {
+            memoryHead.add(result);
+            return;
+        }
+        
+        final int length = Integer.BYTES + result.length;
+        Segment segment = null;
+        if (!segmentList.isEmpty()) {
+            segment = segmentList.get(segmentList.size() - 1);
+        }
+        
+        if (segment == null || segment.getCapacity() - segment.getWritePosition() < length) {
+            segment = newSegment(Math.max(segmentSize, length));
+        }
+        
+        ByteBuffer buffer = segment.getBuffer().duplicate();
+        buffer.position(segment.getWritePosition());
+        buffer.putInt(result.length);
+        buffer.put(result);
+        segment.setWritePosition(segment.getWritePosition() + length);
+        numberOfSpilledResults++;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#pop()
+     */
+    @Override
+    public byte[] pop() {
+        if (!memoryHead.isEmpty()) {
+            return memoryHead.removeFirst();
+        }
+        
+        if (numberOfSpilledResults == 0) {
+            throw new NoSuchElementException();
+        }
+        
+        Segment segment = segmentList.get(0);
+        while (readPosition >= segment.getWritePosition()) {
+            deleteSegment(segmentList.remove(0));
+            readPosition = 0;
+            segment = segmentList.get(0);
+        }
+        
+        ByteBuffer buffer = segment.getBuffer().duplicate();
+        buffer.position(readPosition);
+        byte[] result = new byte[buffer.getInt()];
+        buffer.get(result);
+        readPosition += Integer.BYTES + result.length;
+        numberOfSpilledResults--;
+
+        if (numberOfSpilledResults == 0) {
+            // all spilled results are consumed, new results are kept in memory again
+            clearSegments();
+        } else if (readPosition >= segment.getWritePosition()) {
+            deleteSegment(segmentList.remove(0));
+            readPosition = 0;
+        }
+        
+        return result;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#size()
+     */
+    @Override
+    public int size() {
+        return memoryHead.size() + numberOfSpilledResults;
+    }
+
+    
+    /**
+     * @see com.github.toolarium.processing.unit.collection.http.IHttpResultStore#clear()
+     */
+    @Override
+    public void clear() {
+        memoryHead.clear();
+        clearSegments();
+    }
+
+    
+    /**
+     * Get the number of results which are spilled to segment files
+     *
+     * @return the number of spilled results
+     */
+    public int getNumberOfSpilledResults() {
+        return numberOfSpilledResults;
+    }
+
+    
+    /**
+     * Get the number of segment files
+     *
+     * @return the number of segment files
+     */
+    public int getNumberOfSegments() {
+        return segmentList.size();
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "SegmentHttpResultStore [segmentDirectory=" + segmentDirectory + ", memoryHead=" + memoryHead.size() + ", numberOfSpilledResults=" + numberOfSpilledResults 
+                + ", numberOfSegments=" + segmentList.size() + ", readPosition=" + readPosition + "]";
+    }
+
+    
+    /**
+     * Create a new segment
+     *
+     * @param capacity the capacity of the segment
+     * @return the segment
+     */
+    private Segment newSegment(int capacity) {
+        try {
+            if (segmentDirectory == null) {
+                String directory = baseDirectory;
+                if (directory == null || directory.isBlank()) {
+                    directory = System.getProperty("java.io.tmpdir");
+                }
+                
+                Path path = Paths.get(directory);
+                Files.createDirectories(path);
+                segmentDirectory = Files.createTempDirectory(path, "http-result-").toString();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Created segment directory [" + segmentDirectory + "]");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create segment directory: " + e.getMessage(), e);
+        }
+        
+        Segment segment = new Segment(Paths.get(segmentDirectory, "segment-" + (segmentCounter++) + ".log").toString(), capacity);
+        segmentList.add(segment);
+        return segment;
+    }
+
+    
+    /**
+     * Delete all segments and the segment directory, it is created again with the next spilled result
+     */
+    private void clearSegments() {
+        for (Segment segment : segmentList) {
+            deleteSegment(segment);
+        }
+        
+        segmentList.clear();
+        readPosition = 0;
+        numberOfSpilledResults = 0;
+        
+        if (segmentDirectory != null) {
+            try {
+                Files.deleteIfExists(Paths.get(segmentDirectory));
+            } catch (IOException e) {
+                LOG.debug("Could not delete segment directory [" + segmentDirectory + "]: " + e.getMessage());
+            }
+            segmentDirectory = null;
+        }
+    }
+
+    
+    /**
+     * Delete a segment file, the mapping is released before the file is deleted.
+     *
+     * @param segment the segment
+     */
+    private void deleteSegment(Segment segment) {
+        segment.release();
+        try {
+            Files.deleteIfExists(Paths.get(segment.getFileName()));
+        } catch (IOException e) {
+            LOG.debug("Could not delete segment [" + segment.getFileName() + "]: " + e.getMessage());
+        }
+    }
+
+    
+    /**
+     * Write the segments to disk before the references are serialized
+     *
+     * @param out the output stream
+     * @throws IOException In case of an I/O error
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        for (Segment segment : segmentList) {
+            segment.force();
+        }
+        
+        out.defaultWriteObject();
+    }
+
+    
+    /**
+     * Read the segment references and verify the segment files: a missing or truncated segment is not recreated
+     *
+     * @param in the input stream
+     * @throws IOException In case of an I/O error or an invalid segment file
+     * @throws ClassNotFoundException In case of an unknown class
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Segment segment : segmentList) {
+            segment.verify();
+        }
+    }
+
+    
+    /**
+     * Defines a memory-mapped segment file. Only the file name and the offsets are serialized. The file of a new segment 
+     * is created, the file of a resumed segment has to exist.
+     * 
+     * @author patrick
+     */
+    private static class Segment implements Serializable {
+        private static final long serialVersionUID = 6205874427631953021L;
+        private final String fileName;
+        private final int capacity;
+        private int writePosition;
+        private transient boolean created;
+        private transient MappedByteBuffer buffer;
+
+        
+        /**
+         * Constructor for Segment
+         *
+         * @param fileName the file name
+         * @param capacity the capacity
+         */
+        Segment(String fileName, int capacity) {
+            this.fileName = fileName;
+            this.capacity = capacity;
+            this.writePosition = 0;
+            this.created = true;
+        }
+
+        
+        /**
+         * Get the file name
+         *
+         * @return the file name
+         */
+        String getFileName() {
+            return fileName;
+        }
+
+        
+        /**
+         * Get the capacity
+         *
+         * @return the capacity
+         */
+        int getCapacity() {
+            return capacity;
+        }
+        
+        
+        /**
+         * Get the write position
+         *
+         * @return the write position
+         */
+        int getWritePosition() {
+            return writePosition;
+        }
+
+        
+        /**
+         * Set the write position
+         *
+         * @param writePosition the write position
+         */
+        void setWritePosition(int writePosition) {
+            this.writePosition = writePosition;
+        }
+
+        
+        /**
+         * Get the mapped buffer of the segment, it is mapped on first access (e.g. after a resume)
+         *
+         * @return the mapped buffer
+         */
+        MappedByteBuffer getBuffer() {
+            if (buffer == null) {
+                final StandardOpenOption[] options;
+                if (created) {
+                    options = new StandardOpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+                } else {
+                    options = new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+                }
+                
+                try (FileChannel channel = FileChannel.open(Paths.get(fileName), options)) {
+                    if (!created && channel.size() != capacity) {
+                        throw new IOException("size " + channel.size() + " does not match the capacity " + capacity);
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not map segment [" + fileName + "]: " + e.getMessage(), e);
+                }
+            }
+            
+            return buffer;
+        }
+
+        
+        /**
+         * Verify the file of a resumed segment: it has to exist and to contain the written results
+         *
+         * @throws InvalidObjectException In case the file is missing or its size does not match
+         */
+        void verify() throws InvalidObjectException {
+            final Path path = Paths.get(fileName);
+            final long size;
+            try {
+                size = Files.size(path);
+            } catch (IOException e) {
+                throw new InvalidObjectException("Missing segment [" + fileName + "]: " + e.getMessage());
+            }
+            
+            if (size < writePosition || size != capacity) {
+                throw new InvalidObjectException("Invalid segment [" + fileName + "], its size " + size + " does not match the capacity " + capacity 
+                                                 + " and write position " + writePosition + ".");
+            }
+        }
+
+        
+        /**
+         * Force the content of the segment to the disk
+         */
+        void force() {
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+
+        
+        /**
+         * Release the mapped buffer: it is unmapped immediately, otherwise the file can not be deleted on Windows and 
+         * the mapping is only released by the garbage collector
+         */
+        void release() {
+            if (buffer != null) {
+                unmap(buffer);
+                buffer = null;
+            }
+        }
+
+        
+        /**
+         * Unmap a buffer by its cleaner, in case the cleaner is not accessible the mapping is released by the garbage collector
+         *
+         * @param mappedBuffer the mapped buffer, it must not be accessed afterwards
+         */
+        private static void unmap(MappedByteBuffer mappedBuffer) {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), mappedBuffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOG.debug("Could not unmap segment: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class HttpTestProcessingUnitRunner extends TestProcessingUnitRunner {
     private static final long serialVersionUID = 2829007892788097567L;
     private transient IHttpServer httpServer;
     private IHttpService httpService;
+    private transient SyntheticHttpServer syntheticHttpServer;
 
     
     /**
@@ -59,6 +60,27 @@ public class HttpTestProcessingUnitRunner extends TestProcessingUnitRunner {
         this.httpService = httpService;
     }
 
+    
+    /**
+     * Constructor for HttpTestProcessingUnitRunner which runs against a {@link SyntheticHttpServer}
+     *
+     * @param syntheticHttpServer the synthetic http server
+     */
+    public HttpTestProcessingUnitRunner(SyntheticHttpServer syntheticHttpServer) {
+        this.httpService = null;
+        this.syntheticHttpServer = syntheticHttpServer;
+    }
+
+    
+    /**
+     * Get the synthetic http server
+     *
+     * @return the synthetic http server or null
+     */
+    public SyntheticHttpServer getSyntheticHttpServer() {
+        return syntheticHttpServer;
+    }
+
 
     /**
      * @see com.github.toolarium.processing.unit.runtime.test.TestProcessingUnitRunner#run(java.lang.Class, java.util.List)
@@ -218,6 +240,16 @@ public class HttpTestProcessingUnitRunner extends TestProcessingUnitRunner {
         }
         parameterMap.put(HttpProcessingUnitConstants.DOMAIN_PARAMETER.getKey(), new Parameter(HttpProcessingUnitConstants.DOMAIN_PARAMETER.getKey(), hostname));
 
+        if (syntheticHttpServer != null) {
+            try {
+                syntheticHttpServer.start(port, sslContext);
+            } catch (IOException e) {
+                throw ExceptionWrapper.getInstance().convertException(e, ProcessingException.class);
+            }
+            
+            return new ArrayList<Parameter>(parameterMap.values());
+        }
+        
         httpServer = HttpServerFactory.getInstance().getServerInstance();
         try {
             httpServer.start(httpService, port, sslContext);
@@ -236,6 +268,10 @@ public class HttpTestProcessingUnitRunner extends TestProcessingUnitRunner {
      * @throws ProcessingException the processing exception
      */
     protected void stopServer() throws ProcessingException {
+        if (syntheticHttpServer != null) {
+            syntheticHttpServer.stop();
+        }
+        
         if (httpServer != null) {
             try {
                 httpServer.stop();
@@ -0,0 +1,427 @@
+/*
+ * SyntheticHttpServer.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implements a synthetic load target to reproduce production conditions locally: the latency follows a log-normal
+ * distribution, the response has a configurable size and can be sent slowly in chunks, a ratio of the requests is
+ * answered with an error (500), a throttling (429) or an unavailable (503) response and requests above the max
+ * concurrency are rejected with 503. It is based on the http server of the JDK which supports HTTP/1.1 only, a
+ * HTTP/2 client falls back to HTTP/1.1.
+ *
+ * @author patrick
+ */
+public class SyntheticHttpServer implements HttpHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticHttpServer.class);
+    private static final double Z_99 = 2.326;
+    private static final byte[] PATTERN = "{\"id\":1,\"name\":\"synthetic\",\"status\":\"OK\",\"values\":[1,2,3,4,5,6,7,8,9]}\n".getBytes(StandardCharsets.UTF_8);
+    private long medianLatency;
+    private long p99Latency;
+    private int responseSize;
+    private double errorRatio;
+    private double tooManyRequestsRatio;
+    private double unavailableRatio;
+    private int retryAfter;
+    private int dripChunkSize;
+    private long dripInterval;
+    private int maxConcurrency;
+    private transient HttpServer httpServer;
+    private transient ExecutorService executorService;
+    private transient Semaphore concurrency;
+    private transient byte[] responseBody;
+    private final AtomicLong numberOfRequests;
+    private final AtomicLong numberOfRejectedRequests;
+    private final AtomicLong numberOfErrorResponses;
+    private final AtomicInteger maxNumberOfConcurrentRequests;
+    private final AtomicInteger numberOfConcurrentRequests;
+
+
+    /**
+     * Constructor for SyntheticHttpServer: no latency, a small body, no errors and no concurrency limit
+     */
+    public SyntheticHttpServer() {
+        this.medianLatency = 0;
+        this.p99Latency = 0;
+        this.responseSize = PATTERN.length;
+        this.errorRatio = 0;
+        this.tooManyRequestsRatio = 0;
+        this.unavailableRatio = 0;
+        this.retryAfter = -1;
+        this.dripChunkSize = 0;
+        this.dripInterval = 0;
+        this.maxConcurrency = 0;
+        this.numberOfRequests = new AtomicLong();
+        this.numberOfRejectedRequests = new AtomicLong();
+        this.numberOfErrorResponses = new AtomicLong();
+        this.maxNumberOfConcurrentRequests = new AtomicInteger();
+        this.numberOfConcurrentRequests = new AtomicInteger();
+    }
+
+
+    /**
+     * Set a fixed latency
+     *
+     * @param latency the latency in milliseconds
+     * @return the server
+     */
+    public SyntheticHttpServer latency(long latency) {
+        return latency(latency, latency);
+    }
+
+
+    /**
+     * Set a log-normal distributed latency
+     *
+     * @param medianLatency the median of the latency in milliseconds
+     * @param p99Latency the 99th percentile of the latency in milliseconds, it is at least the median
+     * @return the server
+     */
+    public SyntheticHttpServer latency(long medianLatency, long p99Latency) {
+        this.medianLatency = Math.max(0, medianLatency);
+        this.p99Latency = Math.max(this.medianLatency, p99Latency);
+        return this;
+    }
+
+
+    /**
+     * Set the size of the response body
+     *
+     * @param responseSize the size in bytes
+     * @return the server
+     */
+    public SyntheticHttpServer responseSize(int responseSize) {
+        this.responseSize = Math.max(0, responseSize);
+        return this;
+    }
+
+
+    /**
+     * Set the ratio of the requests which are answered with a 500 response
+     *
+     * @param errorRatio the ratio between 0 and 1
+     * @return the server
+     */
+    public SyntheticHttpServer errorRatio(double errorRatio) {
+        this.errorRatio = errorRatio;
+        return this;
+    }
+
+
+    /**
+     * Set the ratio of the requests which are answered with a 429 response
+     *
+     * @param tooManyRequestsRatio the ratio between 0 and 1
+     * @return the server
+     */
+    public SyntheticHttpServer tooManyRequestsRatio(double tooManyRequestsRatio) {
+        this.tooManyRequestsRatio = tooManyRequestsRatio;
+        return this;
+    }
+
+
+    /**
+     * Set the ratio of the requests which are answered with a 503 response
+     *
+     * @param unavailableRatio the ratio between 0 and 1
+     * @return the server
+     */
+    public SyntheticHttpServer unavailableRatio(double unavailableRatio) {
+        this.unavailableRatio = unavailableRatio;
+        return this;
+    }
+
+
+    /**
+     * Set the Retry-After header of the 429 and 503 responses
+     *
+     * @param retryAfter the retry after in seconds, a negative value means no header
+     * @return the server
+     */
+    public SyntheticHttpServer retryAfter(int retryAfter) {
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+
+    /**
+     * Send the response body slowly in chunks
+     *
+     * @param dripChunkSize the size of a chunk in bytes, 0 means the body is sent at once
+     * @param dripInterval the pause in milliseconds before every chunk
+     * @return the server
+     */
+    public SyntheticHttpServer slowDrip(int dripChunkSize, long dripInterval) {
+        this.dripChunkSize = Math.max(0, dripChunkSize);
+        this.dripInterval = Math.max(0, dripInterval);
+        return this;
+    }
+
+
+    /**
+     * Set the max number of concurrent requests, further requests are rejected with a 503 response
+     *
+     * @param maxConcurrency the max number of concurrent requests, 0 means no limit
+     * @return the server
+     */
+    public SyntheticHttpServer maxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(0, maxConcurrency);
+        return this;
+    }
+
+
+    /**
+     * Start the server
+     *
+     * @param port the port
+     * @param sslContext the ssl context in case of https or null
+     * @throws IOException In case the server can not be started
+     */
+    public synchronized void start(int port, SSLContext sslContext) throws IOException {
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is already started!");
+        }
+
+        responseBody = new byte[responseSize];
+        for (int i = 0; i < responseSize; i++) {
+            responseBody[i] = PATTERN[i % PATTERN.length];
+        }
+
+        concurrency = null;
+        if (maxConcurrency > 0) {
+            concurrency = new Semaphore(maxConcurrency);
+        }
+
+        if (sslContext != null) {
+            HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress(port), 0);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+            httpServer = httpsServer;
+        } else {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        }
+
+        // every request has its own thread, the latency is simulated by a sleep
+        executorService = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-http-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executorService);
+        httpServer.createContext("/", this);
+        httpServer.start();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Started " + this + " on port " + port);
+        }
+    }
+
+
+    /**
+     * Stop the server
+     */
+    public synchronized void stop() {
+        if (httpServer == null) {
+            return;
+        }
+
+        httpServer.stop(0);
+        httpServer = null;
+        executorService.shutdownNow();
+        executorService = null;
+    }
+
+
+    /**
+     * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        numberOfRequests.incrementAndGet();
+        try (exchange) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            if (concurrency != null && !concurrency.tryAcquire()) {
+                // load shedding: the request is rejected without any latency
+                numberOfRejectedRequests.incrementAndGet();
+                sendStatus(exchange, 503);
+                return;
+            }
+
+            try {
+                maxNumberOfConcurrentRequests.accumulateAndGet(numberOfConcurrentRequests.incrementAndGet(), Math::max);
+                sleep(getLatency());
+
+                final double random = ThreadLocalRandom.current().nextDouble();
+                if (random < errorRatio) {
+                    numberOfErrorResponses.incrementAndGet();
+                    sendStatus(exchange, 500);
+                } else if (random < errorRatio + tooManyRequestsRatio) {
+                    numberOfErrorResponses.incrementAndGet();
+                    sendStatus(exchange, 429);
+                } else if (random < errorRatio + tooManyRequestsRatio + unavailableRatio) {
+                    numberOfErrorResponses.incrementAndGet();
+                    sendStatus(exchange, 503);
+                } else {
+                    sendBody(exchange);
+                }
+            } finally {
+                numberOfConcurrentRequests.decrementAndGet();
+                if (concurrency != null) {
+                    concurrency.release();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Get the number of received requests
+     *
+     * @return the number of received requests
+     */
+    public long getNumberOfRequests() {
+        return numberOfRequests.get();
+    }
+
+
+    /**
+     * Get the number of requests which are rejected because of the max concurrency
+     *
+     * @return the number of rejected requests
+     */
+    public long getNumberOfRejectedRequests() {
+        return numberOfRejectedRequests.get();
+    }
+
+
+    /**
+     * Get the number of 500, 429 and 503 responses by the ratios
+     *
+     * @return the number of error responses
+     */
+    public long getNumberOfErrorResponses() {
+        return numberOfErrorResponses.get();
+    }
+
+
+    /**
+     * Get the max number of concurrent requests which were processed
+     *
+     * @return the max number of concurrent requests
+     */
+    public int getMaxNumberOfConcurrentRequests() {
+        return maxNumberOfConcurrentRequests.get();
+    }
+
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "SyntheticHttpServer [medianLatency=" + medianLatency + ", p99Latency=" + p99Latency + ", responseSize=" + responseSize
+               + ", errorRatio=" + errorRatio + ", tooManyRequestsRatio=" + tooManyRequestsRatio + ", unavailableRatio=" + unavailableRatio
+               + ", dripChunkSize=" + dripChunkSize + ", dripInterval=" + dripInterval + ", maxConcurrency=" + maxConcurrency + "]";
+    }
+
+
+    /**
+     * Get the latency of a request: log-normal distributed with the median and the 99th percentile
+     *
+     * @return the latency in milliseconds
+     */
+    protected long getLatency() {
+        if (p99Latency <= medianLatency) {
+            return medianLatency;
+        }
+
+        final double sigma = Math.log((double)p99Latency / Math.max(1, medianLatency)) / Z_99;
+        return Math.round(Math.max(1, medianLatency) * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+
+    /**
+     * Send a response without body
+     *
+     * @param exchange the exchange
+     * @param statusCode the status code
+     * @throws IOException In case of an I/O error
+     */
+    private void sendStatus(HttpExchange exchange, int statusCode) throws IOException {
+        if (statusCode != 500 && retryAfter >= 0) {
+            exchange.getResponseHeaders().set("Retry-After", "" + retryAfter);
+        }
+
+        exchange.sendResponseHeaders(statusCode, -1);
+    }
+
+
+    /**
+     * Send the response body, at once or slowly in chunks
+     *
+     * @param exchange the exchange
+     * @throws IOException In case of an I/O error
+     */
+    private void sendBody(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (responseBody.length == 0) {
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, responseBody.length);
+        final OutputStream out = exchange.getResponseBody();
+        if (dripChunkSize == 0) {
+            out.write(responseBody);
+            return;
+        }
+
+        for (int offset = 0; offset < responseBody.length; offset += dripChunkSize) {
+            sleep(dripInterval);
+            out.write(responseBody, offset, Math.min(dripChunkSize, responseBody.length - offset));
+            out.flush();
+        }
+    }
+
+
+    /**
+     * Sleep
+     *
+     * @param time the time in milliseconds
+     * @throws IOException In case the thread is interrupted
+     */
+    private void sleep(long time) throws IOException {
+        if (time <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(time);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted!", e);
+        }
+    }
+}
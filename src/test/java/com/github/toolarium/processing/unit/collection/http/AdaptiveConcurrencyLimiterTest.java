@@ -0,0 +1,58 @@
+/*
+ * AdaptiveConcurrencyLimiterTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link AdaptiveConcurrencyLimiter}.
+ *  
+ * @author patrick
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    /**
+     * Test the additive increase and the multiplicative decrease
+     */
+    @Test
+    public void limitTest() {
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 20);
+        assertEquals(2, concurrencyLimiter.getLimit());
+        
+        // flat latency: the limit grows up to the max limit
+        for (int i = 0; i < 1000; i++) {
+            concurrencyLimiter.onSample(1_000_000L, false);
+        }
+        assertEquals(20, concurrencyLimiter.getLimit());
+
+        // a burst of overloads decreases the limit only once per window
+        for (int i = 0; i < 5; i++) {
+            concurrencyLimiter.onSample(1_000_000L, true);
+        }
+        assertEquals(18, concurrencyLimiter.getLimit());
+
+        // growing latency decreases the limit down to the min limit
+        for (int i = 0; i < 200; i++) {
+            concurrencyLimiter.onSample(100_000_000L, false);
+        }
+        assertEquals(2, concurrencyLimiter.getLimit());
+
+        // the baseline drifts to a sustained latency, afterwards the limit grows again
+        for (int i = 0; i < 2000; i++) {
+            concurrencyLimiter.onSample(100_000_000L, false);
+        }
+        assertTrue(concurrencyLimiter.getLimit() > 2);
+        
+        for (int i = 0; i < 1000; i++) {
+            concurrencyLimiter.onSample(1_000_000L, true);
+        }
+        assertEquals(2, concurrencyLimiter.getLimit());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * HttpCallCursorTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpCallCursor}.
+ *  
+ * @author patrick
+ */
+public class HttpCallCursorTest {
+
+    /**
+     * Test out of order completion and resume
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void resumeTest() throws Exception {
+        HttpCallCursor callCursor = new HttpCallCursor();
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, callCursor.next());
+        }
+        
+        // 0, 1, 3 and 5 are completed, 2 and 4 are in flight at the suspend
+        callCursor.complete(1);
+        callCursor.complete(0);
+        callCursor.complete(3);
+        callCursor.complete(5);
+        assertEquals(2, callCursor.getWatermark());
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+            objectOutputStream.writeObject(callCursor);
+        }
+        
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            callCursor = (HttpCallCursor)objectInputStream.readObject();
+        }
+        
+        callCursor.reset();
+        assertEquals(2, callCursor.next());
+        assertEquals(4, callCursor.next());
+        assertEquals(6, callCursor.next());
+        callCursor.complete(4);
+        callCursor.complete(2);
+        assertEquals(6, callCursor.getWatermark());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * HttpCallLaneTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpCallLane}.
+ *
+ * @author patrick
+ */
+public class HttpCallLaneTest {
+
+    /**
+     * Test the partition of the calls
+     */
+    @Test
+    public void partitionTest() {
+        List<HttpCallLane> laneList = HttpCallLane.partition(10, 3);
+        assertEquals(3, laneList.size());
+        assertEquals(0, laneList.get(0).getStart());
+        assertEquals(4, laneList.get(0).getEnd());
+        assertEquals(4, laneList.get(1).getStart());
+        assertEquals(7, laneList.get(1).getEnd());
+        assertEquals(7, laneList.get(2).getStart());
+        assertEquals(10, laneList.get(2).getEnd());
+
+        // no empty lanes
+        laneList = HttpCallLane.partition(2, 4);
+        assertEquals(2, laneList.size());
+        assertEquals(1, laneList.get(1).getEnd() - laneList.get(1).getStart());
+        assertEquals(1, HttpCallLane.partition(0, 4).size());
+    }
+
+
+    /**
+     * Test that a resumed lane neither repeats nor skips calls
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void resumeTest() throws Exception {
+        HttpProcessingUnit.HttpResultPersistence persistence = new HttpProcessingUnit.HttpResultPersistence();
+        List<HttpCallLane> laneList = persistence.initializeLanes(6, 2);
+        assertEquals(0, laneList.get(0).next());
+        assertEquals(1, laneList.get(0).next());
+        assertEquals(3, laneList.get(1).next());
+        persistence.completeCall(0);
+        persistence.completeCall(1);
+        persistence.completeCall(3);
+        assertEquals(3, persistence.getNumberOfProcessedCalls());
+        assertEquals(2, laneList.get(0).getNumberOfProcessedCalls());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+            objectOutputStream.writeObject(persistence);
+        }
+
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            persistence = (HttpProcessingUnit.HttpResultPersistence)objectInputStream.readObject();
+        }
+
+        // the lanes of the persistence are kept, independent of the number of lanes
+        laneList = persistence.initializeLanes(6, 4);
+        assertEquals(2, laneList.size());
+        for (HttpCallLane lane : laneList) {
+            lane.getCallCursor().reset();
+        }
+
+        assertEquals(2, laneList.get(0).next());
+        assertEquals(-1, laneList.get(0).next());
+        assertEquals(4, laneList.get(1).next());
+        assertEquals(5, laneList.get(1).next());
+        assertEquals(-1, laneList.get(1).next());
+
+        persistence.completeCall(2);
+        assertTrue(laneList.get(0).isCompleted());
+        assertFalse(laneList.get(1).isCompleted());
+        persistence.completeCall(5);
+        persistence.completeCall(4);
+        assertTrue(laneList.get(1).isCompleted());
+        assertEquals(6, persistence.getNumberOfProcessedCalls());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * HttpClientRegistryTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpClient;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpClientRegistry}.
+ *  
+ * @author patrick
+ */
+public class HttpClientRegistryTest {
+
+    /**
+     * Test the reference counting and the idle timeout
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void referenceCountTest() throws Exception {
+        HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        int numberOfClients = registry.getNumberOfClients();
+        
+        HttpClientRegistry.Key key = new HttpClientRegistry.Key("HTTP_1_1|NORMAL|10|test", null, null);
+        assertNull(registry.acquire(key));
+        HttpClient httpClient = registry.register(key, HttpClient.newHttpClient(), 200);
+        assertTrue(httpClient == registry.acquire(new HttpClientRegistry.Key("HTTP_1_1|NORMAL|10|test", null, null)));
+        assertTrue(httpClient == registry.register(key, HttpClient.newHttpClient(), 200));
+        assertEquals(numberOfClients + 1, registry.getNumberOfClients());
+        
+        registry.release(httpClient);
+        registry.release(httpClient);
+        registry.release(httpClient);
+        
+        // the client is reused within the idle timeout
+        assertTrue(httpClient == registry.acquire(key));
+        registry.release(httpClient);
+        assertEquals(numberOfClients + 1, registry.getNumberOfClients());
+        
+        Thread.sleep(500);
+        assertEquals(numberOfClients, registry.getNumberOfClients());
+        assertNull(registry.acquire(key));
+    }
+}
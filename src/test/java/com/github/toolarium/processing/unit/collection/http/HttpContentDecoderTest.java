@@ -0,0 +1,217 @@
+/*
+ * HttpContentDecoderTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpContentDecoder}.
+ *
+ * @author patrick
+ */
+public class HttpContentDecoderTest {
+    private static final byte[] CONTENT = "{\"id\": 1, \"name\": \"toolarium\", \"values\": [1, 2, 3, 4, 5, 6, 7, 8, 9]}\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+
+    /**
+     * Test the supported content encodings
+     */
+    @Test
+    public void createTest() {
+        assertTrue(HttpContentDecoder.create("gzip") != null);
+        assertTrue(HttpContentDecoder.create(" GZIP ") != null);
+        assertTrue(HttpContentDecoder.create("x-gzip") != null);
+        assertTrue(HttpContentDecoder.create("deflate") != null);
+        assertNull(HttpContentDecoder.create(null));
+        assertNull(HttpContentDecoder.create("identity"));
+        assertNull(HttpContentDecoder.create("br"));
+    }
+
+
+    /**
+     * Test gzip in different chunk sizes
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void gzipTest() throws IOException {
+        final byte[] encoded = gzip(CONTENT);
+        for (int chunkSize : new int[] {1, 7, 512, encoded.length}) {
+            assertArrayEquals(CONTENT, decode("gzip", encoded, chunkSize));
+        }
+    }
+
+
+    /**
+     * Test gzip with the optional header fields
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void gzipOptionalHeaderTest() throws IOException {
+        final byte[] encoded = gzip(CONTENT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(encoded, 0, 3);
+        out.write(4 | 8 | 16 | 2); // FEXTRA, FNAME, FCOMMENT, FHCRC
+        out.write(encoded, 4, 6);
+        out.write(new byte[] {3, 0, 'a', 'b', 'c'});
+        out.write("name.json\0".getBytes(StandardCharsets.US_ASCII));
+        out.write("comment\0".getBytes(StandardCharsets.US_ASCII));
+        out.write(new byte[] {0, 0});
+        out.write(encoded, 10, encoded.length - 10);
+
+        assertArrayEquals(CONTENT, decode("gzip", out.toByteArray(), 1));
+        assertArrayEquals(CONTENT, decode("gzip", out.toByteArray(), 100));
+    }
+
+
+    /**
+     * Test gzip with several members, their content is concatenated
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void gzipMultiMemberTest() throws IOException {
+        final byte[] second = "second member".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(gzip(CONTENT));
+        out.write(gzip(second));
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(CONTENT);
+        expected.write(second);
+        for (int chunkSize : new int[] {1, 9, 1024, out.size()}) {
+            assertArrayEquals(expected.toByteArray(), decode("gzip", out.toByteArray(), chunkSize));
+        }
+
+        // trailing bytes after the last member are ignored, an incomplete member is invalid
+        out.write(new byte[] {0, 0, 0});
+        assertArrayEquals(expected.toByteArray(), decode("gzip", out.toByteArray(), 5));
+        out.reset();
+        out.write(gzip(CONTENT));
+        out.write(gzip(second), 0, 12);
+        assertThrows(ZipException.class, () -> decode("gzip", out.toByteArray(), 7));
+    }
+
+
+    /**
+     * Test deflate with a zlib header and raw
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void deflateTest() throws IOException {
+        final byte[] zlib = deflate(CONTENT, false);
+        final byte[] raw = deflate(CONTENT, true);
+        for (int chunkSize : new int[] {1, 2, 3, 1024, zlib.length}) {
+            assertArrayEquals(CONTENT, decode("deflate", zlib, chunkSize));
+            assertArrayEquals(CONTENT, decode("deflate", raw, chunkSize));
+        }
+    }
+
+
+    /**
+     * Test invalid and incomplete content
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void invalidContentTest() throws IOException {
+        assertThrows(ZipException.class, () -> decode("gzip", "no gzip content".getBytes(StandardCharsets.US_ASCII), 4));
+
+        final byte[] encoded = gzip(CONTENT);
+        assertThrows(ZipException.class, () -> decode("gzip", Arrays.copyOf(encoded, encoded.length - 3), 100));
+
+        final byte[] corrupted = encoded.clone();
+        corrupted[corrupted.length - 6]++;
+        assertThrows(ZipException.class, () -> decode("gzip", corrupted, 100));
+
+        // an empty body, e.g. of a HEAD request
+        assertEquals(0, decode("gzip", new byte[0], 1).length);
+    }
+
+
+    /**
+     * Decode the content
+     *
+     * @param contentEncoding the content encoding
+     * @param encoded the encoded content
+     * @param chunkSize the chunk size
+     * @return the decoded content
+     * @throws ZipException In case of an invalid content
+     */
+    private byte[] decode(String contentEncoding, byte[] encoded, int chunkSize) throws ZipException {
+        final HttpContentDecoder decoder = HttpContentDecoder.create(contentEncoding);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < encoded.length; i += chunkSize) {
+                final ByteBuffer chunk = ByteBuffer.wrap(encoded, i, Math.min(chunkSize, encoded.length - i));
+                decoder.decode(chunk, buffer -> out.write(buffer.array(), buffer.position(), buffer.remaining()));
+                assertEquals(0, chunk.remaining());
+            }
+
+            decoder.finish();
+        } finally {
+            decoder.end();
+        }
+
+        assertEquals(out.size(), decoder.getDecodedBytes());
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Compress with gzip
+     *
+     * @param content the content
+     * @return the compressed content
+     * @throws IOException In case of an error
+     */
+    private byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Compress with deflate
+     *
+     * @param content the content
+     * @param raw true for a raw deflate stream without zlib header
+     * @return the compressed content
+     */
+    private byte[] deflate(byte[] content, boolean raw) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        deflater.setInput(content);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+}
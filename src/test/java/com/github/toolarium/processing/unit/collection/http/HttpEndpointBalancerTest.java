@@ -0,0 +1,162 @@
+/*
+ * HttpEndpointBalancerTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpEndpointBalancer}.
+ *  
+ * @author patrick
+ */
+public class HttpEndpointBalancerTest {
+
+    /**
+     * Test the balancing strategies
+     */
+    @Test
+    public void balancingTest() {
+        HttpEndpointBalancer.Endpoint a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 3);
+        HttpEndpointBalancer.Endpoint b = new HttpEndpointBalancer.Endpoint(URI.create("http://b:8080/base/"), 1);
+        assertEquals(URI.create("http://b:8080/base/echo?x=1"), b.resolve(URI.create("https://localhost/echo?x=1")));
+
+        HttpEndpointBalancer endpointBalancer = new HttpEndpointBalancer(List.of(a, b), HttpEndpointBalancer.ROUND_ROBIN, 0, 0);
+        assertEquals(a, endpointBalancer.select().getEndpoint());
+        assertEquals(b, endpointBalancer.select().getEndpoint());
+        assertEquals(a, endpointBalancer.select().getEndpoint());
+
+        a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 3);
+        b = new HttpEndpointBalancer.Endpoint(URI.create("http://b:8080"), 1);
+        endpointBalancer = new HttpEndpointBalancer(List.of(a, b), HttpEndpointBalancer.WEIGHTED, 0, 0);
+        for (int i = 0; i < 400; i++) {
+            endpointBalancer.select();
+        }
+        assertEquals(300, a.getNumberOfRequests());
+        assertEquals(100, b.getNumberOfRequests());
+
+        a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 1);
+        b = new HttpEndpointBalancer.Endpoint(URI.create("http://b:8080"), 1);
+        endpointBalancer = new HttpEndpointBalancer(List.of(a, b), HttpEndpointBalancer.LEAST_OUTSTANDING, 0, 0);
+        HttpEndpointBalancer.Selection first = endpointBalancer.select();
+        HttpEndpointBalancer.Selection second = endpointBalancer.select();
+        assertEquals(first.getEndpoint() == a ? b : a, second.getEndpoint());
+        endpointBalancer.complete(second, true);
+        assertEquals(second.getEndpoint(), endpointBalancer.select().getEndpoint());
+    }
+
+    
+    /**
+     * Test the ejection and the probe of an endpoint
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void ejectionTest() throws Exception {
+        HttpEndpointBalancer.Endpoint a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 1);
+        HttpEndpointBalancer.Endpoint b = new HttpEndpointBalancer.Endpoint(URI.create("http://b:8080"), 1);
+        HttpEndpointBalancer endpointBalancer = new HttpEndpointBalancer(List.of(a, b), HttpEndpointBalancer.ROUND_ROBIN, 2, 500);
+        endpointBalancer.complete(endpointBalancer.select(), false);
+        endpointBalancer.complete(endpointBalancer.select(), true);
+        endpointBalancer.complete(endpointBalancer.select(), false);
+        assertEquals(1, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertEquals(1, endpointBalancer.getNumberOfEjections());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(b, endpointBalancer.select().getEndpoint());
+        }
+        
+        // after the ejection time a single probe is sent, a successful probe takes the endpoint back
+        Thread.sleep(550);
+        assertEquals(2, endpointBalancer.getNumberOfAvailableEndpoints());
+        HttpEndpointBalancer.Selection probe = endpointBalancer.select();
+        if (probe.getEndpoint() != a) {
+            probe = endpointBalancer.select();
+        }
+        assertEquals(a, probe.getEndpoint());
+        assertEquals(1, endpointBalancer.getNumberOfAvailableEndpoints());
+        endpointBalancer.complete(probe, true);
+        assertEquals(2, endpointBalancer.getNumberOfAvailableEndpoints());
+    }
+
+    
+    /**
+     * Test that no call is sent to an ejected endpoint and that only a single probe is pending
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void allEjectedTest() throws Exception {
+        HttpEndpointBalancer.Endpoint a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 1);
+        HttpEndpointBalancer endpointBalancer = new HttpEndpointBalancer(List.of(a), HttpEndpointBalancer.ROUND_ROBIN, 1, 300);
+        HttpEndpointBalancer.Selection late = endpointBalancer.select();
+        endpointBalancer.complete(endpointBalancer.select(), false);
+        assertEquals(0, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertNull(endpointBalancer.select());
+        
+        // after the ejection time exactly one probe is sent
+        Thread.sleep(350);
+        HttpEndpointBalancer.Selection probe = endpointBalancer.select();
+        assertEquals(a, probe.getEndpoint());
+        assertNull(endpointBalancer.select());
+        assertEquals(3, a.getNumberOfRequests());
+        
+        // the result of the call which was sent before the ejection does not decide
+        endpointBalancer.complete(late, true);
+        assertEquals(0, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertNull(endpointBalancer.select());
+        
+        // a failed probe ejects the endpoint again
+        endpointBalancer.complete(probe, false);
+        assertEquals(2, endpointBalancer.getNumberOfEjections());
+        assertNull(endpointBalancer.select());
+        Thread.sleep(650);
+        probe = endpointBalancer.select();
+        assertEquals(a, probe.getEndpoint());
+        endpointBalancer.complete(probe, true);
+        assertEquals(1, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertEquals(a, endpointBalancer.select().getEndpoint());
+        assertEquals(a, endpointBalancer.select().getEndpoint());
+    }
+
+    
+    /**
+     * Test that the late results of the calls which were selected before the ejection neither take back the endpoint 
+     * nor eject it again after the probe
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void lateResultTest() throws Exception {
+        HttpEndpointBalancer.Endpoint a = new HttpEndpointBalancer.Endpoint(URI.create("http://a:8080"), 1);
+        HttpEndpointBalancer endpointBalancer = new HttpEndpointBalancer(List.of(a), HttpEndpointBalancer.ROUND_ROBIN, 1, 200);
+        HttpEndpointBalancer.Selection lateSuccess = endpointBalancer.select();
+        HttpEndpointBalancer.Selection lateFailure = endpointBalancer.select();
+        endpointBalancer.complete(endpointBalancer.select(), false);
+        assertEquals(1, endpointBalancer.getNumberOfEjections());
+        
+        // a late success after the ejection does not take back the endpoint and does not clear the pending probe
+        Thread.sleep(250);
+        HttpEndpointBalancer.Selection probe = endpointBalancer.select();
+        assertEquals(a, probe.getEndpoint());
+        assertEquals(lateSuccess.getGeneration() + 1, probe.getGeneration());
+        endpointBalancer.complete(lateSuccess, true);
+        assertEquals(0, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertNull(endpointBalancer.select());
+        
+        // the probe takes back the endpoint, a late failure afterwards does not eject it again
+        endpointBalancer.complete(probe, true);
+        assertEquals(1, endpointBalancer.getNumberOfAvailableEndpoints());
+        endpointBalancer.complete(lateFailure, false);
+        assertEquals(1, endpointBalancer.getNumberOfAvailableEndpoints());
+        assertEquals(1, endpointBalancer.getNumberOfEjections());
+        assertEquals(a, endpointBalancer.select().getEndpoint());
+    }
+}
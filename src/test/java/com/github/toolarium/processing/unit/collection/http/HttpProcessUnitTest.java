@@ -13,14 +13,23 @@ import com.github.toolarium.network.server.HttpServerFactory;
 import com.github.toolarium.network.server.IHttpServer;
 import com.github.toolarium.network.server.service.EchoService;
 import com.github.toolarium.processing.unit.collection.http.test.HttpTestProcessingUnitRunner;
+import com.github.toolarium.processing.unit.collection.http.test.SyntheticHttpServer;
 import com.github.toolarium.processing.unit.dto.Parameter;
 import com.github.toolarium.security.certificate.CertificateUtilFactory;
 import com.github.toolarium.security.keystore.ISecurityManagerProvider;
 import com.github.toolarium.security.keystore.SecurityManagerProviderFactory;
 import com.github.toolarium.security.pki.KeyConverterFactory;
 import com.github.toolarium.security.ssl.SSLContextFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.SSLContext;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -133,6 +142,685 @@ public class HttpProcessUnitTest {
     }
 
     
+    /**
+     * Http processing test with multiple requests in flight
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithMaxInFlight() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "10"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(10, persistence.getSize());
+        assertEquals(10, persistence.getNumberOfProcessedCalls());
+        while (persistence.getSize() > 0) {
+            assertEquals("echo", persistence.pop());
+        }
+        
+        LOG.debug(processRunner.toString());
+        assertEquals(processRunner.getSuspendCounter(), 0);
+        assertNotNull(processRunner.getProcessingUnitProgress());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfUnitsToProcess(), 10);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 10);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+        assertNotNull(processRunner.getStatusMessageList());
+    }
+
+    
+    /**
+     * Http processing test with the different executor strategies
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithExecutor() throws Exception {
+        for (String executor : new String[] {"shared", "virtual", "client", "caller"}) {
+            List<Parameter> parameterList = new ArrayList<Parameter>();
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "5"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "2"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.EXECUTOR_PARAMETER.getKey(), executor));
+            
+            HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+            processRunner.run(HttpProcessingUnit.class, parameterList);
+
+            HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+            assertEquals(5, persistence.getSize());
+            assertEquals("echo", persistence.pop());
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 5);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+        }
+    }
+
+    
+    /**
+     * Http processing test with multiple calls per cycle
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithCallsPerCycle() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "7"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), "3"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(7, persistence.getSize());
+        assertEquals(7, persistence.getNumberOfProcessedCalls());
+        
+        assertNotNull(processRunner.getProcessingUnitProgress());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfUnitsToProcess(), 7);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 7);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with failing and successful calls in the same cycle
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithPartialFailures() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/synthetic"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "40"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), "8"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_RETRIES_PARAMETER.getKey(), "0"));
+        
+        SyntheticHttpServer syntheticHttpServer = new SyntheticHttpServer().errorRatio(0.5);
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner(syntheticHttpServer);
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        // the failed calls of a cycle neither end the iteration early nor are they repeated
+        final long numberOfFailedCalls = syntheticHttpServer.getNumberOfErrorResponses();
+        assertTrue(numberOfFailedCalls > 0 && numberOfFailedCalls < 40, "" + numberOfFailedCalls);
+        assertEquals(40, syntheticHttpServer.getNumberOfRequests());
+        
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(40, persistence.getNumberOfProcessedCalls());
+        assertEquals(40 - numberOfFailedCalls, persistence.getSize());
+        assertEquals(40, persistence.getCallCursor().getWatermark());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfUnitsToProcess(), 40);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 40);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), numberOfFailedCalls);
+    }
+
+    
+    /**
+     * Http processing test with the different response body modes
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void postHttpProcessingTestWithResponseBody() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER.getKey(), "TEST8"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), "bytes"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_RESPONSE_BODY_SIZE_PARAMETER.getKey(), "2"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        assertEquals(processRunner.run(HttpProcessingUnit.class, parameterList), 1);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(1, persistence.getSize());
+        assertEquals("TE", new String(persistence.popBytes()));
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 1);
+
+        parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER.getKey(), "TEST8"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), "discard"));
+        
+        processRunner = new HttpTestProcessingUnitRunner();
+        assertEquals(processRunner.run(HttpProcessingUnit.class, parameterList), 1);
+        assertEquals(0, processRunner.getProcessingPersistence().getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 1);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+
+        // the body is streamed into a file, the result is the path of the file
+        final Path responseBodyDirectory = Files.createTempDirectory("response");
+        parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER.getKey(), "TEST8"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), "file"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_DIRECTORY_PARAMETER.getKey(), responseBodyDirectory.toString()));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_RESPONSE_BODY_SIZE_PARAMETER.getKey(), "2"));
+        
+        try {
+            processRunner = new HttpTestProcessingUnitRunner();
+            assertEquals(processRunner.run(HttpProcessingUnit.class, parameterList), 1);
+            assertEquals(1, processRunner.getProcessingPersistence().getSize());
+            final Path responseBodyFile = Path.of(processRunner.getProcessingPersistence().pop());
+            assertEquals(responseBodyDirectory, responseBodyFile.getParent());
+            assertEquals("TEST8", Files.readString(responseBodyFile));
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+            Files.delete(responseBodyFile);
+        } finally {
+            Files.delete(responseBodyDirectory);
+        }
+    }
+
+    
+    /**
+     * Http processing test with a bounded persistence which is drained by a consumer while the processing unit is running
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithPersistenceCapacity() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "20"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "2"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PERSISTENCE_CAPACITY_PARAMETER.getKey(), "3"));
+        
+        final HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        final AtomicInteger numberOfConsumedResults = new AtomicInteger(0);
+        final AtomicReference<Throwable> consumerFailure = new AtomicReference<Throwable>();
+        Thread consumer = new Thread(() -> {
+            try {
+                HttpProcessingUnit.HttpResultPersistence persistence = null;
+                while (persistence == null) {
+                    try {
+                        persistence = processRunner.getProcessingPersistence();
+                    } catch (RuntimeException e) {
+                        // processing unit is not yet started
+                        Thread.sleep(10);
+                    }
+                }
+                
+                while (numberOfConsumedResults.get() < 20) {
+                    final int size = persistence.getSize();
+                    if (size > 3) {
+                        throw new AssertionError("Persistence capacity exceeded: " + size);
+                    }
+                    
+                    if (persistence.poll(1000) != null) {
+                        numberOfConsumedResults.incrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // NOP, the test is finished
+            } catch (Throwable e) {
+                consumerFailure.set(e);
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+        consumer.join(10000);
+        consumer.interrupt();
+
+        if (consumerFailure.get() != null) {
+            throw new AssertionError("Consumer failed: " + consumerFailure.get().getMessage(), consumerFailure.get());
+        }
+        assertEquals(20, numberOfConsumedResults.get());
+        assertEquals(0, processRunner.getProcessingPersistence().getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 20);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with the response body mode digest
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void postHttpProcessingTestWithDigest() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_PARAMETER.getKey(), "TEST9"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "2"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_BODY_PARAMETER.getKey(), "digest"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.DIGEST_ALGORITHM_PARAMETER.getKey(), "SHA-256"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(2, persistence.getSize());
+        HttpResultDigest digest = persistence.popDigest();
+        assertEquals(200, digest.getStatusCode());
+        assertEquals(5, digest.getBodyLength());
+        assertTrue(digest.getLatency() > 0);
+        assertEquals(32, digest.getDigest().length);
+        assertEquals(digest.getDigestAsHex(), persistence.popDigest().getDigestAsHex());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 2);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with an adaptive concurrency
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithAdaptiveConcurrency() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "50"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "8"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.ADAPTIVE_CONCURRENCY_PARAMETER.getKey(), "true"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), "10"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(50, persistence.getSize());
+        assertEquals(50, persistence.getNumberOfProcessedCalls());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 50);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with an open loop arrival rate
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithTargetRequestsPerSecond() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "20"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.TARGET_REQUESTS_PER_SECOND_PARAMETER.getKey(), "100"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        long start = System.currentTimeMillis();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+        assertTrue(System.currentTimeMillis() - start >= 190);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(20, persistence.getSize());
+        assertEquals(20, persistence.getNumberOfProcessedCalls());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 20);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Test with a fractional target requests per second
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithFractionalTargetRequestsPerSecond() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "3"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.TARGET_REQUESTS_PER_SECOND_PARAMETER.getKey(), "12.5"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        long start = System.currentTimeMillis();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+        assertTrue(System.currentTimeMillis() - start >= 155);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(3, persistence.getNumberOfProcessedCalls());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with an input file
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void postHttpProcessingTestWithInputFile() throws Exception {
+        Path inputFile = Files.createTempFile("requests", ".jsonl");
+        try {
+            Files.write(inputFile, "{\"body\": \"A\"}\n{\"body\": \"BB\"}\n\n{\"body\": \"CCC\"}\n".getBytes(StandardCharsets.UTF_8));
+            
+            List<Parameter> parameterList = new ArrayList<Parameter>();
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.INPUT_FILE_PARAMETER.getKey(), inputFile.toString()));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "2"));
+            
+            HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+            processRunner.run(HttpProcessingUnit.class, parameterList);
+    
+            HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+            assertEquals(3, persistence.getSize());
+            assertEquals(3, persistence.getCallCursor().getWatermark());
+            int length = 0;
+            while (persistence.getSize() > 0) {
+                length += persistence.pop().length();
+            }
+            assertEquals(6, length);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfUnitsToProcess(), 3);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 3);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        } finally {
+            Files.deleteIfExists(inputFile);
+        }
+    }
+
+    
+    /**
+     * Http post processing test with a body file
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void postHttpProcessingTestWithBodyFile() throws Exception {
+        Path bodyFile = Files.createTempFile("body", ".txt");
+        try {
+            Files.write(bodyFile, "0123456789".repeat(20_000).getBytes(StandardCharsets.UTF_8));
+            
+            List<Parameter> parameterList = new ArrayList<Parameter>();
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_METHOD_PARAMETER.getKey(), "POST"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.REQUEST_BODY_FILE_PARAMETER.getKey(), bodyFile.toString()));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "3"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "3"));
+            
+            HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+            processRunner.run(HttpProcessingUnit.class, parameterList);
+    
+            HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+            assertEquals(3, persistence.getSize());
+            while (persistence.getSize() > 0) {
+                assertEquals(200_000, persistence.pop().length());
+            }
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 3);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        } finally {
+            Files.deleteIfExists(bodyFile);
+        }
+    }
+
+    
+    /**
+     * Http processing test with a cache file
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithCache() throws Exception {
+        Path cacheFile = Files.createTempFile("cache", ".bin");
+        Files.delete(cacheFile);
+        try {
+            List<Parameter> parameterList = new ArrayList<Parameter>();
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "5"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.CACHE_PARAMETER.getKey(), "true"));
+            parameterList.add(new Parameter(HttpProcessingUnitConstants.CACHE_FILE_PARAMETER.getKey(), cacheFile.toString()));
+            
+            HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+            processRunner.run(HttpProcessingUnit.class, parameterList);
+    
+            HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+            assertEquals(5, persistence.getSize());
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 5);
+            assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+            
+            // the cache is written at the end
+            assertTrue(Files.exists(cacheFile));
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    
+    /**
+     * Http processing test against the synthetic load target
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithSyntheticServer() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/synthetic"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "20"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        
+        SyntheticHttpServer syntheticHttpServer = new SyntheticHttpServer().latency(5, 20).responseSize(4096).slowDrip(1024, 1).maxConcurrency(8);
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner(syntheticHttpServer);
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(20, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 20);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        assertEquals(20, syntheticHttpServer.getNumberOfRequests());
+        assertEquals(0, syntheticHttpServer.getNumberOfRejectedRequests());
+        assertTrue(syntheticHttpServer.getMaxNumberOfConcurrentRequests() <= 4);
+    }
+
+    
+    /**
+     * Http processing test with lanes and a suspend / resume
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithLanes() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "30"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.CALLS_PER_CYCLE_PARAMETER.getKey(), "2"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.LANES_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.LANE_EXECUTOR_PARAMETER.getKey(), "virtual"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.runWithSuspendAndResume(HttpProcessingUnit.class, parameterList, 2, 10, 2);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(30, persistence.getSize());
+        assertEquals(30, persistence.getNumberOfProcessedCalls());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 30);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        assertEquals(4, persistence.getLaneList().size());
+        for (HttpCallLane lane : persistence.getLaneList()) {
+            assertTrue(lane.isCompleted());
+            assertEquals(lane.getEnd() - lane.getStart(), lane.getNumberOfProcessedCalls());
+        }
+    }
+
+    
+    /**
+     * Http processing test with a response handler
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithResponseHandler() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "20"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_PARAMETER.getKey(), StatusResponseHandler.class.getName()));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_POOL_SIZE_PARAMETER.getKey(), "2"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(20, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 20);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        
+        // the handler result replaces the response body
+        while (persistence.getSize() > 0) {
+            assertTrue(persistence.pop().startsWith("200:"));
+        }
+    }
+
+    
+    /**
+     * Http processing test with a response handler in lanes: a handled call with an unexpected response code is failed
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithResponseHandlerAndFailures() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/synthetic"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "40"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.LANES_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_RETRIES_PARAMETER.getKey(), "0"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_PARAMETER.getKey(), StatusResponseHandler.class.getName()));
+        
+        SyntheticHttpServer syntheticHttpServer = new SyntheticHttpServer().errorRatio(0.5);
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner(syntheticHttpServer);
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        final long numberOfFailedCalls = syntheticHttpServer.getNumberOfErrorResponses();
+        assertTrue(numberOfFailedCalls > 0 && numberOfFailedCalls < 40, "" + numberOfFailedCalls);
+        
+        // the handler result of every call is kept, the calls with an error response are failed
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(40, persistence.getNumberOfProcessedCalls());
+        assertEquals(40, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 40);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), numberOfFailedCalls);
+    }
+
+    
+    /**
+     * Http processing test with a response handler which reads the body while it is received
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithStreamingResponseHandler() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "20"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_PARAMETER.getKey(), StatusResponseHandler.class.getName()));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.RESPONSE_HANDLER_STREAMING_PARAMETER.getKey(), "true"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(20, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 20);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
+        while (persistence.getSize() > 0) {
+            assertTrue(persistence.pop().startsWith("200:"));
+        }
+    }
+
+    
+    /**
+     * Http processing test with an endpoint
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithEndpoints() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "10"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "2"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.ENDPOINT_PARAMETER.getKey(), "http://127.0.0.1:" + port + "|2"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.ENDPOINT_BALANCING_PARAMETER.getKey(), "weighted"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(10, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 10);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
+    /**
+     * Http processing test with a warm-up of the connections
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void getHttpProcessingTestWithWarmUp() throws Exception {
+        List<Parameter> parameterList = new ArrayList<Parameter>();
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PROTOCOL_PARAMETER.getKey(), "http")); // default is https
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PORT_PARAMETER.getKey(), "" + ++port));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.PATH_PARAMETER.getKey(), "/echo"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.NUMBER_OF_CALLS_PARAMTER.getKey(), "10"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.MAX_IN_FLIGHT_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.WARM_UP_CONNECTIONS_PARAMETER.getKey(), "4"));
+        parameterList.add(new Parameter(HttpProcessingUnitConstants.WARM_UP_METHOD_PARAMETER.getKey(), "GET"));
+        
+        HttpTestProcessingUnitRunner processRunner = new HttpTestProcessingUnitRunner();
+        processRunner.run(HttpProcessingUnit.class, parameterList);
+
+        // the warm-up calls are neither counted nor persisted
+        HttpProcessingUnit.HttpResultPersistence persistence = processRunner.getProcessingPersistence();
+        assertEquals(10, persistence.getSize());
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfProcessedUnits(), 10);
+        assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0); 
+    }
+
+    
     /**
      * Https processing test
      *
@@ -334,4 +1022,18 @@ public class HttpProcessUnitTest {
         assertEquals(processRunner.getProcessingUnitProgress().getNumberOfFailedUnits(), 0);
         assertNotNull(processRunner.getStatusMessageList());
     }
+
+    
+    /**
+     * The response handler of the test: the result is the status code and the body length
+     */
+    public static class StatusResponseHandler implements IHttpResponseHandler {
+        /**
+         * @see com.github.toolarium.processing.unit.collection.http.IHttpResponseHandler#handle(long, int, java.net.http.HttpHeaders, java.io.InputStream)
+         */
+        @Override
+        public byte[] handle(long callIndex, int statusCode, HttpHeaders headers, InputStream body) throws IOException {
+            return (statusCode + ":" + body.readAllBytes().length).getBytes(StandardCharsets.UTF_8);
+        }
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * HttpProcessingUnitUtilTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpProcessingUnitUtil}.
+ *  
+ * @author patrick
+ */
+public class HttpProcessingUnitUtilTest {
+
+    /**
+     * Test the certificate fingerprint which is the key of the ssl context cache
+     */
+    @Test
+    public void fingerprintTest() {
+        assertEquals("", HttpProcessingUnitUtil.getInstance().getFingerprint(null));
+        assertEquals("", HttpProcessingUnitUtil.getInstance().getFingerprint(" "));
+        
+        String fingerprint = HttpProcessingUnitUtil.getInstance().getFingerprint("-----BEGIN PKCS7-----\nMIIB\n-----END PKCS7-----\n");
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, HttpProcessingUnitUtil.getInstance().getFingerprint("-----BEGIN PKCS7-----\r\n  MIIB\r\n-----END PKCS7-----"));
+        assertFalse(fingerprint.equals(HttpProcessingUnitUtil.getInstance().getFingerprint("-----BEGIN PKCS7-----\nMIIC\n-----END PKCS7-----\n")));
+    }
+}
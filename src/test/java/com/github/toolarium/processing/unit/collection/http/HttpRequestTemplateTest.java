@@ -0,0 +1,172 @@
+/*
+ * HttpRequestTemplateTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpRequestTemplate}: the prebuilt request has to be the same as the one of the former per call builder.
+ *
+ * @author patrick
+ */
+public class HttpRequestTemplateTest {
+    private static final URI REQUEST_URI = URI.create("http://localhost:8080/test?a=1");
+    private static final String[] HEADERS = new String[] {"Content-Type", "application/json", "X-Test", "1", "X-Test", "2"};
+    private static final String BODY = "{\"a\":\"ä\"}";
+    private static final Duration TIMEOUT = Duration.ofSeconds(7);
+
+
+    /**
+     * Test the request of all methods against the former per call builder
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void compareTest() throws Exception {
+        for (String method : new String[] {"GET", "DELETE", "POST", "PUT", "patch"}) {
+            BodyPublisher requestBody = null;
+            if (!"GET".equalsIgnoreCase(method) && !"DELETE".equalsIgnoreCase(method)) {
+                requestBody = HttpRequest.BodyPublishers.ofString(BODY);
+            }
+
+            final HttpRequestTemplate httpRequestTemplate = new HttpRequestTemplate(REQUEST_URI, method, requestBody, HEADERS, TIMEOUT, HttpClient.Version.HTTP_1_1);
+            assertRequest(createHttpRequest(method), httpRequestTemplate.getHttpRequest(), method);
+        }
+    }
+
+
+    /**
+     * Test that the template is immutable and creates requests with different settings
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void newHttpRequestTest() throws Exception {
+        final String[] headers = HEADERS.clone();
+        final HttpRequestTemplate httpRequestTemplate = new HttpRequestTemplate(REQUEST_URI, "get", null, headers, null, HttpClient.Version.HTTP_2);
+        headers[1] = "text/plain";
+
+        assertSame(httpRequestTemplate.getHttpRequest(), httpRequestTemplate.getHttpRequest());
+        assertEquals("GET", httpRequestTemplate.getRequestMethod());
+        assertEquals("application/json", httpRequestTemplate.getHttpRequest().headers().firstValue("Content-Type").get());
+        assertFalse(httpRequestTemplate.getHttpRequest().timeout().isPresent());
+        assertEquals(HttpClient.Version.HTTP_2, httpRequestTemplate.getHttpRequest().version().get());
+
+        final HttpRequest httpRequest = httpRequestTemplate.newHttpRequest(URI.create("http://localhost:8080/other"), "post", HttpRequest.BodyPublishers.ofString(BODY), new String[] {"X-Id", "3"});
+        assertNotSame(httpRequestTemplate.getHttpRequest(), httpRequest);
+        assertEquals("POST", httpRequest.method());
+        assertEquals(URI.create("http://localhost:8080/other"), httpRequest.uri());
+        assertEquals("3", httpRequest.headers().firstValue("X-Id").get());
+        assertEquals(2, httpRequest.headers().allValues("X-Test").size());
+        assertEquals(BODY, readBody(httpRequest));
+    }
+
+
+    /**
+     * Compare two requests
+     *
+     * @param expected the expected request
+     * @param httpRequest the request
+     * @param message the message
+     * @throws Exception In case the body can not be read
+     */
+    private static void assertRequest(HttpRequest expected, HttpRequest httpRequest, String message) throws Exception {
+        assertEquals(expected.method(), httpRequest.method(), message);
+        assertEquals(expected.uri(), httpRequest.uri(), message);
+        assertEquals(expected.headers().map(), httpRequest.headers().map(), message);
+        assertEquals(expected.timeout(), httpRequest.timeout(), message);
+        assertEquals(expected.version(), httpRequest.version(), message);
+        assertEquals(expected.expectContinue(), httpRequest.expectContinue(), message);
+        assertEquals(expected.bodyPublisher().isPresent(), httpRequest.bodyPublisher().isPresent(), message);
+        assertEquals(expected.bodyPublisher().map(BodyPublisher::contentLength), httpRequest.bodyPublisher().map(BodyPublisher::contentLength), message);
+        assertEquals(readBody(expected), readBody(httpRequest), message);
+    }
+
+
+    /**
+     * Create the request as the former per call builder did
+     *
+     * @param requestMethod the request method
+     * @return the request
+     */
+    private static HttpRequest createHttpRequest(String requestMethod) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(REQUEST_URI);
+        if (requestMethod.equalsIgnoreCase("GET")) {
+            builder.GET();
+        } else if (requestMethod.equalsIgnoreCase("DELETE")) {
+            builder.DELETE();
+        } else if (requestMethod.equalsIgnoreCase("POST")) {
+            builder.POST(HttpRequest.BodyPublishers.ofString(BODY));
+        } else if (requestMethod.equalsIgnoreCase("PUT")) {
+            builder.PUT(HttpRequest.BodyPublishers.ofString(BODY));
+        } else {
+            builder.method(requestMethod.toUpperCase(), HttpRequest.BodyPublishers.ofString(BODY));
+        }
+
+        builder.headers(HEADERS);
+        builder.timeout(TIMEOUT);
+        return builder.version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+
+    /**
+     * Read the body of a request
+     *
+     * @param httpRequest the request
+     * @return the body or null in case the request has no body publisher
+     * @throws Exception In case the body can not be read
+     */
+    private static String readBody(HttpRequest httpRequest) throws Exception {
+        if (httpRequest.bodyPublisher().isEmpty()) {
+            return null;
+        }
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final CompletableFuture<String> result = new CompletableFuture<String>();
+        httpRequest.bodyPublisher().get().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                final byte[] content = new byte[item.remaining()];
+                item.get(content);
+                body.write(content, 0, content.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(new String(body.toByteArray(), StandardCharsets.UTF_8));
+            }
+        });
+
+        return result.get(10, TimeUnit.SECONDS);
+    }
+}
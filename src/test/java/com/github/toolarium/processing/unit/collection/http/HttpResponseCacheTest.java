@@ -0,0 +1,285 @@
+/*
+ * HttpResponseCacheTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import javax.net.ssl.SSLSession;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpResponseCache}.
+ *
+ * @author patrick
+ */
+public class HttpResponseCacheTest {
+    private static final URI RESOURCE_URI = URI.create("http://localhost/resource");
+
+
+    /**
+     * Test the conditional request and the 304 response
+     *
+     * @throws Exception In case of an error
+     */
+    @Test
+    public void conditionalRequestTest() throws Exception {
+        final HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        final List<HttpRequest> requestList = new ArrayList<HttpRequest>();
+        final HttpRequest request = HttpRequest.newBuilder(RESOURCE_URI).GET().build();
+
+        // miss: the response is cached by its validator
+        HttpResponse<HttpResponseBody> response = cache.sendAsync(request, r -> respond(requestList, r, 200, "\"v1\"", "content")).get();
+        assertEquals(200, response.statusCode());
+        assertFalse(requestList.get(0).headers().firstValue("If-None-Match").isPresent());
+        assertEquals(1, cache.getNumberOfMisses());
+        assertEquals(1, cache.getNumberOfEntries());
+
+        // hit: the request is conditional and the body is served from the cache
+        response = cache.sendAsync(request, r -> respond(requestList, r, 304, "\"v1\"", "")).get();
+        assertEquals(200, response.statusCode());
+        assertEquals("\"v1\"", requestList.get(1).headers().firstValue("If-None-Match").orElse(null));
+        assertArrayEquals("content".getBytes(StandardCharsets.UTF_8), response.body().getContent());
+        assertEquals(0, response.body().getReceivedBytes());
+        assertEquals(1, cache.getNumberOfHits());
+        assertEquals(1, cache.getNumberOfRevalidations());
+
+        // changed: the new content replaces the cached one
+        response = cache.sendAsync(request, r -> respond(requestList, r, 200, "\"v2\"", "changed")).get();
+        assertArrayEquals("changed".getBytes(StandardCharsets.UTF_8), response.body().getContent());
+        assertEquals("\"v2\"", cache.get(RESOURCE_URI.toString()).getEntityTag());
+        assertEquals(1, cache.getNumberOfHits());
+        assertEquals(2, cache.getNumberOfRevalidations());
+
+        // a response without validator is not cached
+        final HttpRequest otherRequest = HttpRequest.newBuilder(RESOURCE_URI.resolve("/other")).GET().build();
+        cache.sendAsync(otherRequest, r -> respond(requestList, r, 200, null, "other")).get();
+        assertNull(cache.get(otherRequest.uri().toString()));
+    }
+
+
+    /**
+     * Test a cached response whose body is discarded and only its digest is kept
+     *
+     * @throws Exception In case of an error
+     */
+    @Test
+    public void digestTest() throws Exception {
+        final HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        final HttpRequest request = HttpRequest.newBuilder(RESOURCE_URI).GET().build();
+        final byte[] digest = new byte[] {1, 2, 3, 4};
+        final Map<String, List<String>> headerMap = Map.of("ETag", List.of("\"v1\""));
+        HttpResponse<HttpResponseBody> response = cache.sendAsync(request, r -> CompletableFuture.completedFuture(
+                new TestHttpResponse(r, 200, HttpHeaders.of(headerMap, (name, value) -> true), new HttpResponseBody(null, 50, 120, false, digest)))).get();
+        assertEquals(120, response.body().getDecodedBytes());
+        assertEquals(120, cache.get(RESOURCE_URI.toString()).getLength());
+
+        // the length and the digest of the 304 response are the ones of the cached body
+        response = cache.sendAsync(request, r -> respond(new ArrayList<HttpRequest>(), r, 304, "\"v1\"", "")).get();
+        assertEquals(200, response.statusCode());
+        assertEquals(0, response.body().getContent().length);
+        assertEquals(0, response.body().getReceivedBytes());
+        assertEquals(120, response.body().getDecodedBytes());
+        assertArrayEquals(digest, response.body().getDigest());
+        assertEquals(1, cache.getNumberOfHits());
+    }
+
+
+    /**
+     * Test the LRU eviction
+     */
+    @Test
+    public void evictionTest() {
+        final HttpResponseCache cache = new HttpResponseCache(3 * 1024);
+        final byte[] content = new byte[800];
+        for (int i = 0; i < 3; i++) {
+            cache.put("key" + i, new HttpResponseCache.Entry("\"" + i + "\"", null, content, null));
+        }
+        assertEquals(3, cache.getNumberOfEntries());
+
+        // the access marks key0 as recently used, key1 is evicted
+        assertNotNull(cache.get("key0"));
+        cache.put("key3", new HttpResponseCache.Entry("\"3\"", null, content, null));
+        assertEquals(3, cache.getNumberOfEntries());
+        assertNull(cache.get("key1"));
+        assertNotNull(cache.get("key0"));
+        assertTrue(cache.getSize() <= 3 * 1024);
+
+        // an entry which is larger than the cache is not kept
+        cache.put("large", new HttpResponseCache.Entry("\"large\"", null, new byte[4096], null));
+        assertNull(cache.get("large"));
+    }
+
+
+    /**
+     * Test the cache file
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void fileTest() throws IOException {
+        final Path file = Files.createTempFile("cache", ".bin");
+        try {
+            final HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+            cache.put("a", new HttpResponseCache.Entry("\"a\"", null, "A".getBytes(StandardCharsets.UTF_8), null));
+            cache.put("b", new HttpResponseCache.Entry(null, "Wed, 21 Oct 2015 07:28:00 GMT", "B".getBytes(StandardCharsets.UTF_8), new byte[] {1, 2, 3, 4}));
+            cache.put("c", new HttpResponseCache.Entry("\"c\"", null, null, new byte[] {5, 6}, 4096));
+            cache.write(file);
+
+            final HttpResponseCache readCache = new HttpResponseCache(1024 * 1024);
+            readCache.read(file);
+            assertEquals(3, readCache.getNumberOfEntries());
+            assertEquals(cache.getSize(), readCache.getSize());
+            assertEquals("\"a\"", readCache.get("a").getEntityTag());
+            assertNull(readCache.get("a").getDigest());
+            assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", readCache.get("b").getLastModified());
+            assertArrayEquals("B".getBytes(StandardCharsets.UTF_8), readCache.get("b").getContent());
+            assertArrayEquals(new byte[] {1, 2, 3, 4}, readCache.get("b").getDigest());
+            assertEquals(1, readCache.get("b").getLength());
+            assertEquals(0, readCache.get("c").getContent().length);
+            assertEquals(4096, readCache.get("c").getLength());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    /**
+     * Create a completed response
+     *
+     * @param requestList the list of the sent requests
+     * @param request the request
+     * @param statusCode the status code
+     * @param entityTag the entity tag or null
+     * @param content the content
+     * @return the response
+     */
+    private CompletableFuture<HttpResponse<HttpResponseBody>> respond(List<HttpRequest> requestList, HttpRequest request, int statusCode, String entityTag, String content) {
+        requestList.add(request);
+        final Map<String, List<String>> headerMap = (entityTag != null) ? Map.of("ETag", List.of(entityTag)) : Map.of();
+        final byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        return CompletableFuture.completedFuture(new TestHttpResponse(request, statusCode, HttpHeaders.of(headerMap, (name, value) -> true),
+                                                                      new HttpResponseBody(body, body.length, false, null)));
+    }
+
+
+    /**
+     * A response of the test
+     */
+    private static class TestHttpResponse implements HttpResponse<HttpResponseBody> {
+        private final HttpRequest request;
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final HttpResponseBody body;
+
+
+        /**
+         * Constructor for TestHttpResponse
+         *
+         * @param request the request
+         * @param statusCode the status code
+         * @param headers the headers
+         * @param body the body
+         */
+        TestHttpResponse(HttpRequest request, int statusCode, HttpHeaders headers, HttpResponseBody body) {
+            this.request = request;
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#statusCode()
+         */
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#request()
+         */
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#previousResponse()
+         */
+        @Override
+        public Optional<HttpResponse<HttpResponseBody>> previousResponse() {
+            return Optional.empty();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#headers()
+         */
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#body()
+         */
+        @Override
+        public HttpResponseBody body() {
+            return body;
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#sslSession()
+         */
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#uri()
+         */
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+
+        /**
+         * @see java.net.http.HttpResponse#version()
+         */
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * HttpRetryPolicyTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link HttpRetryPolicy}.
+ *  
+ * @author patrick
+ */
+public class HttpRetryPolicyTest {
+
+    /**
+     * Test the retryable conditions
+     */
+    @Test
+    public void retryableTest() {
+        HttpRetryPolicy retryPolicy = new HttpRetryPolicy(3, new int[] {503, 429}, 10, 100);
+        assertTrue(retryPolicy.isRetryable(429));
+        assertTrue(retryPolicy.isRetryable(503));
+        assertFalse(retryPolicy.isRetryable(404));
+        assertTrue(retryPolicy.isRetryable(new HttpTimeoutException("timeout")));
+        assertTrue(retryPolicy.isRetryable(new ExecutionException(new IOException("reset"))));
+        assertFalse(retryPolicy.isRetryable(new IllegalStateException("failure")));
+    }
+
+    
+    /**
+     * Test the backoff delay
+     */
+    @Test
+    public void delayTest() {
+        HttpRetryPolicy retryPolicy = new HttpRetryPolicy(100, new int[0], 10, 1000);
+        for (int attempt = 0; attempt < 100; attempt++) {
+            long delay = retryPolicy.getDelay(attempt, null);
+            assertTrue(delay >= 0);
+            assertTrue(delay <= Math.min(1000, 10L << Math.min(attempt, 20)));
+        }
+
+        assertEquals(-1, HttpRetryPolicy.parseRetryAfter(Optional.empty()));
+        assertEquals(-1, HttpRetryPolicy.parseRetryAfter(Optional.of("invalid")));
+        assertEquals(5000, HttpRetryPolicy.parseRetryAfter(Optional.of(" 5")));
+        long delay = HttpRetryPolicy.parseRetryAfter(Optional.of(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30))));
+        assertTrue(delay > 25000 && delay <= 30000);
+    }
+
+    
+    /**
+     * Test the asynchronous retry
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void sendAsyncTest() throws Exception {
+        HttpRetryPolicy retryPolicy = new HttpRetryPolicy(3, new int[0], 1, 10);
+        AtomicInteger numberOfAttempts = new AtomicInteger();
+        CompletableFuture<HttpResponse<String>> future = retryPolicy.sendAsync(() -> {
+            if (numberOfAttempts.incrementAndGet() < 3) {
+                return CompletableFuture.failedFuture(new IOException("connection reset"));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        assertNull(future.get());
+        assertEquals(3, numberOfAttempts.get());
+        assertEquals(2, retryPolicy.getNumberOfRetries());
+
+        numberOfAttempts.set(0);
+        future = retryPolicy.sendAsync(() -> {
+            numberOfAttempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("connection refused"));
+        });
+        CompletableFuture<HttpResponse<String>> failedFuture = future;
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failedFuture.get());
+        assertTrue(e.getCause() instanceof IOException);
+        assertEquals(4, numberOfAttempts.get());
+
+        numberOfAttempts.set(0);
+        future = retryPolicy.sendAsync(() -> {
+            numberOfAttempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("invalid"));
+        });
+        CompletableFuture<HttpResponse<String>> notRetriedFuture = future;
+        assertThrows(ExecutionException.class, () -> notRetriedFuture.get());
+        assertEquals(1, numberOfAttempts.get());
+    }
+
+    
+    /**
+     * Test the cancellation of a call: the pending attempt is cancelled and no retry is sent
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void cancelTest() throws Exception {
+        HttpRetryPolicy retryPolicy = new HttpRetryPolicy(3, new int[0], 1, 10);
+        final CompletableFuture<HttpResponse<String>> attempt = new CompletableFuture<HttpResponse<String>>();
+        CompletableFuture<HttpResponse<String>> future = retryPolicy.sendAsync(() -> attempt);
+        future.cancel(true);
+        assertTrue(attempt.isCancelled());
+
+        retryPolicy = new HttpRetryPolicy(3, new int[0], 60000, 60000);
+        AtomicInteger numberOfAttempts = new AtomicInteger();
+        future = retryPolicy.sendAsync(() -> {
+            numberOfAttempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("connection reset"));
+        });
+        assertEquals(1, retryPolicy.getNumberOfRetries());
+        future.cancel(true);
+        Thread.sleep(100);
+        assertEquals(1, numberOfAttempts.get());
+        assertTrue(future.isCancelled());
+    }
+}
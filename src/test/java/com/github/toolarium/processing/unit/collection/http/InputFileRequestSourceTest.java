@@ -0,0 +1,143 @@
+/*
+ * InputFileRequestSourceTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link InputFileRequestSource}.
+ *  
+ * @author patrick
+ */
+public class InputFileRequestSourceTest {
+
+    /**
+     * Test a CSV input file
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void csvTest() throws Exception {
+        Path inputFile = Files.createTempFile("requests", ".csv");
+        try {
+            Files.write(inputFile, "method,path,body,X-Test\r\nPOST,/echo,\"a,\"\"b\"\"\",1\r\n\r\nGET,other,,\n".getBytes(StandardCharsets.UTF_8));
+            try (InputFileRequestSource requestSource = new InputFileRequestSource(inputFile, InputFileRequestSource.FORMAT_CSV)) {
+                assertEquals(2, requestSource.getNumberOfRequests());
+                assertEquals(25, requestSource.getOffset(0));
+                
+                Map<String, String> fields = requestSource.getRequest(0);
+                assertEquals("POST", fields.get("method"));
+                assertEquals("a,\"b\"", fields.get("body"));
+                assertEquals("1", fields.get("X-Test"));
+                
+                HttpRequestTemplate httpRequestTemplate = new HttpRequestTemplate(URI.create("http://localhost:8080/base?y=2"), "GET", null, null, Duration.ofSeconds(10), HttpClient.Version.HTTP_1_1);
+                HttpRequest httpRequest = requestSource.createHttpRequest(0, httpRequestTemplate);
+                assertEquals("POST", httpRequest.method());
+                assertEquals(URI.create("http://localhost:8080/echo?y=2"), httpRequest.uri());
+                assertEquals("1", httpRequest.headers().firstValue("X-Test").get());
+                
+                httpRequest = requestSource.createHttpRequest(1, httpRequestTemplate);
+                assertEquals("GET", httpRequest.method());
+                assertEquals(URI.create("http://localhost:8080/other?y=2"), httpRequest.uri());
+                assertTrue(httpRequest.headers().firstValue("X-Test").isEmpty());
+                assertThrows(IOException.class, () -> requestSource.getRequest(2));
+            }
+        } finally {
+            Files.deleteIfExists(inputFile);
+        }
+    }
+
+    
+    /**
+     * Test the resume at the position of a request
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void positionTest() throws Exception {
+        Path inputFile = Files.createTempFile("requests", ".csv");
+        try {
+            Files.write(inputFile, "path\n/a\n/b\n\n/c\n/d\n".getBytes(StandardCharsets.UTF_8));
+            InputFileRequestSource.Position position;
+            try (InputFileRequestSource requestSource = new InputFileRequestSource(inputFile, InputFileRequestSource.FORMAT_CSV)) {
+                assertEquals(4, requestSource.getNumberOfRequests());
+                position = requestSource.getPosition(2);
+                assertEquals(2, position.getIndex());
+                assertEquals(12, position.getOffset());
+                assertEquals(Files.size(inputFile), position.getFileSize());
+                assertEquals(Files.size(inputFile), requestSource.getOffset(4));
+            }
+            
+            // the index starts at the offset of the position, the requests before are not available
+            try (InputFileRequestSource requestSource = new InputFileRequestSource(inputFile, InputFileRequestSource.FORMAT_CSV)) {
+                requestSource.index(position);
+                assertEquals(4, requestSource.getNumberOfRequests());
+                assertEquals("/c", requestSource.getRequest(2).get("path"));
+                assertEquals("/d", requestSource.getRequest(3).get("path"));
+                assertEquals(-1, requestSource.getOffset(1));
+                assertThrows(IOException.class, () -> requestSource.getRequest(1));
+            }
+
+            // a changed file can not be resumed
+            Files.write(inputFile, "path\n/a\n/b\n\n/c\n/d\n/e\n".getBytes(StandardCharsets.UTF_8));
+            final InputFileRequestSource.Position changedPosition = position;
+            try (InputFileRequestSource requestSource = new InputFileRequestSource(inputFile, InputFileRequestSource.FORMAT_CSV)) {
+                assertThrows(IOException.class, () -> requestSource.index(changedPosition));
+            }
+        } finally {
+            Files.deleteIfExists(inputFile);
+        }
+    }
+
+    
+    /**
+     * Test a JSONL input file
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void jsonlTest() throws Exception {
+        Path inputFile = Files.createTempFile("requests", ".jsonl");
+        try {
+            Files.write(inputFile, ("{\"url\": \"http://localhost:9090/a\", \"body\": \"{\\\"x\\\":\\\"\\u00e4\\\"}\", \"X-Id\": 42, \"n\": null}\n"
+                                   + "{ }\n"
+                                   + "{\"query\": \"q=1\", \"X-Json\": {\"a\": [1, 2]}}").getBytes(StandardCharsets.UTF_8));
+            try (InputFileRequestSource requestSource = new InputFileRequestSource(inputFile, InputFileRequestSource.FORMAT_JSONL)) {
+                assertEquals(3, requestSource.getNumberOfRequests());
+                
+                Map<String, String> fields = requestSource.getRequest(0);
+                assertEquals("http://localhost:9090/a", fields.get("url"));
+                assertEquals("{\"x\":\"ä\"}", fields.get("body"));
+                assertEquals("42", fields.get("X-Id"));
+                assertEquals(3, fields.size());
+                assertEquals(0, requestSource.getRequest(1).size());
+                assertEquals("{\"a\": [1, 2]}", requestSource.getRequest(2).get("X-Json"));
+                
+                HttpRequestTemplate httpRequestTemplate = new HttpRequestTemplate(URI.create("http://localhost:8080/base"), "GET", null, null, null, HttpClient.Version.HTTP_1_1);
+                assertEquals(URI.create("http://localhost:9090/a"), requestSource.createHttpRequest(0, httpRequestTemplate).uri());
+                assertEquals(URI.create("http://localhost:8080/base?q=1"), requestSource.createHttpRequest(2, httpRequestTemplate).uri());
+            }
+            
+            assertThrows(IOException.class, () -> InputFileRequestSource.parseJsonLine("{\"a\": \"b\""));
+        } finally {
+            Files.deleteIfExists(inputFile);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * LatencyHistogramTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link LatencyHistogram}.
+ *  
+ * @author patrick
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Test the bucket boundaries
+     */
+    @Test
+    public void bucketTest() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.getIndex(value);
+            assertTrue(value <= LatencyHistogram.getHighestEquivalentValue(index));
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.getHighestEquivalentValue(index - 1));
+            }
+        }
+        
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getHighestEquivalentValue(LatencyHistogram.getIndex(Long.MAX_VALUE)));
+    }
+
+    
+    /**
+     * Test the percentiles against the exact values
+     */
+    @Test
+    public void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+        
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long)Math.exp(random.nextGaussian() * 2 + 14);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getTotalCount());
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[] {50.0, 90.0, 99.0, 99.9, 100.0}) {
+            long exact = values[(int)Math.ceil(percentile / 100.0 * values.length) - 1];
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact);
+            assertTrue((value - exact) <= exact / 60, "p" + percentile + ": " + value + " <> " + exact);
+        }
+        
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMax());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * MappedFileBodyPublisherTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link MappedFileBodyPublisher}.
+ *
+ * @author patrick
+ */
+public class MappedFileBodyPublisherTest {
+
+    /**
+     * Test the published content of independent subscriptions
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void publishTest() throws IOException {
+        final byte[] content = new byte[200_000];
+        new Random(42).nextBytes(content);
+        final Path file = Files.createTempFile("body", ".bin");
+        try {
+            Files.write(file, content);
+            final BodyPublisher publisher = MappedFileBodyPublisher.create(file);
+            assertTrue(publisher instanceof MappedFileBodyPublisher);
+            assertEquals(content.length, publisher.contentLength());
+
+            // the first subscriber requests all at once, the second one chunk after the other
+            final ChunkSubscriber all = new ChunkSubscriber(Long.MAX_VALUE);
+            final ChunkSubscriber single = new ChunkSubscriber(1);
+            publisher.subscribe(single);
+            publisher.subscribe(all);
+            assertTrue(all.isCompleted());
+            assertTrue(single.isCompleted());
+            assertArrayEquals(content, all.getContent());
+            assertArrayEquals(content, single.getContent());
+            assertTrue(single.getNumberOfChunks() > 1);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    /**
+     * Test an empty file
+     *
+     * @throws IOException In case of an error
+     */
+    @Test
+    public void emptyFileTest() throws IOException {
+        final Path file = Files.createTempFile("body", ".bin");
+        try {
+            final BodyPublisher publisher = MappedFileBodyPublisher.create(file);
+            assertEquals(0, publisher.contentLength());
+
+            final ChunkSubscriber subscriber = new ChunkSubscriber(1);
+            publisher.subscribe(subscriber);
+            assertTrue(subscriber.isCompleted());
+            assertEquals(0, subscriber.getNumberOfChunks());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    /**
+     * A subscriber which requests the next chunks from within onNext
+     */
+    private static class ChunkSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final long request;
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private Flow.Subscription subscription;
+        private int numberOfChunks;
+        private boolean completed;
+
+
+        /**
+         * Constructor for ChunkSubscriber
+         *
+         * @param request the number of requested items
+         */
+        ChunkSubscriber(long request) {
+            this.request = request;
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscriber#onSubscribe(java.util.concurrent.Flow.Subscription)
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(request);
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscriber#onNext(java.lang.Object)
+         */
+        @Override
+        public void onNext(ByteBuffer item) {
+            numberOfChunks++;
+            byte[] chunk = new byte[item.remaining()];
+            item.get(chunk);
+            content.write(chunk, 0, chunk.length);
+            if (request != Long.MAX_VALUE) {
+                subscription.request(request);
+            }
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscriber#onError(java.lang.Throwable)
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+
+        /**
+         * @see java.util.concurrent.Flow.Subscriber#onComplete()
+         */
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+
+        /**
+         * Get the content
+         *
+         * @return the content
+         */
+        byte[] getContent() {
+            return content.toByteArray();
+        }
+
+
+        /**
+         * Get the number of chunks
+         *
+         * @return the number of chunks
+         */
+        int getNumberOfChunks() {
+            return numberOfChunks;
+        }
+
+
+        /**
+         * Check if it is completed
+         *
+         * @return true if it is completed
+         */
+        boolean isCompleted() {
+            return completed;
+        }
+    }
+}
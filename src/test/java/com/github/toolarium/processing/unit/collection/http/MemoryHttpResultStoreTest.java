@@ -0,0 +1,89 @@
+/*
+ * MemoryHttpResultStoreTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link MemoryHttpResultStore}.
+ *  
+ * @author patrick
+ */
+public class MemoryHttpResultStoreTest {
+
+    /**
+     * Test the compact format with all options
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void serializationTest() throws Exception {
+        int uncompressedSize = 0;
+        for (boolean compress : new boolean[] {false, true}) {
+            for (boolean deduplicate : new boolean[] {false, true}) {
+                MemoryHttpResultStore store = new MemoryHttpResultStore(compress, deduplicate);
+                for (int i = 0; i < 1000; i++) {
+                    store.add(("result-" + (i % 10)).getBytes(StandardCharsets.UTF_8));
+                }
+                store.add(new byte[0]);
+                
+                byte[] snapshot = serialize(store);
+                if (!compress && !deduplicate) {
+                    uncompressedSize = snapshot.length;
+                } else {
+                    assertTrue(snapshot.length < uncompressedSize);
+                }
+
+                MemoryHttpResultStore resumedStore = deserialize(snapshot);
+                assertEquals(1001, resumedStore.size());
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals("result-" + (i % 10), new String(resumedStore.pop(), StandardCharsets.UTF_8));
+                }
+                assertEquals(0, resumedStore.pop().length);
+                assertEquals(0, resumedStore.size());
+            }
+        }
+    }
+
+    
+    /**
+     * Serialize a store
+     *
+     * @param store the store
+     * @return the serialized store
+     * @throws Exception In case of an exception
+     */
+    private byte[] serialize(MemoryHttpResultStore store) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+            objectOutputStream.writeObject(store);
+        }
+        return out.toByteArray();
+    }
+
+    
+    /**
+     * Deserialize a store
+     *
+     * @param snapshot the snapshot
+     * @return the store
+     * @throws Exception In case of an exception
+     */
+    private MemoryHttpResultStore deserialize(byte[] snapshot) throws Exception {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(snapshot))) {
+            return (MemoryHttpResultStore)objectInputStream.readObject();
+        }
+    }
+}
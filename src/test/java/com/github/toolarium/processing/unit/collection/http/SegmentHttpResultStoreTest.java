@@ -0,0 +1,195 @@
+/*
+ * SegmentHttpResultStoreTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link SegmentHttpResultStore}.
+ *  
+ * @author patrick
+ */
+public class SegmentHttpResultStoreTest {
+
+    /**
+     * Test the fifo behaviour in case results are spilled
+     */
+    @Test
+    public void spillTest() {
+        SegmentHttpResultStore store = new SegmentHttpResultStore("build/segment", 3, 1024);
+        for (int i = 0; i < 100; i++) {
+            store.add(("result-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        
+        assertEquals(100, store.size());
+        assertEquals(97, store.getNumberOfSpilledResults());
+        assertTrue(store.getNumberOfSegments() > 1);
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals("result-" + i, new String(store.pop(), StandardCharsets.UTF_8));
+        }
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.getNumberOfSegments());
+        store.clear();
+    }
+
+    
+    /**
+     * Test that the segment directory is removed as soon as the spilled results are consumed
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void cleanupTest() throws Exception {
+        Path baseDirectory = Files.createTempDirectory("segment");
+        try {
+            SegmentHttpResultStore store = new SegmentHttpResultStore(baseDirectory.toString(), 0, 1024);
+            for (int i = 0; i < 200; i++) {
+                store.add(("result-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            assertEquals(1, countFiles(baseDirectory));
+            
+            while (store.size() > 0) {
+                store.pop();
+            }
+            assertEquals(0, countFiles(baseDirectory));
+
+            // a cleared store leaves no files behind
+            store.add("result".getBytes(StandardCharsets.UTF_8));
+            assertEquals(1, countFiles(baseDirectory));
+            store.clear();
+            assertEquals(0, countFiles(baseDirectory));
+        } finally {
+            Files.deleteIfExists(baseDirectory);
+        }
+    }
+
+    
+    /**
+     * Test suspend and resume: only the references of the segments are serialized
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void serializationTest() throws Exception {
+        SegmentHttpResultStore store = new SegmentHttpResultStore("build/segment", 2, 1024);
+        for (int i = 0; i < 500; i++) {
+            store.add(("result-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals("result-" + i, new String(store.pop(), StandardCharsets.UTF_8));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+            objectOutputStream.writeObject(store);
+        }
+        assertTrue(out.size() < 4096);
+        
+        SegmentHttpResultStore resumedStore;
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            resumedStore = (SegmentHttpResultStore)objectInputStream.readObject();
+        }
+        
+        assertEquals(490, resumedStore.size());
+        for (int i = 10; i < 500; i++) {
+            assertEquals("result-" + i, new String(resumedStore.pop(), StandardCharsets.UTF_8));
+        }
+        resumedStore.clear();
+    }
+
+    
+    /**
+     * Test that a resume with a missing or truncated segment file fails instead of creating an empty segment
+     *
+     * @throws Exception In case of an exception
+     */
+    @Test
+    public void missingSegmentTest() throws Exception {
+        Path baseDirectory = Files.createTempDirectory("segment");
+        try {
+            SegmentHttpResultStore store = new SegmentHttpResultStore(baseDirectory.toString(), 0, 1024);
+            for (int i = 0; i < 200; i++) {
+                store.add(("result-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
+                objectOutputStream.writeObject(store);
+            }
+            
+            final Path segmentFile;
+            try (Stream<Path> stream = Files.walk(baseDirectory)) {
+                segmentFile = stream.filter(Files::isRegularFile).sorted().findFirst().get();
+            }
+            
+            // a truncated segment
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+                channel.truncate(16);
+            }
+            assertThrows(InvalidObjectException.class, () -> resume(out.toByteArray()));
+            
+            // a missing segment
+            Files.delete(segmentFile);
+            assertThrows(InvalidObjectException.class, () -> resume(out.toByteArray()));
+            assertFalse(Files.exists(segmentFile));
+            store.clear();
+        } finally {
+            try (Stream<Path> stream = Files.walk(baseDirectory)) {
+                stream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+
+    /**
+     * Resume a store
+     *
+     * @param content the serialized store
+     * @return the store
+     * @throws Exception In case of an exception
+     */
+    private SegmentHttpResultStore resume(byte[] content) throws Exception {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(content))) {
+            return (SegmentHttpResultStore)objectInputStream.readObject();
+        }
+    }
+
+    
+    /**
+     * Count the files of a directory
+     *
+     * @param directory the directory
+     * @return the number of files
+     * @throws IOException In case of an I/O error
+     */
+    private long countFiles(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.count();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * SyntheticHttpServerTest.java
+ *
+ * Copyright by toolarium, all rights reserved.
+ */
+package com.github.toolarium.processing.unit.collection.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.toolarium.processing.unit.collection.http.test.SyntheticHttpServer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Test the {@link SyntheticHttpServer}.
+ *
+ * @author patrick
+ */
+public class SyntheticHttpServerTest {
+    private static final int PORT = 18180;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+
+    /**
+     * Test the response size and the slow drip body
+     *
+     * @throws Exception In case of an error
+     */
+    @Test
+    public void responseTest() throws Exception {
+        final SyntheticHttpServer server = new SyntheticHttpServer().latency(10).responseSize(5000).slowDrip(1000, 5);
+        server.start(PORT, null);
+        try {
+            final long start = System.currentTimeMillis();
+            final HttpResponse<byte[]> response = send(PORT);
+            assertEquals(200, response.statusCode());
+            assertEquals(5000, response.body().length);
+            assertTrue(System.currentTimeMillis() - start >= 10 + 5 * 5);
+            assertEquals(1, server.getNumberOfRequests());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    /**
+     * Test the error, 429 and 503 ratios
+     *
+     * @throws Exception In case of an error
+     */
+    @Test
+    public void ratioTest() throws Exception {
+        SyntheticHttpServer server = new SyntheticHttpServer().errorRatio(1.0);
+        server.start(PORT + 1, null);
+        try {
+            assertEquals(500, send(PORT + 1).statusCode());
+        } finally {
+            server.stop();
+        }
+
+        server = new SyntheticHttpServer().tooManyRequestsRatio(1.0).retryAfter(2);
+        server.start(PORT + 2, null);
+        try {
+            final HttpResponse<byte[]> response = send(PORT + 2);
+            assertEquals(429, response.statusCode());
+            assertEquals("2", response.headers().firstValue("Retry-After").orElse(null));
+        } finally {
+            server.stop();
+        }
+
+        server = new SyntheticHttpServer().unavailableRatio(0.5);
+        server.start(PORT + 3, null);
+        try {
+            int unavailable = 0;
+            for (int i = 0; i < 100; i++) {
+                if (send(PORT + 3).statusCode() == 503) {
+                    unavailable++;
+                }
+            }
+
+            assertTrue(unavailable > 20 && unavailable < 80, "" + unavailable);
+            assertEquals(unavailable, server.getNumberOfErrorResponses());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    /**
+     * Test the max concurrency
+     *
+     * @throws Exception In case of an error
+     */
+    @Test
+    public void maxConcurrencyTest() throws Exception {
+        final SyntheticHttpServer server = new SyntheticHttpServer().latency(200).maxConcurrency(2);
+        server.start(PORT + 4, null);
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + (PORT + 4) + "/")).GET().build();
+            final List<CompletableFuture<HttpResponse<byte[]>>> futureList = new ArrayList<CompletableFuture<HttpResponse<byte[]>>>();
+            for (int i = 0; i < 6; i++) {
+                futureList.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+            }
+
+            int rejected = 0;
+            for (CompletableFuture<HttpResponse<byte[]>> future : futureList) {
+                if (future.get().statusCode() == 503) {
+                    rejected++;
+                }
+            }
+
+            assertTrue(rejected > 0);
+            assertEquals(rejected, server.getNumberOfRejectedRequests());
+            assertTrue(server.getMaxNumberOfConcurrentRequests() <= 2);
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    /**
+     * Test the log-normal latency distribution
+     */
+    @Test
+    public void latencyTest() {
+        final TestSyntheticHttpServer server = new TestSyntheticHttpServer();
+        server.latency(20, 200);
+
+        final int count = 10000;
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            latencies[i] = server.getLatency();
+        }
+        Arrays.sort(latencies);
+
+        assertTrue(Math.abs(latencies[count / 2] - 20) <= 3, "median " + latencies[count / 2]);
+        assertTrue(Math.abs(latencies[count * 99 / 100] - 200) <= 50, "p99 " + latencies[count * 99 / 100]);
+
+        // a fixed latency
+        server.latency(20);
+        assertEquals(20, server.getLatency());
+    }
+
+
+    /**
+     * Send a request
+     *
+     * @param port the port
+     * @return the response
+     * @throws Exception In case of an error
+     */
+    private HttpResponse<byte[]> send(int port) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+
+    /**
+     * Exposes the latency of the server
+     */
+    private static class TestSyntheticHttpServer extends SyntheticHttpServer {
+        /**
+         * @see com.github.toolarium.processing.unit.collection.http.test.SyntheticHttpServer#getLatency()
+         */
+        @Override
+        protected long getLatency() {
+            return super.getLatency();
+        }
+    }
+}